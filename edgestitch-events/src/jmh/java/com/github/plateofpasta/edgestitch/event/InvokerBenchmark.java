@@ -0,0 +1,119 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.event;
+
+import java.util.concurrent.TimeUnit;
+import net.fabricmc.fabric.api.event.Event;
+import net.fabricmc.fabric.api.event.EventFactory;
+import net.minecraft.util.ActionResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares a generated Edgestitch invoker against the {@link EventFactory#createArrayBacked} loop
+ * used by Fabric events. Every listener is its own lambda class, like listeners registered by
+ * different mods, and every listener passes so the whole chain is invoked.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class InvokerBenchmark {
+  /** Listener type of the benchmarked events. */
+  @FunctionalInterface
+  public interface Callback {
+    ActionResult onEvent(Object target, int value);
+  }
+
+  /** Distinct listener classes, the invoked value never matches so each listener passes. */
+  private static final Callback[] LISTENERS = {
+    (target, value) -> 1 == value ? ActionResult.FAIL : ActionResult.PASS,
+    (target, value) -> 2 == value ? ActionResult.FAIL : ActionResult.PASS,
+    (target, value) -> 3 == value ? ActionResult.FAIL : ActionResult.PASS,
+    (target, value) -> 4 == value ? ActionResult.FAIL : ActionResult.PASS,
+    (target, value) -> 5 == value ? ActionResult.FAIL : ActionResult.PASS,
+    (target, value) -> 6 == value ? ActionResult.FAIL : ActionResult.PASS,
+    (target, value) -> 7 == value ? ActionResult.FAIL : ActionResult.PASS,
+    (target, value) -> 8 == value ? ActionResult.FAIL : ActionResult.PASS,
+    (target, value) -> 9 == value ? ActionResult.FAIL : ActionResult.PASS,
+    (target, value) -> 10 == value ? ActionResult.FAIL : ActionResult.PASS,
+    (target, value) -> 11 == value ? ActionResult.FAIL : ActionResult.PASS,
+    (target, value) -> 12 == value ? ActionResult.FAIL : ActionResult.PASS,
+    (target, value) -> 13 == value ? ActionResult.FAIL : ActionResult.PASS,
+    (target, value) -> 14 == value ? ActionResult.FAIL : ActionResult.PASS,
+    (target, value) -> 15 == value ? ActionResult.FAIL : ActionResult.PASS,
+    (target, value) -> 16 == value ? ActionResult.FAIL : ActionResult.PASS
+  };
+
+  @Param({"1", "4", "16"})
+  public int listenerCount;
+
+  private final Object target = new Object();
+  private int value;
+  private Callback arrayBacked;
+  private Callback generated;
+
+  /** Registers the first {@link #listenerCount} listeners to both events. */
+  @Setup
+  public void setup() {
+    final Event<Callback> arrayBackedEvent =
+        EventFactory.createArrayBacked(
+            Callback.class,
+            (listeners) ->
+                (target, value) -> {
+                  for (Callback event : listeners) {
+                    ActionResult result = event.onEvent(target, value);
+                    if (result != ActionResult.PASS) {
+                      return result;
+                    }
+                  }
+                  return ActionResult.PASS;
+                });
+    final Event<Callback> generatedEvent =
+        EdgestitchEventFactory.createGenerated(
+            Callback.class, (target, value) -> ActionResult.PASS);
+    for (int i = 0; i < listenerCount; ++i) {
+      arrayBackedEvent.register(LISTENERS[i]);
+      generatedEvent.register(LISTENERS[i]);
+    }
+    arrayBacked = arrayBackedEvent.invoker();
+    generated = generatedEvent.invoker();
+  }
+
+  @Benchmark
+  public ActionResult arrayBacked() {
+    return arrayBacked.onEvent(target, value);
+  }
+
+  @Benchmark
+  public ActionResult generated() {
+    return generated.onEvent(target, value);
+  }
+}
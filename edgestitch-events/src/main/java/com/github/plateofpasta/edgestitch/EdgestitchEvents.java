@@ -0,0 +1,83 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch;
+
+import com.github.plateofpasta.edgestitch.event.AsyncEvents;
+import com.github.plateofpasta.edgestitch.event.EntityDensityIndex;
+import com.github.plateofpasta.edgestitch.event.EntityLimiter;
+import com.github.plateofpasta.edgestitch.event.FluidFlowSuppression;
+import com.github.plateofpasta.edgestitch.event.FluidThrottle;
+import com.github.plateofpasta.edgestitch.event.HopperSleep;
+import com.github.plateofpasta.edgestitch.event.HopperTransfers;
+import com.github.plateofpasta.edgestitch.event.HopperVerdictCache;
+import com.github.plateofpasta.edgestitch.event.ItemCoalescer;
+import com.github.plateofpasta.edgestitch.event.ItemEntityIndex;
+import com.github.plateofpasta.edgestitch.event.ListenerBudgets;
+import com.github.plateofpasta.edgestitch.event.RedstoneThrottle;
+import com.github.plateofpasta.edgestitch.event.command.EventCommands;
+import java.util.Properties;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerChunkEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+
+/** Implements Fabric dedicated server mod initializer. */
+public class EdgestitchEvents {
+  /**
+   * Loads the listener budgets and the entity, item, fluid, piston and hopper settings, and
+   * registers the event diagnostics commands.
+   */
+  public void init() {
+    final Properties config = EventsConfig.read();
+    ListenerBudgets.loadConfig(config);
+    // Both register LATE spawn listeners; the coalescer registers first, so an item that merges
+    // into an existing stack never reaches the entity caps.
+    ItemCoalescer.loadConfig(config);
+    EntityLimiter.loadConfig(config);
+    FluidThrottle.loadConfig(config);
+    FluidFlowSuppression.setEnabled(
+        Boolean.parseBoolean(config.getProperty(FluidFlowSuppression.ENABLED_KEY)));
+    RedstoneThrottle.loadConfig(config);
+    HopperVerdictCache.setEnabled(
+        Boolean.parseBoolean(config.getProperty(HopperVerdictCache.ENABLED_KEY)));
+    HopperSleep.loadConfig(config);
+    HopperTransfers.loadConfig(config);
+    ServerTickEvents.END_SERVER_TICK.register(
+        server -> {
+          ListenerBudgets.onTickEnd();
+          FluidThrottle.onTickEnd();
+          HopperSleep.onTickEnd();
+        });
+    ServerChunkEvents.CHUNK_UNLOAD.register(
+        (world, chunk) -> {
+          EntityDensityIndex.onChunkUnload(world, chunk.getPos());
+          ItemEntityIndex.onChunkUnload(world, chunk.getPos());
+          FluidThrottle.onChunkUnload(world, chunk.getPos());
+          FluidFlowSuppression.onChunkUnload(world, chunk.getPos());
+          HopperVerdictCache.onChunkUnload(world, chunk.getPos());
+        });
+    ServerLifecycleEvents.SERVER_STOPPING.register(server -> AsyncEvents.close());
+    EventCommands.init();
+  }
+}
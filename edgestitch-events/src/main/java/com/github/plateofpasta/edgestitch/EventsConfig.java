@@ -0,0 +1,68 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import net.fabricmc.loader.api.FabricLoader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Reads the Edgestitch events config file. Used by the mod initializer and by the mixin plugin
+ * before any game class is loaded, so it must not reference any.
+ */
+public final class EventsConfig {
+  /** Name of the config file in the Fabric config directory. */
+  public static final String FILE_NAME = "edgestitch-events.properties";
+
+  private static final Logger LOGGER = LogManager.getLogger();
+
+  /** Prevent instantiations of this class. */
+  private EventsConfig() {}
+
+  /**
+   * Reads the config file from the Fabric config directory.
+   *
+   * @return Contents of the config file, empty if it does not exist or can not be read.
+   */
+  public static Properties read() {
+    final Path path = FabricLoader.getInstance().getConfigDir().resolve(FILE_NAME);
+    final Properties properties = new Properties();
+    if (!Files.isRegularFile(path)) {
+      return properties;
+    }
+    try (Reader reader = Files.newBufferedReader(path)) {
+      properties.load(reader);
+    } catch (IOException e) {
+      LOGGER.error("Could not read {}", path, e);
+      properties.clear();
+    }
+    return properties;
+  }
+}
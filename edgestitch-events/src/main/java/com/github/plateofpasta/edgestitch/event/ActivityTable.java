@@ -0,0 +1,192 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.event;
+
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.longs.Long2DoubleMap;
+import it.unimi.dsi.fastutil.longs.Long2DoubleOpenHashMap;
+import java.util.Arrays;
+
+/**
+ * Open addressing table of activity rates keyed by long, for example packed block positions. Each
+ * key counts its hits in the current and the previous fixed window, and its rate is estimated as a
+ * sliding window: the previous count weighted by how much of it still overlaps, plus the current
+ * count.
+ *
+ * <p>The table never grows. Probing is bounded, and when no free slot is found the key that went
+ * quiet the longest, or else the least active one, is replaced. Not thread safe.
+ */
+final class ActivityTable {
+  private static final long EMPTY = Long.MIN_VALUE;
+  private static final int MAX_PROBES = 16;
+  private final int window;
+  private final int mask;
+  private final long[] keys;
+  private final long[] windowStarts;
+  private final int[] current;
+  private final int[] previous;
+
+  /**
+   * Constructor.
+   *
+   * @param capacity Number of slots, a power of 2.
+   * @param window Length of a window in ticks.
+   */
+  ActivityTable(int capacity, int window) {
+    if (Integer.bitCount(capacity) != 1 || capacity < MAX_PROBES) {
+      throw new IllegalArgumentException("capacity must be a power of 2 of at least " + MAX_PROBES);
+    }
+    this.window = window;
+    this.mask = capacity - 1;
+    this.keys = new long[capacity];
+    this.windowStarts = new long[capacity];
+    this.current = new int[capacity];
+    this.previous = new int[capacity];
+    Arrays.fill(windowStarts, EMPTY);
+  }
+
+  /**
+   * Counts a hit of a key.
+   *
+   * @param key Key that was hit.
+   * @param tick Current tick.
+   * @return Estimated hits per window, including this hit.
+   */
+  double hit(long key, long tick) {
+    final int slot = find(key, tick, true);
+    ++current[slot];
+    return estimate(slot, tick);
+  }
+
+  /**
+   * Gets the rate of a key without counting a hit.
+   *
+   * @param key Key to look up.
+   * @param tick Current tick.
+   * @return Estimated hits per window.
+   */
+  double rate(long key, long tick) {
+    final int slot = find(key, tick, false);
+    return -1 == slot ? 0.0 : estimate(slot, tick);
+  }
+
+  /**
+   * Gets the rates of every key at or above a minimum rate.
+   *
+   * @param tick Current tick.
+   * @param minRate Minimum estimated hits per window.
+   * @return Rates by key.
+   */
+  Long2DoubleMap snapshot(long tick, double minRate) {
+    final Long2DoubleMap rates = new Long2DoubleOpenHashMap();
+    for (int slot = 0; slot <= mask; ++slot) {
+      if (EMPTY != windowStarts[slot]) {
+        final double rate = estimate(slot, tick);
+        if (rate >= minRate) {
+          rates.put(keys[slot], rate);
+        }
+      }
+    }
+    return rates;
+  }
+
+  /** Forgets every key. */
+  void clear() {
+    Arrays.fill(windowStarts, EMPTY);
+  }
+
+  /**
+   * Finds the slot of a key, probing from its hash. Slots never become empty again once used, so
+   * an empty slot ends the probe.
+   *
+   * @param key Key to find.
+   * @param tick Current tick.
+   * @param insert {@code true} to take over a slot if the key is not found.
+   * @return Slot of the key, or {@code -1} if it is not found and insert is {@code false}.
+   */
+  private int find(long key, long tick, boolean insert) {
+    final int start = (int) HashCommon.mix(key) & mask;
+    int victim = -1;
+    double victimRate = Double.MAX_VALUE;
+    for (int probe = 0; probe < MAX_PROBES; ++probe) {
+      final int slot = (start + probe) & mask;
+      if (EMPTY == windowStarts[slot]) {
+        if (!insert) {
+          return -1;
+        }
+        return reset(-1 == victim || 0.0 != victimRate ? slot : victim, key, tick);
+      }
+      if (keys[slot] == key) {
+        return slot;
+      }
+      if (insert) {
+        final double rate = estimate(slot, tick);
+        if (rate < victimRate) {
+          victim = slot;
+          victimRate = rate;
+        }
+      }
+    }
+    return insert ? reset(victim, key, tick) : -1;
+  }
+
+  /**
+   * Assigns a slot to a key with no hits.
+   *
+   * @param slot Slot to assign.
+   * @param key New key of the slot.
+   * @param tick Current tick.
+   * @return The slot.
+   */
+  private int reset(int slot, long key, long tick) {
+    keys[slot] = key;
+    windowStarts[slot] = tick;
+    current[slot] = 0;
+    previous[slot] = 0;
+    return slot;
+  }
+
+  /**
+   * Estimates the hits per window of a slot, after moving its windows up to the current tick.
+   *
+   * @param slot Used slot.
+   * @param tick Current tick.
+   * @return Estimated hits per window.
+   */
+  private double estimate(int slot, long tick) {
+    long elapsed = tick - windowStarts[slot];
+    if (elapsed < 0) {
+      // Time went backwards, start over.
+      reset(slot, keys[slot], tick);
+      elapsed = 0;
+    } else if (elapsed >= window) {
+      previous[slot] = elapsed < 2L * window ? current[slot] : 0;
+      current[slot] = 0;
+      windowStarts[slot] += elapsed - elapsed % window;
+      elapsed %= window;
+    }
+    return previous[slot] * (double) (window - elapsed) / window + current[slot];
+  }
+}
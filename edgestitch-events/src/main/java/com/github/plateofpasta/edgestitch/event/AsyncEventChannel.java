@@ -0,0 +1,278 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.event;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Observer-only event channel that moves non-cancelling listener work off the server thread. The
+ * producer copies the fields of an event into a preallocated slot of a ring buffer, and background
+ * threads hand every slot to the observers. Observers can not affect the event.
+ *
+ * <p>There must be a single producer thread, the server thread. Slots are reused, so observers
+ * must copy anything they keep past their invocation. A consumer thread stops once its last
+ * observer unsubscribed, and {@link #close()} stops all of them.
+ *
+ * @param <E> Slot type.
+ */
+public final class AsyncEventChannel<E> {
+  /** What the producer does when the slowest consumer thread is too far behind. */
+  public enum BackPressure {
+    /** Drops the event when the buffer is full. */
+    DROP,
+    /** Waits on the server thread until a slot is free. */
+    BLOCK,
+    /** Keeps one in sampleInterval events once the buffer is half full, drops when full. */
+    SAMPLE
+  }
+
+  private static final Logger LOGGER = LogManager.getLogger();
+  private static final long IDLE_PARK_NANOS = 1_000_000L;
+  private static final long BLOCK_PARK_NANOS = 10_000L;
+  private final String name;
+  private final Object[] slots;
+  private final int mask;
+  private final int maxConsumerThreads;
+  private final AtomicLong published = new AtomicLong(-1L);
+  private final AtomicLong dropped = new AtomicLong();
+  private final List<Drainer> drainers = new CopyOnWriteArrayList<>();
+  private volatile BackPressure backPressure = BackPressure.DROP;
+  private volatile int sampleInterval = 1;
+  // Only accessed by the producer.
+  private long claimed = -1L;
+  private long cachedGate = -1L;
+  private int sampleCountdown;
+
+  /**
+   * Constructor.
+   *
+   * @param name Name of the channel, used for its threads.
+   * @param capacity Number of slots, must be a power of two.
+   * @param slotFactory Creates the preallocated slots.
+   * @param maxConsumerThreads Maximum number of threads the observers are spread over.
+   */
+  public AsyncEventChannel(
+      String name, int capacity, Supplier<E> slotFactory, int maxConsumerThreads) {
+    if (capacity <= 0 || 0 != (capacity & (capacity - 1))) {
+      throw new IllegalArgumentException("Capacity must be a positive power of two");
+    }
+    if (maxConsumerThreads <= 0) {
+      throw new IllegalArgumentException("There must be at least one consumer thread");
+    }
+    this.name = name;
+    this.slots = new Object[capacity];
+    this.mask = capacity - 1;
+    this.maxConsumerThreads = maxConsumerThreads;
+    for (int i = 0; i < capacity; ++i) {
+      slots[i] = slotFactory.get();
+    }
+  }
+
+  /** @return {@code true} if at least one observer subscribed, else {@code false}. */
+  public boolean hasSubscribers() {
+    return !drainers.isEmpty();
+  }
+
+  /**
+   * Subscribes an observer. Observers are spread over up to maxConsumerThreads threads, each
+   * observer is always invoked on the same thread. The observer receives the events published
+   * after it subscribed.
+   *
+   * @param observer Observer to invoke with each event.
+   */
+  public synchronized void subscribe(Consumer<? super E> observer) {
+    if (drainers.size() < maxConsumerThreads) {
+      final Drainer drainer = new Drainer(published.get());
+      drainer.observers.add(observer);
+      drainers.add(drainer);
+      drainer.thread = new Thread(drainer, "Edgestitch " + name + " observer " + drainers.size());
+      drainer.thread.setDaemon(true);
+      drainer.thread.start();
+      return;
+    }
+    Drainer least = drainers.get(0);
+    for (Drainer drainer : drainers) {
+      if (drainer.observers.size() < least.observers.size()) {
+        least = drainer;
+      }
+    }
+    least.observers.add(observer);
+  }
+
+  /**
+   * Unsubscribes an observer. The consumer thread of the observer stops if it has no observers
+   * left.
+   *
+   * @param observer Observer to stop invoking.
+   */
+  public synchronized void unsubscribe(Consumer<? super E> observer) {
+    for (Drainer drainer : drainers) {
+      if (drainer.observers.remove(observer)) {
+        if (drainer.observers.isEmpty()) {
+          drainers.remove(drainer);
+          drainer.stop();
+        }
+        return;
+      }
+    }
+  }
+
+  /**
+   * Unsubscribes every observer and stops the consumer threads, dropping the events they did not
+   * consume yet. Observers may subscribe again afterwards.
+   */
+  public synchronized void close() {
+    for (Drainer drainer : drainers) {
+      drainer.stop();
+    }
+    drainers.clear();
+  }
+
+  /**
+   * Sets the back-pressure policy.
+   *
+   * @param policy What to do when the consumers fall behind.
+   * @param sampleInterval One in this many events is kept by {@link BackPressure#SAMPLE}.
+   */
+  public void setBackPressure(BackPressure policy, int sampleInterval) {
+    if (sampleInterval <= 0) {
+      throw new IllegalArgumentException("Sample interval must be positive");
+    }
+    this.sampleInterval = sampleInterval;
+    this.backPressure = policy;
+  }
+
+  /** @return Number of events dropped by the back-pressure policy. */
+  public long getDropped() {
+    return dropped.get();
+  }
+
+  /**
+   * Claims the next slot. The producer writes the event into it and then calls {@link #publish()}.
+   *
+   * @return Slot to write, or {@code null} if the back-pressure policy dropped the event.
+   */
+  @SuppressWarnings("unchecked")
+  E claim() {
+    final long next = claimed + 1;
+    final int capacity = slots.length;
+    final BackPressure policy = backPressure;
+    final long threshold = BackPressure.SAMPLE == policy ? capacity / 2 : capacity;
+    if (next - cachedGate > threshold) {
+      cachedGate = minimumCursor(next - 1);
+    }
+    if (BackPressure.SAMPLE == policy && next - cachedGate > threshold) {
+      if (0 < --sampleCountdown) {
+        dropped.incrementAndGet();
+        return null;
+      }
+      sampleCountdown = sampleInterval;
+    }
+    while (next - cachedGate > capacity) {
+      if (BackPressure.BLOCK != policy) {
+        dropped.incrementAndGet();
+        return null;
+      }
+      LockSupport.parkNanos(BLOCK_PARK_NANOS);
+      cachedGate = minimumCursor(next - 1);
+    }
+    claimed = next;
+    return (E) slots[(int) next & mask];
+  }
+
+  /** Makes the last claimed slot visible to the consumer threads. */
+  void publish() {
+    published.lazySet(claimed);
+  }
+
+  /**
+   * Gets the sequence consumed by the slowest consumer thread.
+   *
+   * @param defaultValue Returned if there are no consumer threads.
+   * @return Slowest cursor.
+   */
+  private long minimumCursor(long defaultValue) {
+    long minimum = Long.MAX_VALUE;
+    for (Drainer drainer : drainers) {
+      minimum = Math.min(minimum, drainer.cursor.get());
+    }
+    return Long.MAX_VALUE == minimum ? defaultValue : minimum;
+  }
+
+  /** Consumer thread, hands every published slot to its observers. */
+  private final class Drainer implements Runnable {
+    private final AtomicLong cursor;
+    private final List<Consumer<? super E>> observers = new CopyOnWriteArrayList<>();
+    private volatile boolean running = true;
+    private Thread thread;
+
+    /**
+     * Constructor.
+     *
+     * @param cursor Last sequence that is not handed to the observers.
+     */
+    private Drainer(long cursor) {
+      this.cursor = new AtomicLong(cursor);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void run() {
+      long next = cursor.get() + 1;
+      while (running) {
+        final long available = published.get();
+        if (available < next) {
+          LockSupport.parkNanos(IDLE_PARK_NANOS);
+          continue;
+        }
+        for (long sequence = next; sequence <= available; ++sequence) {
+          final E slot = (E) slots[(int) sequence & mask];
+          for (Consumer<? super E> observer : observers) {
+            try {
+              observer.accept(slot);
+            } catch (RuntimeException e) {
+              LOGGER.error("Observer of {} failed", name, e);
+            }
+          }
+        }
+        cursor.lazySet(available);
+        next = available + 1;
+      }
+    }
+
+    /** Stops the thread after the observers it is currently invoking. */
+    private void stop() {
+      running = false;
+      LockSupport.unpark(thread);
+    }
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.event;
+
+import net.minecraft.entity.Entity;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.world.World;
+
+/**
+ * Asynchronous observer-only variants of the events in {@link ServerPlayerEvents} and {@link
+ * ServerWorldEvents}. Use these instead of a listener that only logs or records the event, so that
+ * the work runs on a background thread instead of the server thread.
+ *
+ * @see AsyncEventChannel
+ */
+public final class AsyncEvents {
+  /** Default number of slots of each channel. */
+  public static final int DEFAULT_CAPACITY = 4096;
+
+  /** Players connecting and disconnecting, published after {@link ServerPlayerEvents}. */
+  public static final AsyncEventChannel<PlayerConnectionRecord> PLAYER_CONNECTION =
+      new AsyncEventChannel<>(
+          "player connection", DEFAULT_CAPACITY, PlayerConnectionRecord::new, 1);
+
+  /** Entities that were spawned, published only if the spawn succeeded. */
+  public static final AsyncEventChannel<EntitySpawnRecord> ENTITY_SPAWN =
+      new AsyncEventChannel<>("entity spawn", DEFAULT_CAPACITY, EntitySpawnRecord::new, 1);
+
+  /** Prevent instantiations of this class. */
+  private AsyncEvents() {}
+
+  /**
+   * Unsubscribes the observers of every channel and stops their threads, so they do not keep the
+   * objects of a stopped server reachable. Called when the server stops.
+   */
+  public static void close() {
+    PLAYER_CONNECTION.close();
+    ENTITY_SPAWN.close();
+  }
+
+  /**
+   * Publishes a player connection or disconnection if anyone observes it.
+   *
+   * @param player Player that connected or disconnected.
+   * @param connected {@code true} if the player connected, {@code false} if they disconnected.
+   */
+  public static void publishPlayerConnection(ServerPlayerEntity player, boolean connected) {
+    if (!PLAYER_CONNECTION.hasSubscribers()) {
+      return;
+    }
+    final PlayerConnectionRecord record = PLAYER_CONNECTION.claim();
+    if (null != record) {
+      record.set(player.getName().asString(), player.getUuid(), connected);
+      PLAYER_CONNECTION.publish();
+    }
+  }
+
+  /**
+   * Publishes a successful entity spawn if anyone observes it.
+   *
+   * @param world World the entity spawned in.
+   * @param entity Spawned entity.
+   */
+  public static void publishEntitySpawn(World world, Entity entity) {
+    if (!ENTITY_SPAWN.hasSubscribers()) {
+      return;
+    }
+    final EntitySpawnRecord record = ENTITY_SPAWN.claim();
+    if (null != record) {
+      record.set(
+          world.getRegistryKey(),
+          entity.getType(),
+          entity.getUuid(),
+          entity.getX(),
+          entity.getY(),
+          entity.getZ(),
+          world.getTime());
+      ENTITY_SPAWN.publish();
+    }
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.event;
+
+import java.util.Arrays;
+import net.minecraft.entity.EntityType;
+import net.minecraft.entity.SpawnGroup;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.registry.Registry;
+import net.minecraft.util.registry.RegistryKey;
+import net.minecraft.world.World;
+
+/** Number of entities in a chunk, by type and spawn group. See {@link EntityDensityIndex}. */
+public final class ChunkEntityCounts {
+  private static final int[] NO_TYPES = new int[0];
+  private final RegistryKey<World> worldKey;
+  private final long chunkKey;
+  private final int[] byGroup = new int[SpawnGroup.values().length];
+  private int[] byType = NO_TYPES;
+  private int total;
+
+  /**
+   * Constructor.
+   *
+   * @param worldKey Key of the world of the chunk.
+   * @param chunkKey Packed position of the chunk.
+   */
+  ChunkEntityCounts(RegistryKey<World> worldKey, long chunkKey) {
+    this.worldKey = worldKey;
+    this.chunkKey = chunkKey;
+  }
+
+  /**
+   * Adds to the count of a type.
+   *
+   * @param type Entity type.
+   * @param delta Number of entities added, negative if removed.
+   */
+  void add(EntityType<?> type, int delta) {
+    final int rawId = Registry.ENTITY_TYPE.getRawId(type);
+    if (rawId < 0) {
+      return;
+    }
+    if (rawId >= byType.length) {
+      byType = Arrays.copyOf(byType, rawId + 1);
+    }
+    // Entities added before tracking was enabled are not counted, never go below zero.
+    final int applied = Math.max(-byType[rawId], delta);
+    byType[rawId] += applied;
+    byGroup[type.getSpawnGroup().ordinal()] += applied;
+    total += applied;
+  }
+
+  /** @return Key of the world of the chunk. */
+  public RegistryKey<World> getWorldKey() {
+    return worldKey;
+  }
+
+  /** @return Position of the chunk. */
+  public ChunkPos getChunkPos() {
+    return new ChunkPos(chunkKey);
+  }
+
+  /** @return Number of tracked entities in the chunk. */
+  public int getTotal() {
+    return total;
+  }
+
+  /**
+   * Gets the number of entities of a type.
+   *
+   * @param type Entity type.
+   * @return Number of entities of the type in the chunk.
+   */
+  public int getCount(EntityType<?> type) {
+    final int rawId = Registry.ENTITY_TYPE.getRawId(type);
+    return (0 <= rawId && rawId < byType.length) ? byType[rawId] : 0;
+  }
+
+  /**
+   * Gets the number of entities of a spawn group.
+   *
+   * @param group Spawn group.
+   * @return Number of entities of the spawn group in the chunk.
+   */
+  public int getCount(SpawnGroup group) {
+    return byGroup[group.ordinal()];
+  }
+
+  /** @return Type with the most entities in the chunk, or {@code null} if it is empty. */
+  public EntityType<?> getDensestType() {
+    int densest = -1;
+    for (int rawId = 0; rawId < byType.length; ++rawId) {
+      if (0 < byType[rawId] && (-1 == densest || byType[rawId] > byType[densest])) {
+        densest = rawId;
+      }
+    }
+    return -1 == densest ? null : Registry.ENTITY_TYPE.get(densest);
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.event;
+
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.registry.RegistryKey;
+import net.minecraft.world.World;
+
+/** Deferred fluid flows of a chunk. See {@link FluidThrottle}. */
+public final class ChunkFlowMetrics {
+  private final RegistryKey<World> worldKey;
+  private final long chunkKey;
+  private long deferred;
+  private int overloadedTicks;
+
+  /**
+   * Constructor.
+   *
+   * @param worldKey Key of the world of the chunk.
+   * @param chunkKey Packed position of the chunk.
+   */
+  ChunkFlowMetrics(RegistryKey<World> worldKey, long chunkKey) {
+    this.worldKey = worldKey;
+    this.chunkKey = chunkKey;
+  }
+
+  /** Counts a deferred flow. */
+  void addDeferred() {
+    ++deferred;
+  }
+
+  /** Counts a tick in which the chunk exceeded its budget. */
+  void addOverloadedTick() {
+    ++overloadedTicks;
+  }
+
+  /** @return Key of the world of the chunk. */
+  public RegistryKey<World> getWorldKey() {
+    return worldKey;
+  }
+
+  /** @return Position of the chunk. */
+  public ChunkPos getChunkPos() {
+    return new ChunkPos(chunkKey);
+  }
+
+  /** @return Number of flows deferred since the chunk was loaded. */
+  public long getDeferred() {
+    return deferred;
+  }
+
+  /** @return Number of ticks in which the chunk exceeded its budget since it was loaded. */
+  public int getOverloadedTicks() {
+    return overloadedTicks;
+  }
+}
@@ -0,0 +1,294 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.event;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import net.fabricmc.fabric.api.event.Event;
+
+/**
+ * {@link Event} used by every Edgestitch event. Behaves like the events created by {@link
+ * net.fabricmc.fabric.api.event.EventFactory#createArrayBacked}, but also lets mixins check whether
+ * anyone is listening before they build the arguments of the event, and orders its listeners by
+ * {@link EventPhase}.
+ *
+ * @param <T> Listener type.
+ * @see EdgestitchEventFactory
+ */
+public final class EdgestitchEvent<T> extends Event<T> {
+  private static final List<EdgestitchEvent<?>> EVENTS = new CopyOnWriteArrayList<>();
+  private static final List<ListenerDecorator> DECORATORS = new CopyOnWriteArrayList<>();
+  private final Class<T> type;
+  private final InvokerBuilder<T> invokerBuilder;
+  private final List<List<T>> phases = new ArrayList<>();
+  private final Set<T> bridges = Collections.newSetFromMap(new IdentityHashMap<>());
+  private final List<Runnable> refreshHooks = new CopyOnWriteArrayList<>();
+  private final Object lock = new Object();
+  private T[] listeners;
+  private boolean hasDirectListeners;
+
+  /**
+   * Constructor.
+   *
+   * @param type Listener type.
+   * @param invokerBuilder Creates the invoker from the registered listeners.
+   */
+  EdgestitchEvent(Class<T> type, InvokerBuilder<T> invokerBuilder) {
+    this.type = type;
+    this.invokerBuilder = invokerBuilder;
+    for (int i = 0; i < EventPhase.values().length; ++i) {
+      phases.add(new ArrayList<>());
+    }
+    update();
+    EVENTS.add(this);
+  }
+
+  /** @return Every event created by {@link EdgestitchEventFactory}. */
+  static List<EdgestitchEvent<?>> getEvents() {
+    return EVENTS;
+  }
+
+  /**
+   * Adds a decorator that wraps the listeners of every event and rebuilds every invoker. While no
+   * decorators are added, invokers call the listeners directly.
+   *
+   * @param decorator Decorator to add.
+   */
+  static void addDecorator(ListenerDecorator decorator) {
+    DECORATORS.add(decorator);
+    updateAll();
+  }
+
+  /**
+   * Removes a decorator and rebuilds every invoker without it.
+   *
+   * @param decorator Decorator to remove.
+   */
+  static void removeDecorator(ListenerDecorator decorator) {
+    DECORATORS.remove(decorator);
+    updateAll();
+  }
+
+  /** Rebuilds the invoker of every event. */
+  private static void updateAll() {
+    for (EdgestitchEvent<?> event : EVENTS) {
+      event.refresh();
+    }
+  }
+
+  /**
+   * Rebuilds the invoker of this event, for example after the state of a decorator changed, and
+   * runs the refresh hooks of the listener indexes of this event.
+   */
+  void refresh() {
+    synchronized (lock) {
+      update();
+    }
+    for (Runnable hook : refreshHooks) {
+      hook.run();
+    }
+  }
+
+  /**
+   * Adds a hook that runs whenever the decorators of this event may wrap listeners differently.
+   * Used by listener indexes whose listeners are invoked on behalf of this event, so they can
+   * decorate them again.
+   *
+   * @param hook Hook to run.
+   */
+  void addRefreshHook(Runnable hook) {
+    refreshHooks.add(hook);
+  }
+
+  /**
+   * Wraps a listener invoked on behalf of this event with the current decorators.
+   *
+   * @param phase Phase the listener is invoked in.
+   * @param listener Listener as registered.
+   * @return Listener to invoke instead, or {@code null} if a decorator skips it.
+   */
+  T decorate(EventPhase phase, T listener) {
+    T wrapped = listener;
+    for (ListenerDecorator decorator : DECORATORS) {
+      wrapped = decorator.decorate(this, phase, listener, wrapped);
+      if (null == wrapped) {
+        break;
+      }
+    }
+    return wrapped;
+  }
+
+  /**
+   * Checks if an event has any listeners. Events that were not created by {@link
+   * EdgestitchEventFactory} are assumed to have listeners.
+   *
+   * @param event Event to check.
+   * @return {@code true} if invoking the event may have an effect, else {@code false}.
+   */
+  public static boolean hasListeners(Event<?> event) {
+    return !(event instanceof EdgestitchEvent) || ((EdgestitchEvent<?>) event).hasListeners();
+  }
+
+  /** @return {@code true} if at least one listener is registered, else {@code false}. */
+  public boolean hasListeners() {
+    return 0 != listeners.length;
+  }
+
+  /**
+   * Checks if an event has listeners other than the bridges of listener indexes. Events that were
+   * not created by {@link EdgestitchEventFactory} are assumed to have listeners.
+   *
+   * @param event Event to check.
+   * @return {@code true} if invoking the event may have an effect regardless of the listeners of
+   *     its indexes, else {@code false}.
+   */
+  public static boolean hasDirectListeners(Event<?> event) {
+    return !(event instanceof EdgestitchEvent)
+        || ((EdgestitchEvent<?>) event).hasDirectListeners;
+  }
+
+  /** @return Listener type of this event. */
+  public Class<T> getType() {
+    return type;
+  }
+
+  /** @return Name of this event used in reports, the simple name of its listener type. */
+  public String getName() {
+    return type.getSimpleName();
+  }
+
+  /**
+   * Registers a listener to the NORMAL phase of this event.
+   *
+   * @param listener Listener to register.
+   */
+  @Override
+  public void register(T listener) {
+    register(EventPhase.NORMAL, listener);
+  }
+
+  /**
+   * Registers a listener to a phase of this event.
+   *
+   * @param phase Phase in which the listener is invoked.
+   * @param listener Listener to register.
+   */
+  public void register(EventPhase phase, T listener) {
+    Objects.requireNonNull(phase, "Tried to register to a null phase!");
+    Objects.requireNonNull(listener, "Tried to register a null listener!");
+    synchronized (lock) {
+      phases.get(phase.ordinal()).add(listener);
+      update();
+    }
+  }
+
+  /**
+   * Registers a listener that invokes listeners of an index, which are decorated on their own. The
+   * bridge itself is never decorated.
+   *
+   * @param phase Phase in which the bridge is invoked.
+   * @param bridge Bridge to register.
+   */
+  void registerBridge(EventPhase phase, T bridge) {
+    synchronized (lock) {
+      bridges.add(bridge);
+      register(phase, bridge);
+    }
+  }
+
+  /**
+   * Flattens the listeners in phase order and rebuilds the invoker from them, wrapped by the
+   * current decorators.
+   */
+  @SuppressWarnings("unchecked")
+  private void update() {
+    final List<T> ordered = new ArrayList<>();
+    final List<T> decorated = new ArrayList<>();
+    int monitor = 0;
+    int direct = 0;
+    for (EventPhase phase : EventPhase.values()) {
+      if (EventPhase.MONITOR == phase) {
+        monitor = decorated.size();
+      }
+      for (T listener : phases.get(phase.ordinal())) {
+        ordered.add(listener);
+        final boolean bridge = bridges.contains(listener);
+        if (!bridge) {
+          ++direct;
+        }
+        final T wrapped = bridge ? listener : decorate(phase, listener);
+        if (null != wrapped) {
+          decorated.add(wrapped);
+        }
+      }
+    }
+    this.invoker =
+        invokerBuilder.build(
+            decorated.toArray((T[]) Array.newInstance(type, decorated.size())), monitor);
+    this.listeners = ordered.toArray((T[]) Array.newInstance(type, ordered.size()));
+    this.hasDirectListeners = 0 != direct;
+  }
+
+  /**
+   * Creates the invoker of an event from its listeners.
+   *
+   * @param <T> Listener type.
+   */
+  @FunctionalInterface
+  interface InvokerBuilder<T> {
+    /**
+     * Creates the invoker.
+     *
+     * @param listeners Registered listeners in invocation order.
+     * @param monitorIndex Index of the first MONITOR listener, equal to the number of listeners if
+     *     there are none.
+     * @return Invoker of the listeners.
+     */
+    T build(T[] listeners, int monitorIndex);
+  }
+
+  /** Wraps the listeners of events, for example to measure them. */
+  @FunctionalInterface
+  interface ListenerDecorator {
+    /**
+     * Wraps a listener.
+     *
+     * @param event Event the listener is registered to.
+     * @param phase Phase the listener is registered to.
+     * @param listener Listener as registered.
+     * @param wrapped Listener as wrapped by the previous decorators.
+     * @param <T> Listener type.
+     * @return Listener to invoke instead of wrapped, wrapped itself, or {@code null} to skip the
+     *     listener.
+     */
+    <T> T decorate(EdgestitchEvent<T> event, EventPhase phase, T listener, T wrapped);
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.event;
+
+import java.util.function.Function;
+import net.fabricmc.fabric.api.event.Event;
+
+/**
+ * Creates {@link EdgestitchEvent} instances. Mirrors {@link
+ * net.fabricmc.fabric.api.event.EventFactory}.
+ */
+public final class EdgestitchEventFactory {
+  /** Prevent instantiations of this class. */
+  private EdgestitchEventFactory() {}
+
+  /**
+   * Creates an array backed event. MONITOR listeners are only ordered after the other phases, the
+   * invoker factory decides how their results are used.
+   *
+   * @param type Listener type.
+   * @param invokerFactory Creates the invoker from the registered listeners.
+   * @param <T> Listener type.
+   * @return New event.
+   */
+  public static <T> Event<T> createArrayBacked(Class<T> type, Function<T[], T> invokerFactory) {
+    return new EdgestitchEvent<>(
+        type, (listeners, monitorIndex) -> invokerFactory.apply(listeners));
+  }
+
+  /**
+   * Creates an array backed event with a dedicated invoker for when there are no listeners. A
+   * single listener is used as the invoker directly.
+   *
+   * @param type Listener type.
+   * @param emptyInvoker Invoker used when there are no listeners.
+   * @param invokerFactory Creates the invoker from two or more registered listeners.
+   * @param <T> Listener type.
+   * @return New event.
+   */
+  public static <T> Event<T> createArrayBacked(
+      Class<T> type, T emptyInvoker, Function<T[], T> invokerFactory) {
+    return createArrayBacked(
+        type,
+        listeners -> {
+          if (0 == listeners.length) {
+            return emptyInvoker;
+          } else if (1 == listeners.length) {
+            return listeners[0];
+          } else {
+            return invokerFactory.apply(listeners);
+          }
+        });
+  }
+
+  /**
+   * Creates an event whose invoker is a class generated for the registered listeners, see {@link
+   * InvokerGenerator}. Listeners are invoked in phase order, the first result that is not PASS is
+   * returned and MONITOR listeners only run if every other listener passed.
+   *
+   * @param type Listener type, a functional interface returning void or ActionResult.
+   * @param emptyInvoker Invoker used when there are no listeners.
+   * @param <T> Listener type.
+   * @return New event.
+   */
+  public static <T> Event<T> createGenerated(Class<T> type, T emptyInvoker) {
+    return createGenerated(type, emptyInvoker, null);
+  }
+
+  /**
+   * Creates an event whose invoker is a class generated for the registered listeners, with a
+   * fallback listener that is invoked after the last non-MONITOR listener. Used to bridge verdict
+   * events to the legacy events they replace.
+   *
+   * @param type Listener type, a functional interface returning void or ActionResult.
+   * @param emptyInvoker Invoker used when there are no listeners, usually the fallback itself.
+   * @param fallback Listener invoked after every other non-MONITOR listener, may be {@code null}.
+   * @param <T> Listener type.
+   * @return New event.
+   */
+  public static <T> Event<T> createGenerated(Class<T> type, T emptyInvoker, T fallback) {
+    if (!InvokerGenerator.supports(type)) {
+      throw new IllegalArgumentException("Cannot generate invokers for " + type.getName());
+    }
+    return new EdgestitchEvent<>(
+        type,
+        (listeners, monitorIndex) ->
+            0 == listeners.length
+                ? emptyInvoker
+                : InvokerGenerator.generate(type, listeners, monitorIndex, fallback));
+  }
+}
@@ -0,0 +1,164 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.event;
+
+import com.github.plateofpasta.edgestitch.mixin.MixinWorldChunk;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.registry.RegistryKey;
+import net.minecraft.world.World;
+
+/**
+ * Incrementally maintained entity counts of every loaded chunk, keyed by world and packed chunk
+ * position. Counts are updated when a chunk gains or loses an entity and dropped when the chunk
+ * unloads, so lookups never iterate the entity lists of a chunk. Players are not counted.
+ *
+ * <p>Only accessed on the server thread. Tracking is disabled until {@link #setEnabled(boolean)}
+ * is called, entities added before that are not counted.
+ *
+ * @see MixinWorldChunk
+ */
+public final class EntityDensityIndex {
+  private static final Map<RegistryKey<World>, Long2ObjectOpenHashMap<ChunkEntityCounts>> WORLDS =
+      new HashMap<>();
+  private static boolean enabled;
+
+  /** Prevent instantiations of this class. */
+  private EntityDensityIndex() {}
+
+  /** @return {@code true} if entity counts are tracked, else {@code false}. */
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Enables or disables tracking. Disabling drops every count.
+   *
+   * @param enabled {@code true} to track entity counts.
+   */
+  public static void setEnabled(boolean enabled) {
+    EntityDensityIndex.enabled = enabled;
+    if (!enabled) {
+      WORLDS.clear();
+    }
+  }
+
+  /**
+   * Counts an entity added to a chunk.
+   *
+   * @param world World of the chunk.
+   * @param pos Position of the chunk.
+   * @param entity Added entity.
+   */
+  public static void onAdded(World world, ChunkPos pos, Entity entity) {
+    if (!enabled || world.isClient || entity instanceof PlayerEntity) {
+      return;
+    }
+    final long chunkKey = pos.toLong();
+    WORLDS
+        .computeIfAbsent(world.getRegistryKey(), key -> new Long2ObjectOpenHashMap<>())
+        .computeIfAbsent(chunkKey, key -> new ChunkEntityCounts(world.getRegistryKey(), chunkKey))
+        .add(entity.getType(), 1);
+  }
+
+  /**
+   * Uncounts an entity removed from a chunk.
+   *
+   * @param world World of the chunk.
+   * @param pos Position of the chunk.
+   * @param entity Removed entity.
+   */
+  public static void onRemoved(World world, ChunkPos pos, Entity entity) {
+    if (!enabled || world.isClient || entity instanceof PlayerEntity) {
+      return;
+    }
+    final ChunkEntityCounts counts = get(world, pos.toLong());
+    if (null != counts) {
+      counts.add(entity.getType(), -1);
+    }
+  }
+
+  /**
+   * Drops the counts of an unloaded chunk. Its entities are counted again when it loads.
+   *
+   * @param world World of the chunk.
+   * @param pos Position of the chunk.
+   */
+  public static void onChunkUnload(World world, ChunkPos pos) {
+    final Long2ObjectOpenHashMap<ChunkEntityCounts> chunks = WORLDS.get(world.getRegistryKey());
+    if (null != chunks) {
+      chunks.remove(pos.toLong());
+    }
+  }
+
+  /**
+   * Gets the counts of a chunk.
+   *
+   * @param world World of the chunk.
+   * @param chunkKey Packed position of the chunk.
+   * @return Counts of the chunk, or {@code null} if no entity of it is tracked.
+   */
+  public static ChunkEntityCounts get(World world, long chunkKey) {
+    final Long2ObjectOpenHashMap<ChunkEntityCounts> chunks = WORLDS.get(world.getRegistryKey());
+    return null == chunks ? null : chunks.get(chunkKey);
+  }
+
+  /**
+   * Gets the counts of the chunk containing an entity.
+   *
+   * @param world World of the entity.
+   * @param entity Entity to look up.
+   * @return Counts of the chunk, or {@code null} if no entity of it is tracked.
+   */
+  public static ChunkEntityCounts get(World world, Entity entity) {
+    return get(
+        world,
+        ChunkPos.toLong(
+            MathHelper.floor(entity.getX()) >> 4, MathHelper.floor(entity.getZ()) >> 4));
+  }
+
+  /**
+   * Gets the chunks with the most entities.
+   *
+   * @param count Maximum number of chunks.
+   * @return Counts of the densest chunks of every world, densest first.
+   */
+  public static List<ChunkEntityCounts> top(int count) {
+    final List<ChunkEntityCounts> all = new ArrayList<>();
+    for (Long2ObjectOpenHashMap<ChunkEntityCounts> chunks : WORLDS.values()) {
+      all.addAll(chunks.values());
+    }
+    all.sort(Comparator.comparingInt(ChunkEntityCounts::getTotal).reversed());
+    return all.subList(0, Math.min(count, all.size()));
+  }
+}
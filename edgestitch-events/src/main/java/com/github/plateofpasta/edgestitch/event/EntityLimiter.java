@@ -0,0 +1,264 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.event;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Properties;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityType;
+import net.minecraft.entity.LivingEntity;
+import net.minecraft.entity.SpawnGroup;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.ActionResult;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.InvalidIdentifierException;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.registry.Registry;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Per-chunk entity caps, enforced with the counts of {@link EntityDensityIndex}. Spawns that would
+ * exceed the cap of their type, spawn group or the chunk total are vetoed through {@link
+ * ServerWorldEvents#ENTITY_SPAWN_VERDICT}, and natural spawns are vetoed before the mob is created
+ * through {@link NaturalSpawnAttemptCallback}. Players are never limited. Entities that are not
+ * living, such as items, experience orbs, projectiles, TNT and falling blocks, are only limited by
+ * a cap of their own type, so group and total caps never delete drops or break bows.
+ *
+ * <p>The listeners are only registered once the first cap is set. The spawn listener runs in the
+ * LATE phase, after {@link ItemCoalescer} when it is enabled first, so items merging into an
+ * existing stack are not vetoed. Only used on the server thread.
+ */
+public final class EntityLimiter {
+  /** Prefix of the per-type cap keys in the config file, followed by the entity type id. */
+  public static final String TYPE_CAP_PREFIX = "entities.cap.type.";
+  /** Prefix of the per-spawn group cap keys in the config file, followed by the group name. */
+  public static final String GROUP_CAP_PREFIX = "entities.cap.group.";
+  /** Key of the total cap in the config file. */
+  public static final String TOTAL_CAP_KEY = "entities.cap.total";
+  /** Key that enables tracking without any cap in the config file. */
+  public static final String TRACK_KEY = "entities.track";
+  /** Cap value meaning that there is no cap. */
+  public static final int NO_CAP = Integer.MAX_VALUE;
+
+  private static final Logger LOGGER = LogManager.getLogger();
+  private static final int[] groupCaps = new int[SpawnGroup.values().length];
+  private static int[] typeCaps = new int[0];
+  private static int totalCap = NO_CAP;
+  private static boolean registered;
+
+  static {
+    Arrays.fill(groupCaps, NO_CAP);
+  }
+
+  /** Prevent instantiations of this class. */
+  private EntityLimiter() {}
+
+  /**
+   * Sets the per-chunk cap of an entity type.
+   *
+   * @param type Entity type.
+   * @param cap Maximum number of entities of the type per chunk, or {@link #NO_CAP}.
+   */
+  public static void setTypeCap(EntityType<?> type, int cap) {
+    final int rawId = Registry.ENTITY_TYPE.getRawId(type);
+    if (rawId >= typeCaps.length) {
+      final int length = typeCaps.length;
+      typeCaps = Arrays.copyOf(typeCaps, rawId + 1);
+      Arrays.fill(typeCaps, length, typeCaps.length, NO_CAP);
+    }
+    typeCaps[rawId] = cap;
+    enable();
+  }
+
+  /**
+   * Sets the per-chunk cap of a spawn group.
+   *
+   * @param group Spawn group.
+   * @param cap Maximum number of entities of the group per chunk, or {@link #NO_CAP}.
+   */
+  public static void setGroupCap(SpawnGroup group, int cap) {
+    groupCaps[group.ordinal()] = cap;
+    enable();
+  }
+
+  /**
+   * Sets the per-chunk cap of all entities.
+   *
+   * @param cap Maximum number of entities per chunk, or {@link #NO_CAP}.
+   */
+  public static void setTotalCap(int cap) {
+    totalCap = cap;
+    enable();
+  }
+
+  /**
+   * Loads the caps from the config file. Type ids must escape their colon in the key, e.g. {@code
+   * entities.cap.type.minecraft\:zombie=40}; ids without a namespace are minecraft ids. Group names
+   * are the lower case names of {@link SpawnGroup}, e.g. {@code entities.cap.group.monster=70}.
+   *
+   * @param properties Contents of the config file.
+   */
+  public static void loadConfig(Properties properties) {
+    if (Boolean.parseBoolean(properties.getProperty(TRACK_KEY))) {
+      EntityDensityIndex.setEnabled(true);
+    }
+    for (String key : properties.stringPropertyNames()) {
+      try {
+        if (key.startsWith(TYPE_CAP_PREFIX)) {
+          final Identifier id = new Identifier(key.substring(TYPE_CAP_PREFIX.length()));
+          final Optional<EntityType<?>> type = Registry.ENTITY_TYPE.getOrEmpty(id);
+          if (type.isPresent()) {
+            setTypeCap(type.get(), parseCap(properties.getProperty(key)));
+          } else {
+            LOGGER.warn("Ignoring entity cap {}, there is no entity type {}", key, id);
+          }
+        } else if (key.startsWith(GROUP_CAP_PREFIX)) {
+          final String group = key.substring(GROUP_CAP_PREFIX.length()).toUpperCase(Locale.ROOT);
+          setGroupCap(SpawnGroup.valueOf(group), parseCap(properties.getProperty(key)));
+        } else if (TOTAL_CAP_KEY.equals(key)) {
+          setTotalCap(parseCap(properties.getProperty(key)));
+        }
+      } catch (IllegalArgumentException | InvalidIdentifierException e) {
+        LOGGER.warn("Ignoring invalid entity cap {}: {}", key, e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Checks if one more entity of a type fits into a chunk.
+   *
+   * @param counts Counts of the chunk, {@code null} if it has no tracked entities.
+   * @param type Type of the new entity.
+   * @return {@code true} if the new entity would exceed a cap, else {@code false}.
+   */
+  public static boolean isCapped(ChunkEntityCounts counts, EntityType<?> type) {
+    if (null == counts) {
+      return totalCap <= 0 || groupCaps[type.getSpawnGroup().ordinal()] <= 0 || capOf(type) <= 0;
+    }
+    return counts.getTotal() >= totalCap
+        || counts.getCount(type.getSpawnGroup()) >= groupCaps[type.getSpawnGroup().ordinal()]
+        || counts.getCount(type) >= capOf(type);
+  }
+
+  /**
+   * Checks if one more entity of a type fits into a chunk, considering only the cap of the type.
+   *
+   * @param counts Counts of the chunk, {@code null} if it has no tracked entities.
+   * @param type Type of the new entity.
+   * @return {@code true} if the new entity would exceed the cap of its type, else {@code false}.
+   */
+  public static boolean isTypeCapped(ChunkEntityCounts counts, EntityType<?> type) {
+    return (null == counts ? 0 : counts.getCount(type)) >= capOf(type);
+  }
+
+  /**
+   * Gets the cap of a type.
+   *
+   * @param type Entity type.
+   * @return Cap of the type, {@link #NO_CAP} if it has none.
+   */
+  private static int capOf(EntityType<?> type) {
+    final int rawId = Registry.ENTITY_TYPE.getRawId(type);
+    return (0 <= rawId && rawId < typeCaps.length) ? typeCaps[rawId] : NO_CAP;
+  }
+
+  /** Enables tracking and registers the veto listeners, once. */
+  private static void enable() {
+    EntityDensityIndex.setEnabled(true);
+    if (registered) {
+      return;
+    }
+    registered = true;
+    ((EdgestitchEvent<ServerWorldEvents.ServerWorldSpawnEntityVerdictCallback>)
+            ServerWorldEvents.ENTITY_SPAWN_VERDICT)
+        .register(EventPhase.LATE, EntityLimiter::onSpawn);
+    ((EdgestitchEvent<NaturalSpawnAttemptCallback>) NaturalSpawnAttemptCallback.EVENT)
+        .register(EventPhase.EARLY, EntityLimiter::onNaturalSpawnAttempt);
+  }
+
+  /**
+   * Vetoes spawns into chunks at their cap. Entities that are not living only count against the
+   * cap of their type.
+   *
+   * @param world World of the spawn.
+   * @param entity Entity being spawned.
+   * @param returnValue Out-parameter for the return value of spawnEntity.
+   * @return FAIL if a cap is reached, else PASS.
+   */
+  private static ActionResult onSpawn(
+      World world, Entity entity, EventReturnValue<Boolean> returnValue) {
+    if (entity instanceof PlayerEntity) {
+      return ActionResult.PASS;
+    }
+    final ChunkEntityCounts counts = EntityDensityIndex.get(world, entity);
+    final boolean capped =
+        entity instanceof LivingEntity
+            ? isCapped(counts, entity.getType())
+            : isTypeCapped(counts, entity.getType());
+    if (!capped) {
+      return ActionResult.PASS;
+    }
+    returnValue.set(Boolean.FALSE);
+    return ActionResult.FAIL;
+  }
+
+  /**
+   * Vetoes natural spawn attempts into chunks at their cap, before the mob is created.
+   *
+   * @param world World of the spawn.
+   * @param chunk Chunk whose spawn pass is running.
+   * @param entityType Type of the entity that would spawn.
+   * @param pos Position the entity would spawn at.
+   * @return FAIL if a cap is reached, else PASS.
+   */
+  private static ActionResult onNaturalSpawnAttempt(
+      ServerWorld world, Chunk chunk, EntityType<?> entityType, BlockPos pos) {
+    final ChunkEntityCounts counts =
+        EntityDensityIndex.get(world, ChunkPos.toLong(pos.getX() >> 4, pos.getZ() >> 4));
+    return isCapped(counts, entityType) ? ActionResult.FAIL : ActionResult.PASS;
+  }
+
+  /**
+   * Parses a cap from its config value.
+   *
+   * @param value Non negative cap.
+   * @return Parsed cap.
+   * @throws IllegalArgumentException If the value is malformed or negative.
+   */
+  private static int parseCap(String value) {
+    final int cap = Integer.parseInt(value.trim());
+    if (cap < 0) {
+      throw new IllegalArgumentException("cap must not be negative");
+    }
+    return cap;
+  }
+}
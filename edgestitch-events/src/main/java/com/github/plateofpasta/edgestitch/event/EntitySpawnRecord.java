@@ -0,0 +1,104 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.event;
+
+import java.util.UUID;
+import net.minecraft.entity.EntityType;
+import net.minecraft.util.registry.RegistryKey;
+import net.minecraft.world.World;
+
+/** Copy of a successful entity spawn, published by {@link AsyncEvents}. */
+public final class EntitySpawnRecord {
+  private RegistryKey<World> worldKey;
+  private EntityType<?> entityType;
+  private UUID entityUuid;
+  private double x;
+  private double y;
+  private double z;
+  private long worldTime;
+
+  /**
+   * Overwrites this slot.
+   *
+   * @param worldKey Key of the world the entity spawned in.
+   * @param entityType Type of the entity.
+   * @param entityUuid UUID of the entity.
+   * @param x X coordinate of the entity.
+   * @param y Y coordinate of the entity.
+   * @param z Z coordinate of the entity.
+   * @param worldTime Time of the world when the entity spawned.
+   */
+  void set(
+      RegistryKey<World> worldKey,
+      EntityType<?> entityType,
+      UUID entityUuid,
+      double x,
+      double y,
+      double z,
+      long worldTime) {
+    this.worldKey = worldKey;
+    this.entityType = entityType;
+    this.entityUuid = entityUuid;
+    this.x = x;
+    this.y = y;
+    this.z = z;
+    this.worldTime = worldTime;
+  }
+
+  /** @return Key of the world the entity spawned in. */
+  public RegistryKey<World> getWorldKey() {
+    return worldKey;
+  }
+
+  /** @return Type of the entity. */
+  public EntityType<?> getEntityType() {
+    return entityType;
+  }
+
+  /** @return UUID of the entity. */
+  public UUID getEntityUuid() {
+    return entityUuid;
+  }
+
+  /** @return X coordinate of the entity. */
+  public double getX() {
+    return x;
+  }
+
+  /** @return Y coordinate of the entity. */
+  public double getY() {
+    return y;
+  }
+
+  /** @return Z coordinate of the entity. */
+  public double getZ() {
+    return z;
+  }
+
+  /** @return Time of the world when the entity spawned. */
+  public long getWorldTime() {
+    return worldTime;
+  }
+}
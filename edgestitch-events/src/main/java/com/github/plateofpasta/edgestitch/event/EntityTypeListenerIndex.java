@@ -0,0 +1,413 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.event;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityType;
+import net.minecraft.util.registry.Registry;
+
+/**
+ * Index of listeners of an {@link EdgestitchEvent} that only care about some entity types. Each
+ * listener is registered with a phase and a set of {@link EntityType}s or an entity class, and the
+ * listeners of each phase and type are precomputed into an array indexed by the raw registry id of
+ * the type. Whether any phase has listeners for a type is precomputed the same way, so {@link
+ * #hasListeners(Entity)} costs one registry id lookup and one array load. Callers check it before
+ * invoking the event, and a spawn of a type nobody filters for pays nothing else.
+ *
+ * <p>The first typed listener of a phase registers a bridge listener to that phase of the event,
+ * which invokes the typed listeners of the phase matching the entity. Typed listeners are therefore
+ * ordered with the other listeners of the event, e.g. MONITOR listeners only see events that no
+ * typed listener cancelled, and the event has no extra listener while nobody registered a typed
+ * listener. The bridges are not decorated themselves; each typed listener is wrapped by the
+ * decorators of the event instead, e.g. while profiling. Each bridge looks up the registry id of
+ * the type again, so an entity with typed listeners costs one lookup per phase with typed
+ * listeners.
+ *
+ * <p>Class filters are matched against the first entity of each type that is looked up, since every
+ * entity of a type is created by the same factory. Registration is copy-on-write and intended to
+ * happen rarely (e.g. at startup). Lookups never lock.
+ *
+ * @param <T> Listener type.
+ */
+public final class EntityTypeListenerIndex<T> {
+  private static final byte UNKNOWN = 0;
+  private static final byte NONE = 1;
+  private static final byte ANY = 2;
+  private final Class<T> type;
+  private final EdgestitchEvent<T> event;
+  private final BridgeFactory<T> bridgeFactory;
+  private final PhaseListeners<?>[] phases = new PhaseListeners<?>[EventPhase.values().length];
+  private volatile byte[] anyByRawId = new byte[0];
+
+  /**
+   * Constructor.
+   *
+   * @param type Listener type.
+   * @param event Event the typed listeners are invoked by.
+   * @param bridgeFactory Creates the listener of the event that invokes the typed listeners of a
+   *     phase.
+   */
+  public EntityTypeListenerIndex(
+      Class<T> type, EdgestitchEvent<T> event, BridgeFactory<T> bridgeFactory) {
+    this.type = type;
+    this.event = event;
+    this.bridgeFactory = bridgeFactory;
+    event.addRefreshHook(this::redecorate);
+  }
+
+  /**
+   * Registers a listener to the NORMAL phase for entities of the given types.
+   *
+   * @param types Entity types the listener is invoked for.
+   * @param listener Listener to register.
+   */
+  public void register(Set<EntityType<?>> types, T listener) {
+    register(EventPhase.NORMAL, types, listener);
+  }
+
+  /**
+   * Registers a listener to a phase for entities of the given types.
+   *
+   * @param phase Phase in which the listener is invoked.
+   * @param types Entity types the listener is invoked for.
+   * @param listener Listener to register.
+   */
+  public void register(EventPhase phase, Set<EntityType<?>> types, T listener) {
+    Objects.requireNonNull(listener, "Tried to register a null listener!");
+    getPhase(phase).addFilter(new Filter<>(new HashSet<>(types), null, listener));
+    clearAny();
+  }
+
+  /**
+   * Registers a listener to the NORMAL phase for entities that are instances of the given class.
+   *
+   * @param entityClass Entity class the listener is invoked for, including subclasses.
+   * @param listener Listener to register.
+   */
+  public void register(Class<? extends Entity> entityClass, T listener) {
+    register(EventPhase.NORMAL, entityClass, listener);
+  }
+
+  /**
+   * Registers a listener to a phase for entities that are instances of the given class.
+   *
+   * @param phase Phase in which the listener is invoked.
+   * @param entityClass Entity class the listener is invoked for, including subclasses.
+   * @param listener Listener to register.
+   */
+  public void register(EventPhase phase, Class<? extends Entity> entityClass, T listener) {
+    Objects.requireNonNull(listener, "Tried to register a null listener!");
+    getPhase(phase).addFilter(new Filter<>(null, entityClass, listener));
+    clearAny();
+  }
+
+  /** @return {@code true} if no listener was registered, else {@code false}. */
+  public synchronized boolean isEmpty() {
+    for (PhaseListeners<?> listeners : phases) {
+      if (null != listeners) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Checks if a listener of any phase is registered for the type of an entity.
+   *
+   * @param entity Entity being spawned.
+   * @return {@code true} if the bridges of the event would invoke a typed listener for the entity,
+   *     else {@code false}.
+   */
+  public boolean hasListeners(Entity entity) {
+    final int rawId = Registry.ENTITY_TYPE.getRawId(entity.getType());
+    final byte[] table = anyByRawId;
+    if (rawId >= 0 && rawId < table.length && UNKNOWN != table[rawId]) {
+      return ANY == table[rawId];
+    }
+    return resolveAny(entity, rawId);
+  }
+
+  /**
+   * Computes and stores whether a listener of any phase is registered for the type of an entity.
+   *
+   * @param entity Entity being looked up.
+   * @param rawId Raw registry id of the type of the entity.
+   * @return {@code true} if a typed listener matches the entity, else {@code false}.
+   */
+  private synchronized boolean resolveAny(Entity entity, int rawId) {
+    if (rawId < 0) {
+      return false;
+    }
+    final byte[] table = anyByRawId;
+    if (rawId < table.length && UNKNOWN != table[rawId]) {
+      return ANY == table[rawId];
+    }
+    boolean any = false;
+    for (PhaseListeners<?> listeners : phases) {
+      if (null != listeners && listeners.matches(entity)) {
+        any = true;
+        break;
+      }
+    }
+    final byte[] copy = Arrays.copyOf(table, Math.max(table.length, rawId + 1));
+    copy[rawId] = any ? ANY : NONE;
+    anyByRawId = copy;
+    return any;
+  }
+
+  /** Forgets which types have listeners, after a listener was registered. */
+  private synchronized void clearAny() {
+    anyByRawId = new byte[anyByRawId.length];
+  }
+
+  /**
+   * Gets the listeners of a phase, registering the bridge listener of the phase to the event the
+   * first time.
+   *
+   * @param phase Phase to get the listeners of.
+   * @return Listeners of the phase.
+   */
+  @SuppressWarnings("unchecked")
+  private synchronized PhaseListeners<T> getPhase(EventPhase phase) {
+    Objects.requireNonNull(phase, "Tried to register to a null phase!");
+    PhaseListeners<T> listeners = (PhaseListeners<T>) phases[phase.ordinal()];
+    if (null == listeners) {
+      listeners = new PhaseListeners<>(type, event, phase);
+      phases[phase.ordinal()] = listeners;
+      event.registerBridge(phase, bridgeFactory.create(listeners::get));
+    }
+    return listeners;
+  }
+
+  /** Drops every precomputed listener array, so they are decorated again on the next lookup. */
+  private synchronized void redecorate() {
+    for (PhaseListeners<?> listeners : phases) {
+      if (null != listeners) {
+        listeners.clearTable();
+      }
+    }
+  }
+
+  /**
+   * Creates the listener registered to the event for a phase.
+   *
+   * @param <T> Listener type.
+   */
+  @FunctionalInterface
+  public interface BridgeFactory<T> {
+    /**
+     * Creates a listener that invokes the typed listeners of a phase in order, until one of them
+     * does not PASS.
+     *
+     * @param listeners Gets the typed listeners of the phase matching an entity, in registration
+     *     order, empty if none matches.
+     * @return Bridge listener.
+     */
+    T create(Function<Entity, T[]> listeners);
+  }
+
+  /**
+   * Typed listeners of one phase.
+   *
+   * @param <T> Listener type.
+   */
+  private static final class PhaseListeners<T> {
+    private final Class<T> type;
+    private final EdgestitchEvent<T> event;
+    private final EventPhase phase;
+    private final T[] none;
+    private volatile Filter<T>[] filters = newFilterArray(0);
+    private volatile T[][] byRawId;
+
+    /**
+     * Constructor.
+     *
+     * @param type Listener type.
+     * @param event Event the listeners are invoked on behalf of.
+     * @param phase Phase of the listeners.
+     */
+    private PhaseListeners(Class<T> type, EdgestitchEvent<T> event, EventPhase phase) {
+      this.type = type;
+      this.event = event;
+      this.phase = phase;
+      this.none = newArray(0);
+      this.byRawId = newTable(0);
+    }
+
+    /**
+     * Gets the listeners registered for the type of an entity.
+     *
+     * @param entity Entity being looked up.
+     * @return Listeners in registration order, empty if no listener matches the type.
+     */
+    private T[] get(Entity entity) {
+      final int rawId = Registry.ENTITY_TYPE.getRawId(entity.getType());
+      final T[][] table = byRawId;
+      if (rawId < table.length && null != table[rawId]) {
+        return table[rawId];
+      }
+      return resolve(entity, rawId);
+    }
+
+    /**
+     * Checks if a listener of this phase is interested in an entity.
+     *
+     * @param entity Entity to check.
+     * @return {@code true} if a filter matches the entity, else {@code false}.
+     */
+    private boolean matches(Entity entity) {
+      for (Filter<T> filter : filters) {
+        if (filter.matches(entity)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * Adds a filter and drops every precomputed listener array.
+     *
+     * @param filter Filter to add.
+     */
+    private synchronized void addFilter(Filter<T> filter) {
+      final Filter<T>[] copy = Arrays.copyOf(filters, filters.length + 1);
+      copy[filters.length] = filter;
+      filters = copy;
+      byRawId = newTable(byRawId.length);
+    }
+
+    /** Drops every precomputed listener array. */
+    private synchronized void clearTable() {
+      byRawId = newTable(byRawId.length);
+    }
+
+    /**
+     * Computes and stores the listeners of the type of an entity, wrapped by the decorators of the
+     * event.
+     *
+     * @param entity Entity being looked up.
+     * @param rawId Raw registry id of the type of the entity.
+     * @return Listeners of the type.
+     */
+    private synchronized T[] resolve(Entity entity, int rawId) {
+      if (rawId < 0) {
+        return none;
+      }
+      final T[][] table = byRawId;
+      if (rawId < table.length && null != table[rawId]) {
+        return table[rawId];
+      }
+      T[] listeners = none;
+      for (Filter<T> filter : filters) {
+        if (!filter.matches(entity)) {
+          continue;
+        }
+        final T decorated = event.decorate(phase, filter.listener);
+        if (null != decorated) {
+          listeners = Arrays.copyOf(listeners, listeners.length + 1);
+          listeners[listeners.length - 1] = decorated;
+        }
+      }
+      final T[][] copy = Arrays.copyOf(table, Math.max(table.length, rawId + 1));
+      copy[rawId] = listeners;
+      byRawId = copy;
+      return listeners;
+    }
+
+    /**
+     * Creates a typed listener array.
+     *
+     * @param length Length of the array.
+     * @return New array.
+     */
+    @SuppressWarnings("unchecked")
+    private T[] newArray(int length) {
+      return (T[]) Array.newInstance(type, length);
+    }
+
+    /**
+     * Creates a table of listener arrays where no type is computed yet.
+     *
+     * @param length Length of the table.
+     * @return New table.
+     */
+    @SuppressWarnings("unchecked")
+    private T[][] newTable(int length) {
+      return (T[][]) Array.newInstance(none.getClass(), length);
+    }
+
+    /**
+     * Creates a typed filter array.
+     *
+     * @param length Length of the array.
+     * @param <T> Listener type.
+     * @return New array.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Filter<T>[] newFilterArray(int length) {
+      return (Filter<T>[]) Array.newInstance(Filter.class, length);
+    }
+  }
+
+  /**
+   * A listener and the entity types or entity class it was registered with.
+   *
+   * @param <T> Listener type.
+   */
+  private static final class Filter<T> {
+    private final Set<EntityType<?>> types;
+    private final Class<? extends Entity> entityClass;
+    private final T listener;
+
+    /**
+     * Constructor.
+     *
+     * @param types Entity types, or {@code null} to filter by class.
+     * @param entityClass Entity class, or {@code null} to filter by types.
+     * @param listener Listener.
+     */
+    private Filter(Set<EntityType<?>> types, Class<? extends Entity> entityClass, T listener) {
+      this.types = types;
+      this.entityClass = entityClass;
+      this.listener = listener;
+    }
+
+    /**
+     * Checks if the listener is interested in an entity.
+     *
+     * @param entity Entity to check.
+     * @return {@code true} if the type or class of the entity matches, else {@code false}.
+     */
+    private boolean matches(Entity entity) {
+      return null == types ? entityClass.isInstance(entity) : types.contains(entity.getType());
+    }
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.event;
+
+import net.minecraft.util.ActionResult;
+
+/** Per-tick time budget of the listeners of an event, see {@link ListenerBudgets}. */
+public final class EventBudget {
+  /** Default number of invocations per timed invocation. */
+  public static final int DEFAULT_SAMPLE_INTERVAL = 64;
+
+  private final long budgetNanos;
+  private final int maxStrikes;
+  private final int cooldownTicks;
+  private final ActionResult fallback;
+  private final int sampleInterval;
+
+  /**
+   * Constructor, samples one in {@value #DEFAULT_SAMPLE_INTERVAL} invocations.
+   *
+   * @param budgetNanos Time a single listener may spend per tick, in nanoseconds.
+   * @param maxStrikes Consecutive ticks over budget after which a listener is quarantined.
+   * @param cooldownTicks Ticks a listener stays quarantined.
+   * @param fallback Verdict returned in place of a quarantined listener, PASS or FAIL.
+   */
+  public EventBudget(long budgetNanos, int maxStrikes, int cooldownTicks, ActionResult fallback) {
+    this(budgetNanos, maxStrikes, cooldownTicks, fallback, DEFAULT_SAMPLE_INTERVAL);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param budgetNanos Time a single listener may spend per tick, in nanoseconds.
+   * @param maxStrikes Consecutive ticks over budget after which a listener is quarantined.
+   * @param cooldownTicks Ticks a listener stays quarantined.
+   * @param fallback Verdict returned in place of a quarantined listener, PASS or FAIL.
+   * @param sampleInterval One in this many invocations is timed.
+   */
+  public EventBudget(
+      long budgetNanos,
+      int maxStrikes,
+      int cooldownTicks,
+      ActionResult fallback,
+      int sampleInterval) {
+    if (budgetNanos <= 0L || maxStrikes <= 0 || cooldownTicks <= 0 || sampleInterval <= 0) {
+      throw new IllegalArgumentException(
+          "Budget, strikes, cool-down and sample interval must be positive");
+    }
+    if (ActionResult.PASS != fallback && ActionResult.FAIL != fallback) {
+      throw new IllegalArgumentException("Fallback verdict must be PASS or FAIL");
+    }
+    this.budgetNanos = budgetNanos;
+    this.maxStrikes = maxStrikes;
+    this.cooldownTicks = cooldownTicks;
+    this.fallback = fallback;
+    this.sampleInterval = sampleInterval;
+  }
+
+  /** @return Time a single listener may spend per tick, in nanoseconds. */
+  public long getBudgetNanos() {
+    return budgetNanos;
+  }
+
+  /** @return Consecutive ticks over budget after which a listener is quarantined. */
+  public int getMaxStrikes() {
+    return maxStrikes;
+  }
+
+  /** @return Ticks a listener stays quarantined. */
+  public int getCooldownTicks() {
+    return cooldownTicks;
+  }
+
+  /** @return Verdict returned in place of a quarantined listener. */
+  public ActionResult getFallback() {
+    return fallback;
+  }
+
+  /** @return One in this many invocations is timed. */
+  public int getSampleInterval() {
+    return sampleInterval;
+  }
+}
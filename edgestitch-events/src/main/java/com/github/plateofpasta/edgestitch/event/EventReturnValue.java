@@ -0,0 +1,91 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.event;
+
+/**
+ * Reusable out-parameter for events that return a verdict and optionally a replacement value. The
+ * verdict is returned by the listener while the replacement value is written to this object, so a
+ * single instance per thread can be reused for every invocation instead of allocating a {@link
+ * net.minecraft.util.TypedActionResult}.
+ *
+ * <p>Listeners may trigger the same event again on the same thread, e.g. by spawning an entity
+ * from a spawn listener, so nested invocations share the instance. Dispatchers therefore install
+ * their initial value with {@link #swap(Object)} and swap the outer value back once their
+ * listeners returned, and listeners should write the value immediately before returning their
+ * verdict.
+ *
+ * @param <T> Type of the replacement value.
+ */
+public final class EventReturnValue<T> {
+  private T value;
+
+  /**
+   * Creates a thread local that lazily creates one instance per thread.
+   *
+   * @param <T> Type of the replacement value.
+   * @return Thread local supplying the instance of the current thread.
+   */
+  public static <T> ThreadLocal<EventReturnValue<T>> perThread() {
+    return ThreadLocal.withInitial(EventReturnValue::new);
+  }
+
+  /** @return Replacement value. */
+  public T get() {
+    return value;
+  }
+
+  /**
+   * Sets the replacement value.
+   *
+   * @param value Replacement value.
+   */
+  public void set(T value) {
+    this.value = value;
+  }
+
+  /**
+   * Replaces the replacement value, so a dispatcher can install its initial value and restore the
+   * value of an outer dispatch of the same event afterwards.
+   *
+   * @param value New replacement value.
+   * @return Previous replacement value.
+   */
+  public T swap(T value) {
+    final T previous = this.value;
+    this.value = value;
+    return previous;
+  }
+
+  /**
+   * Gets the replacement value and clears it, so this object does not keep it reachable.
+   *
+   * @return Replacement value.
+   */
+  public T take() {
+    final T taken = value;
+    value = null;
+    return taken;
+  }
+}
@@ -26,7 +26,6 @@ package com.github.plateofpasta.edgestitch.event;
 
 import com.github.plateofpasta.edgestitch.mixin.MixinBaseFluid;
 import net.fabricmc.fabric.api.event.Event;
-import net.fabricmc.fabric.api.event.EventFactory;
 import net.minecraft.block.BlockState;
 import net.minecraft.fluid.FluidState;
 import net.minecraft.util.ActionResult;
@@ -38,26 +37,23 @@ import net.minecraft.world.World;
  * Fabric API event interface for when a {@link net.minecraft.fluid.FlowableFluid} is flowing into
  * another block.
  *
+ * <p>Listeners that only care about specific areas of the world should register with {@link
+ * #REGIONAL} instead of {@link #EVENT}, so that flows outside of every registered area do not
+ * invoke them at all. Regional listeners are invoked after the global listeners.
+ *
  * @see MixinBaseFluid
  */
 @FunctionalInterface
 public interface FluidFlowCallback {
   Event<FluidFlowCallback> EVENT =
-      EventFactory.createArrayBacked(
+      EdgestitchEventFactory.createGenerated(
           FluidFlowCallback.class,
-          (world, blockPos, blockState, direction, fluidState) -> ActionResult.PASS,
-          (listeners) ->
-              (world, blockPos, blockState, direction, fluidState) -> {
-                for (FluidFlowCallback event : listeners) {
-                  ActionResult result =
-                      event.flow(world, blockPos, blockState, direction, fluidState);
+          (world, blockPos, blockState, direction, fluidState) -> ActionResult.PASS);
 
-                  if (result != ActionResult.PASS) {
-                    return result;
-                  }
-                }
-                return ActionResult.PASS;
-              });
+  /** Listeners that are only invoked for flows into the bounds they were registered with. */
+  @SuppressWarnings("unchecked")
+  RegionListenerIndex<FluidFlowCallback> REGIONAL =
+      new RegionListenerIndex<>((EdgestitchEvent<FluidFlowCallback>) EVENT);
 
   /**
    * Callback for this interface.
@@ -0,0 +1,276 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.event;
+
+import com.github.plateofpasta.edgestitch.mixin.MixinBaseFluid;
+import com.github.plateofpasta.edgestitch.mixin.MixinServerWorld;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ShortOpenHashMap;
+import java.util.HashMap;
+import java.util.Map;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.util.registry.RegistryKey;
+import net.minecraft.world.World;
+
+/**
+ * Remembers fluid flows vetoed by {@link FluidFlowCallback} listeners, keyed by the position of
+ * the flowing fluid and the direction of the flow. A remembered flow is cancelled without asking
+ * the listeners again. The directions a fluid tried to flow in during its last flow attempt are
+ * remembered alongside its vetoes, and a fluid whose every attempted flow was vetoed does not try
+ * to flow at all, so fluid held back by a veto costs nothing while its surroundings stay the same.
+ *
+ * <p>A remembered veto is forgotten when the block at the flowing fluid or at any of its neighbours
+ * changes. Listeners whose verdict depends on anything but the blocks around the flow, for example
+ * claims, must call {@link #clear(World)} or {@link #clear()} when that changes.
+ *
+ * <p>Disabled by default. Only used on the server thread.
+ *
+ * @see MixinBaseFluid
+ * @see MixinServerWorld
+ */
+public final class FluidFlowSuppression {
+  /** Key that enables remembering vetoed flows in the config file. */
+  public static final String ENABLED_KEY = "fluids.suppress";
+
+  /** Bits of a remembered fluid holding the vetoed directions, by {@link Direction#getId()}. */
+  private static final int VETOED_MASK = 0xFF;
+  /** Shift of the bits holding the directions attempted during the last flow attempt. */
+  private static final int ATTEMPTED_SHIFT = 8;
+  /** Vetoed and attempted flow directions by packed fluid position, by packed chunk position. */
+  private static final Map<RegistryKey<World>, Long2ObjectOpenHashMap<Long2ShortOpenHashMap>>
+      WORLDS = new HashMap<>();
+  private static boolean enabled;
+  /** World of the running flow attempt, or {@code null} if no attempt is running. */
+  private static RegistryKey<World> attemptWorld;
+  /** Packed position of the fluid of the running flow attempt. */
+  private static long attemptSource;
+  /** Directions attempted so far by the running flow attempt. */
+  private static int attempted;
+
+  /** Prevent instantiations of this class. */
+  private FluidFlowSuppression() {}
+
+  /** @return {@code true} if vetoed flows are remembered, else {@code false}. */
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Enables or disables remembering vetoed flows. Disabling forgets every remembered veto.
+   *
+   * @param enabled {@code true} to remember vetoed flows.
+   */
+  public static void setEnabled(boolean enabled) {
+    FluidFlowSuppression.enabled = enabled;
+    if (!enabled) {
+      WORLDS.clear();
+    }
+  }
+
+  /** Forgets every remembered veto of every world. */
+  public static void clear() {
+    WORLDS.clear();
+  }
+
+  /**
+   * Forgets every remembered veto of a world.
+   *
+   * @param world World to forget the vetoes of.
+   */
+  public static void clear(World world) {
+    WORLDS.remove(world.getRegistryKey());
+  }
+
+  /**
+   * Remembers a vetoed flow.
+   *
+   * @param world World fluid is in.
+   * @param source Position of the flowing fluid.
+   * @param direction Direction of the flow.
+   */
+  public static void suppress(World world, BlockPos source, Direction direction) {
+    if (!enabled) {
+      return;
+    }
+    final Long2ShortOpenHashMap chunk =
+        WORLDS
+            .computeIfAbsent(world.getRegistryKey(), key -> new Long2ObjectOpenHashMap<>())
+            .computeIfAbsent(chunkKey(source), key -> new Long2ShortOpenHashMap());
+    final long key = source.asLong();
+    chunk.put(key, (short) (chunk.get(key) | (1 << direction.getId())));
+  }
+
+  /**
+   * Starts recording the directions a fluid attempts to flow in.
+   *
+   * @param world World fluid is in.
+   * @param source Position of the flowing fluid.
+   */
+  public static void beginAttempt(World world, BlockPos source) {
+    attemptWorld = world.getRegistryKey();
+    attemptSource = source.asLong();
+    attempted = 0;
+  }
+
+  /**
+   * Records a direction the fluid of the running flow attempt tries to flow in, whether the flow
+   * is vetoed or not.
+   *
+   * @param world World fluid is in.
+   * @param source Position of the flowing fluid.
+   * @param direction Direction of the flow.
+   */
+  public static void onFlowAttempt(World world, BlockPos source, Direction direction) {
+    if (world.getRegistryKey() == attemptWorld && source.asLong() == attemptSource) {
+      attempted |= 1 << direction.getId();
+    }
+  }
+
+  /**
+   * Stops recording the flow attempt of a fluid and remembers its attempted directions if any of
+   * its flows is remembered as vetoed.
+   *
+   * @param world World fluid is in.
+   * @param source Position of the flowing fluid.
+   */
+  public static void endAttempt(World world, BlockPos source) {
+    if (world.getRegistryKey() != attemptWorld || source.asLong() != attemptSource) {
+      return;
+    }
+    attemptWorld = null;
+    final Long2ObjectOpenHashMap<Long2ShortOpenHashMap> chunks = WORLDS.get(world.getRegistryKey());
+    final Long2ShortOpenHashMap chunk = (null == chunks) ? null : chunks.get(chunkKey(source));
+    final long key = source.asLong();
+    if (null != chunk && chunk.containsKey(key)) {
+      final int vetoed = chunk.get(key) & VETOED_MASK;
+      chunk.put(key, (short) (vetoed | (attempted << ATTEMPTED_SHIFT)));
+    }
+  }
+
+  /**
+   * Checks if a flow was vetoed before.
+   *
+   * @param world World fluid is in.
+   * @param source Position of the flowing fluid.
+   * @param direction Direction of the flow.
+   * @return {@code true} if the flow is remembered as vetoed, else {@code false}.
+   */
+  public static boolean isSuppressed(World world, BlockPos source, Direction direction) {
+    return 0 != (maskOf(world, source) & (1 << direction.getId()));
+  }
+
+  /**
+   * Checks if every flow the fluid attempted during its last flow attempt was vetoed. Since the
+   * directions a fluid attempts only depend on the blocks around it, which did not change while a
+   * veto is remembered, the next attempt would only try vetoed flows as well.
+   *
+   * @param world World fluid is in.
+   * @param source Position of the flowing fluid.
+   * @return {@code true} if the fluid can not flow anywhere, else {@code false}.
+   */
+  public static boolean isFullySuppressed(World world, BlockPos source) {
+    final int mask = maskOf(world, source);
+    final int attemptedMask = mask >>> ATTEMPTED_SHIFT;
+    return 0 != attemptedMask && 0 == (attemptedMask & ~mask & VETOED_MASK);
+  }
+
+  /**
+   * Forgets the vetoes of the fluid at a changed position and of the fluids next to it.
+   *
+   * @param world World of the change.
+   * @param pos Position of the changed block.
+   */
+  public static void onBlockChanged(World world, BlockPos pos) {
+    final Long2ObjectOpenHashMap<Long2ShortOpenHashMap> chunks = WORLDS.get(world.getRegistryKey());
+    if (null == chunks) {
+      return;
+    }
+    forget(chunks, pos);
+    final BlockPos.Mutable neighbour = new BlockPos.Mutable();
+    for (Direction direction : Direction.values()) {
+      forget(chunks, neighbour.set(pos, direction));
+    }
+  }
+
+  /**
+   * Forgets the vetoes of an unloaded chunk.
+   *
+   * @param world World of the chunk.
+   * @param pos Position of the chunk.
+   */
+  public static void onChunkUnload(World world, ChunkPos pos) {
+    final Long2ObjectOpenHashMap<Long2ShortOpenHashMap> chunks = WORLDS.get(world.getRegistryKey());
+    if (null != chunks) {
+      chunks.remove(pos.toLong());
+    }
+  }
+
+  /**
+   * Gets the vetoed and attempted flow directions of a fluid.
+   *
+   * @param world World fluid is in.
+   * @param source Position of the flowing fluid.
+   * @return Bit mask of the vetoed directions, by {@link Direction#getId()}, with the attempted
+   *     directions above {@link #ATTEMPTED_SHIFT}.
+   */
+  private static int maskOf(World world, BlockPos source) {
+    final Long2ObjectOpenHashMap<Long2ShortOpenHashMap> chunks = WORLDS.get(world.getRegistryKey());
+    if (null == chunks) {
+      return 0;
+    }
+    final Long2ShortOpenHashMap chunk = chunks.get(chunkKey(source));
+    return null == chunk ? 0 : chunk.get(source.asLong()) & 0xFFFF;
+  }
+
+  /**
+   * Forgets the vetoes of a single fluid.
+   *
+   * @param chunks Vetoes of the world.
+   * @param source Position of the flowing fluid.
+   */
+  private static void forget(
+      Long2ObjectOpenHashMap<Long2ShortOpenHashMap> chunks, BlockPos source) {
+    final long chunkKey = chunkKey(source);
+    final Long2ShortOpenHashMap chunk = chunks.get(chunkKey);
+    if (null != chunk) {
+      chunk.remove(source.asLong());
+      if (chunk.isEmpty()) {
+        chunks.remove(chunkKey);
+      }
+    }
+  }
+
+  /**
+   * Gets the packed position of the chunk containing a block.
+   *
+   * @param pos Block position.
+   * @return Packed chunk position.
+   */
+  private static long chunkKey(BlockPos pos) {
+    return ChunkPos.toLong(pos.getX() >> 4, pos.getZ() >> 4);
+  }
+}
@@ -0,0 +1,237 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.event;
+
+import com.github.plateofpasta.edgestitch.mixin.MixinBaseFluid;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntMaps;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import net.minecraft.fluid.Fluid;
+import net.minecraft.fluid.FluidState;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.InvalidIdentifierException;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.util.registry.Registry;
+import net.minecraft.util.registry.RegistryKey;
+import net.minecraft.world.World;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Per-chunk fluid flow budget. Each chunk may be flowed into a limited number of times per tick.
+ * Flows over the budget are not cancelled but deferred: the source of the flow is rescheduled,
+ * so the fluid spreads again once the chunk has budget left and still settles correctly. The
+ * reschedule delay backs off exponentially while a chunk stays over budget.
+ *
+ * <p>Only used on the server thread.
+ *
+ * @see MixinBaseFluid
+ */
+public final class FluidThrottle {
+  /** Key of the per-chunk budget in flows per tick in the config file, enables throttling. */
+  public static final String BUDGET_KEY = "fluids.throttle.budget";
+  /** Key of the comma separated ids of the dimensions that are not throttled in the config file. */
+  public static final String EXEMPT_KEY = "fluids.throttle.exempt";
+  /** Budget meaning that flows are not throttled. */
+  public static final int UNLIMITED = Integer.MAX_VALUE;
+
+  private static final Logger LOGGER = LogManager.getLogger();
+  /** Maximum doubling of the reschedule delay of a chunk that stays over budget. */
+  private static final int MAX_BACKOFF_SHIFT = 4;
+  private static final Map<RegistryKey<World>, WorldState> WORLDS = new HashMap<>();
+  private static final Set<RegistryKey<World>> EXEMPT = new HashSet<>();
+  private static int budget = UNLIMITED;
+
+  /** Prevent instantiations of this class. */
+  private FluidThrottle() {}
+
+  /** @return {@code true} if flows are throttled, else {@code false}. */
+  public static boolean isEnabled() {
+    return UNLIMITED != budget;
+  }
+
+  /**
+   * Sets the per-chunk budget.
+   *
+   * @param budget Maximum number of flows into a chunk per tick, or {@link #UNLIMITED}.
+   */
+  public static void setBudget(int budget) {
+    if (budget < 1) {
+      throw new IllegalArgumentException("budget must be positive");
+    }
+    FluidThrottle.budget = budget;
+    if (!isEnabled()) {
+      WORLDS.clear();
+    }
+  }
+
+  /**
+   * Exempts a dimension from throttling.
+   *
+   * @param world Key of the dimension.
+   */
+  public static void exempt(RegistryKey<World> world) {
+    EXEMPT.add(world);
+    WORLDS.remove(world);
+  }
+
+  /**
+   * Loads the budget and exempt dimensions from the config file.
+   *
+   * @param properties Contents of the config file.
+   */
+  public static void loadConfig(Properties properties) {
+    final String exempt = properties.getProperty(EXEMPT_KEY);
+    if (null != exempt) {
+      for (String id : exempt.split(",")) {
+        if (id.trim().isEmpty()) {
+          continue;
+        }
+        try {
+          exempt(RegistryKey.of(Registry.DIMENSION, new Identifier(id.trim())));
+        } catch (InvalidIdentifierException e) {
+          LOGGER.warn("Ignoring invalid exempt dimension {}: {}", id, e.getMessage());
+        }
+      }
+    }
+    final String value = properties.getProperty(BUDGET_KEY);
+    if (null != value) {
+      try {
+        setBudget(Integer.parseInt(value.trim()));
+      } catch (IllegalArgumentException e) {
+        LOGGER.warn("Ignoring invalid {}: {}", BUDGET_KEY, e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Counts a flow against the budget of the chunk flowed into, and defers it if the budget is
+   * exhausted.
+   *
+   * @param world World fluid is in.
+   * @param pos Position being flowed into.
+   * @param direction Direction of flow.
+   * @return {@code true} if the flow was deferred and must not happen now, else {@code false}.
+   */
+  public static boolean defer(World world, BlockPos pos, Direction direction) {
+    if (EXEMPT.contains(world.getRegistryKey())) {
+      return false;
+    }
+    final WorldState state =
+        WORLDS.computeIfAbsent(world.getRegistryKey(), key -> new WorldState());
+    final long chunkKey = ChunkPos.toLong(pos.getX() >> 4, pos.getZ() >> 4);
+    if (state.flows.addTo(chunkKey, 1) < budget) {
+      return false;
+    }
+    final BlockPos source = pos.offset(direction.getOpposite());
+    final FluidState fluidState = world.getFluidState(source);
+    if (fluidState.isEmpty()) {
+      // The source is gone, nothing would flow again, let the flow happen.
+      return false;
+    }
+    final Fluid fluid = fluidState.getFluid();
+    final int shift = Math.min(MAX_BACKOFF_SHIFT, state.streaks.get(chunkKey));
+    world.getFluidTickScheduler().schedule(source, fluid, fluid.getTickRate(world) << shift);
+    state.metrics
+        .computeIfAbsent(chunkKey, key -> new ChunkFlowMetrics(world.getRegistryKey(), key))
+        .addDeferred();
+    return true;
+  }
+
+  /** Starts the budgets of the next tick, and extends or ends the backoff of each chunk. */
+  public static void onTickEnd() {
+    for (WorldState state : WORLDS.values()) {
+      final ObjectIterator<Long2IntMap.Entry> streaks =
+          state.streaks.long2IntEntrySet().fastIterator();
+      while (streaks.hasNext()) {
+        if (state.flows.get(streaks.next().getLongKey()) <= budget) {
+          streaks.remove();
+        }
+      }
+      for (Long2IntMap.Entry entry : Long2IntMaps.fastIterable(state.flows)) {
+        if (entry.getIntValue() > budget) {
+          state.streaks.addTo(entry.getLongKey(), 1);
+          final ChunkFlowMetrics metrics = state.metrics.get(entry.getLongKey());
+          if (null != metrics) {
+            metrics.addOverloadedTick();
+          }
+        }
+      }
+      state.flows.clear();
+    }
+  }
+
+  /**
+   * Drops the metrics and backoff of an unloaded chunk.
+   *
+   * @param world World of the chunk.
+   * @param pos Position of the chunk.
+   */
+  public static void onChunkUnload(World world, ChunkPos pos) {
+    final WorldState state = WORLDS.get(world.getRegistryKey());
+    if (null != state) {
+      state.streaks.remove(pos.toLong());
+      state.metrics.remove(pos.toLong());
+    }
+  }
+
+  /**
+   * Gets the chunks with the most deferred flows.
+   *
+   * @param count Maximum number of chunks.
+   * @return Metrics of the most throttled chunks of every world, most deferred flows first.
+   */
+  public static List<ChunkFlowMetrics> top(int count) {
+    final List<ChunkFlowMetrics> all = new ArrayList<>();
+    for (WorldState state : WORLDS.values()) {
+      all.addAll(state.metrics.values());
+    }
+    all.sort(Comparator.comparingLong(ChunkFlowMetrics::getDeferred).reversed());
+    return all.subList(0, Math.min(count, all.size()));
+  }
+
+  /** Throttling state of a world. */
+  private static final class WorldState {
+    /** Flows into each chunk during the current tick. */
+    private final Long2IntOpenHashMap flows = new Long2IntOpenHashMap();
+    /** Consecutive ticks each chunk exceeded its budget. */
+    private final Long2IntOpenHashMap streaks = new Long2IntOpenHashMap();
+    /** Deferred flows of each chunk. */
+    private final Long2ObjectOpenHashMap<ChunkFlowMetrics> metrics =
+        new Long2ObjectOpenHashMap<>();
+  }
+}
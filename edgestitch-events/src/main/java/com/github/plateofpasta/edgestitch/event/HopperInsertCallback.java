@@ -1,7 +1,6 @@
 package com.github.plateofpasta.edgestitch.event;
 
 import net.fabricmc.fabric.api.event.Event;
-import net.fabricmc.fabric.api.event.EventFactory;
 import net.minecraft.block.entity.HopperBlockEntity;
 import net.minecraft.util.ActionResult;
 import net.minecraft.util.math.BlockPos;
@@ -14,19 +13,9 @@ import net.minecraft.util.math.BlockPos;
 @FunctionalInterface
 public interface HopperInsertCallback {
   Event<HopperInsertCallback> EVENT =
-      EventFactory.createArrayBacked(
+      EdgestitchEventFactory.createGenerated(
           HopperInsertCallback.class,
-          (hopperBlockEntity, insertPosition) -> ActionResult.PASS,
-          (listeners) ->
-              (hopperBlockEntity, insertPosition) -> {
-                for (HopperInsertCallback event : listeners) {
-                  ActionResult result = event.onInsert(hopperBlockEntity, insertPosition);
-                  if (result != ActionResult.PASS) {
-                    return result;
-                  }
-                }
-                return ActionResult.PASS;
-              });
+          (hopperBlockEntity, insertPosition) -> ActionResult.PASS);
 
   /**
    * Callback for this interface.
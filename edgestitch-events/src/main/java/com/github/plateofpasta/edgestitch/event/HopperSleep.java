@@ -0,0 +1,217 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.event;
+
+import com.github.plateofpasta.edgestitch.mixin.MixinHopperBlock;
+import com.github.plateofpasta.edgestitch.mixin.MixinHopperBlockEntity;
+import com.github.plateofpasta.edgestitch.mixin.MixinWorldHopperWake;
+import java.util.Properties;
+import net.minecraft.block.entity.BlockEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.world.World;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Idle hopper sleep. A hopper whose last transfer attempts all moved nothing stops attempting
+ * transfers until something that could let it move items happens: a neighbour block update, a
+ * change of its own inventory or of an adjacent inventory (which updates comparators), or an
+ * item entity entering it. Sleeping hoppers also wake after a maximum sleep time, for the rare
+ * changes that notify nothing, such as a chest minecart passing by.
+ *
+ * <p>Only used on the server thread.
+ *
+ * @see MixinHopperBlockEntity
+ * @see MixinHopperBlock
+ * @see MixinWorldHopperWake
+ */
+public final class HopperSleep {
+  /** Key of the number of idle attempts after which a hopper sleeps in the config file. */
+  public static final String IDLE_ATTEMPTS_KEY = "hoppers.sleep.after";
+  /** Key of the maximum sleep time in ticks in the config file. */
+  public static final String MAX_SLEEP_KEY = "hoppers.sleep.max";
+  /** Default number of idle attempts after which a hopper sleeps. */
+  public static final int DEFAULT_IDLE_ATTEMPTS = 8;
+  /** Default maximum sleep time in ticks. */
+  public static final int DEFAULT_MAX_SLEEP_TICKS = 100;
+
+  private static final Logger LOGGER = LogManager.getLogger();
+  private static boolean enabled;
+  private static int idleAttempts = DEFAULT_IDLE_ATTEMPTS;
+  private static int maxSleepTicks = DEFAULT_MAX_SLEEP_TICKS;
+  private static int skipped;
+  private static int ran;
+  private static int lastSkipped;
+  private static int lastRan;
+  private static long sleeps;
+  private static long wakes;
+
+  /** Prevent instantiations of this class. */
+  private HopperSleep() {}
+
+  /** @return {@code true} if idle hoppers sleep, else {@code false}. */
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Enables or disables sleep. Hoppers sleeping when disabled resume on their next attempt.
+   *
+   * @param enabled {@code true} to let idle hoppers sleep.
+   */
+  public static void setEnabled(boolean enabled) {
+    HopperSleep.enabled = enabled;
+  }
+
+  /** @return Number of consecutive idle attempts after which a hopper sleeps. */
+  public static int getIdleAttempts() {
+    return idleAttempts;
+  }
+
+  /** @return Maximum sleep time in ticks. */
+  public static int getMaxSleepTicks() {
+    return maxSleepTicks;
+  }
+
+  /**
+   * Configures sleep.
+   *
+   * @param idleAttempts Number of consecutive idle attempts after which a hopper sleeps.
+   * @param maxSleepTicks Maximum sleep time in ticks.
+   */
+  public static void configure(int idleAttempts, int maxSleepTicks) {
+    if (idleAttempts < 1 || maxSleepTicks < 1) {
+      throw new IllegalArgumentException("idleAttempts and maxSleepTicks must be positive");
+    }
+    HopperSleep.idleAttempts = idleAttempts;
+    HopperSleep.maxSleepTicks = maxSleepTicks;
+  }
+
+  /**
+   * Loads the sleep settings from the config file. Sleep is enabled if the number of idle attempts
+   * is set.
+   *
+   * @param properties Contents of the config file.
+   */
+  public static void loadConfig(Properties properties) {
+    final String attempts = properties.getProperty(IDLE_ATTEMPTS_KEY);
+    if (null == attempts) {
+      return;
+    }
+    try {
+      final String maxSleep = properties.getProperty(MAX_SLEEP_KEY);
+      configure(
+          Integer.parseInt(attempts.trim()),
+          null == maxSleep ? DEFAULT_MAX_SLEEP_TICKS : Integer.parseInt(maxSleep.trim()));
+      setEnabled(true);
+    } catch (IllegalArgumentException e) {
+      LOGGER.warn("Ignoring invalid hopper sleep settings: {}", e.getMessage());
+    }
+  }
+
+  /** @return Number of transfer attempts skipped by sleeping hoppers during the last tick. */
+  public static int getSleepingLastTick() {
+    return lastSkipped;
+  }
+
+  /** @return Number of transfer attempts made by awake hoppers during the last tick. */
+  public static int getActiveLastTick() {
+    return lastRan;
+  }
+
+  /** @return Number of times a hopper fell asleep since the server started. */
+  public static long getSleeps() {
+    return sleeps;
+  }
+
+  /** @return Number of times a sleeping hopper was woken up since the server started. */
+  public static long getWakes() {
+    return wakes;
+  }
+
+  /** Counts a transfer attempt skipped by a sleeping hopper. */
+  public static void onSkipped() {
+    ++skipped;
+  }
+
+  /** Counts a transfer attempt made by an awake hopper. */
+  public static void onRan() {
+    ++ran;
+  }
+
+  /** Counts a hopper falling asleep. */
+  public static void onSleep() {
+    ++sleeps;
+  }
+
+  /** Counts a sleeping hopper being woken up. */
+  public static void onWake() {
+    ++wakes;
+  }
+
+  /** Publishes the counts of the tick that ended. */
+  public static void onTickEnd() {
+    lastSkipped = skipped;
+    lastRan = ran;
+    skipped = 0;
+    ran = 0;
+  }
+
+  /**
+   * Wakes the hopper at a position, if there is a sleeping one.
+   *
+   * @param world World of the position.
+   * @param pos Position to wake.
+   */
+  public static void wake(World world, BlockPos pos) {
+    // Never load a chunk just to wake a hopper.
+    if (!enabled || world.isClient || !world.isChunkLoaded(pos)) {
+      return;
+    }
+    final BlockEntity blockEntity = world.getBlockEntity(pos);
+    if (blockEntity instanceof HopperSleeper && ((HopperSleeper) blockEntity).isSleeping()) {
+      ((HopperSleeper) blockEntity).wake();
+    }
+  }
+
+  /**
+   * Wakes the hoppers at and next to a block whose inventory changed.
+   *
+   * @param world World of the block.
+   * @param pos Position of the block.
+   */
+  public static void onInventoryChanged(World world, BlockPos pos) {
+    // Hoppers attempt every tick while they are asleep, so none sleep if none skipped lately.
+    if (!enabled || world.isClient || 0 == skipped + lastSkipped) {
+      return;
+    }
+    wake(world, pos);
+    final BlockPos.Mutable neighbour = new BlockPos.Mutable();
+    for (Direction direction : Direction.values()) {
+      wake(world, neighbour.set(pos, direction));
+    }
+  }
+}
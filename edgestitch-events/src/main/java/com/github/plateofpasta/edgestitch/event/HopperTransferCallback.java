@@ -0,0 +1,58 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.event;
+
+import com.github.plateofpasta.edgestitch.mixin.MixinHopperBlockEntity;
+import net.fabricmc.fabric.api.event.Event;
+import net.minecraft.inventory.Inventory;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.ActionResult;
+
+/**
+ * Callback event for when a hopper moves a stack out of a slot, either inserting from itself into
+ * the inventory it faces or extracting from the inventory above it. Unlike {@link
+ * HopperInsertCallback} the moved stack is known, so listeners can filter by item.
+ *
+ * @see MixinHopperBlockEntity
+ * @see HopperTransfers
+ */
+@FunctionalInterface
+public interface HopperTransferCallback {
+  Event<HopperTransferCallback> EVENT =
+      EdgestitchEventFactory.createGenerated(
+          HopperTransferCallback.class, (source, target, slot, stack) -> ActionResult.PASS);
+
+  /**
+   * Callback for this interface.
+   *
+   * @param source Inventory the stack is taken from.
+   * @param target Inventory the stack is moved into.
+   * @param slot Slot of the source inventory the stack is taken from.
+   * @param stack Stack being moved, a single item unless transfers are batched. Must not be
+   *     modified.
+   * @return PASS if the stack should be moved, else FAIL if it should stay in the source slot.
+   */
+  ActionResult onTransfer(Inventory source, Inventory target, int slot, ItemStack stack);
+}
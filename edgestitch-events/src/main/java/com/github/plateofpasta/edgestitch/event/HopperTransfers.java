@@ -0,0 +1,159 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.event;
+
+import com.github.plateofpasta.edgestitch.mixin.MixinHopperBlockEntity;
+import java.util.Properties;
+import net.minecraft.block.entity.HopperBlockEntity;
+import net.minecraft.inventory.Inventory;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.ActionResult;
+import net.minecraft.util.math.Direction;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Slot transfers of hopper blocks: fires {@link HopperTransferCallback} and optionally moves up to
+ * a batch of items per transfer instead of one. The cooldown after a batched transfer grows with
+ * the number of items moved, so a hopper moves items as fast as in vanilla while its transfer
+ * logic and the listeners run up to batch size times less often.
+ *
+ * <p>Only used on the server thread.
+ *
+ * @see MixinHopperBlockEntity
+ */
+public final class HopperTransfers {
+  /** Key of the number of items moved per transfer in the config file. */
+  public static final String BATCH_KEY = "hoppers.batch";
+  /** Cooldown of a hopper after it moved an item, in ticks. */
+  public static final int VANILLA_COOLDOWN = 8;
+
+  private static final Logger LOGGER = LogManager.getLogger();
+  private static int batchSize = 1;
+  /** Source slot of the transfer in progress. */
+  private static int slot;
+  /** Most items moved by a single transfer since the attempt of the current hopper started. */
+  private static int mostMoved;
+
+  /** Prevent instantiations of this class. */
+  private HopperTransfers() {}
+
+  /** @return Maximum number of items moved per transfer, {@code 1} as in vanilla. */
+  public static int getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * Sets the number of items moved per transfer.
+   *
+   * @param batchSize Maximum number of items moved per transfer, {@code 1} as in vanilla.
+   */
+  public static void setBatchSize(int batchSize) {
+    if (batchSize < 1 || batchSize > 64) {
+      throw new IllegalArgumentException("batch size must be within [1, 64]");
+    }
+    HopperTransfers.batchSize = batchSize;
+  }
+
+  /**
+   * Loads the batch size from the config file.
+   *
+   * @param properties Contents of the config file.
+   */
+  public static void loadConfig(Properties properties) {
+    final String value = properties.getProperty(BATCH_KEY);
+    if (null == value) {
+      return;
+    }
+    try {
+      setBatchSize(Integer.parseInt(value.trim()));
+    } catch (IllegalArgumentException e) {
+      LOGGER.warn("Ignoring invalid {}: {}", BATCH_KEY, e.getMessage());
+    }
+  }
+
+  /** Starts the transfer attempt of a hopper. */
+  public static void startAttempt() {
+    mostMoved = 0;
+  }
+
+  /**
+   * Gets the cooldown after a successful transfer attempt.
+   *
+   * @return Cooldown in ticks, {@link #VANILLA_COOLDOWN} per item of the largest transfer.
+   */
+  public static int getCooldown() {
+    return VANILLA_COOLDOWN * Math.max(1, mostMoved);
+  }
+
+  /**
+   * Takes the stack to move out of a slot, a batch instead of a single item if configured.
+   *
+   * @param source Inventory to take from.
+   * @param sourceSlot Slot to take from.
+   * @param amount Number of items vanilla takes.
+   * @param batch {@code true} if the transfer is made by a hopper block, whose cooldown is adjusted
+   *     to the batch.
+   * @return Taken stack.
+   */
+  public static ItemStack take(Inventory source, int sourceSlot, int amount, boolean batch) {
+    slot = sourceSlot;
+    return source.removeStack(sourceSlot, batch ? Math.max(amount, batchSize) : amount);
+  }
+
+  /**
+   * Moves a stack taken with {@link #take} into the target inventory, unless a listener vetoes it.
+   * Vanilla restores the whole source stack if anything is left over, so the leftover of a
+   * partially moved batch is put back here and the transfer reported as complete.
+   *
+   * @param source Inventory the stack was taken from.
+   * @param target Inventory to move the stack into.
+   * @param stack Taken stack.
+   * @param side Side of the target inventory, {@code null} if extracting.
+   * @return Leftover stack as expected by vanilla, empty if anything was moved.
+   */
+  public static ItemStack transfer(
+      Inventory source, Inventory target, ItemStack stack, Direction side) {
+    if (EdgestitchEvent.hasListeners(HopperTransferCallback.EVENT)
+        && ActionResult.PASS
+            != HopperTransferCallback.EVENT.invoker().onTransfer(source, target, slot, stack)) {
+      return stack;
+    }
+    final int count = stack.getCount();
+    final ItemStack leftover = HopperBlockEntity.transfer(source, target, stack, side);
+    final int moved = count - leftover.getCount();
+    mostMoved = Math.max(mostMoved, moved);
+    if (0 == moved || leftover.isEmpty()) {
+      return leftover;
+    }
+    final ItemStack remaining = source.getStack(slot);
+    if (remaining.isEmpty()) {
+      source.setStack(slot, leftover);
+    } else {
+      remaining.increment(leftover.getCount());
+    }
+    return ItemStack.EMPTY;
+  }
+}
@@ -0,0 +1,208 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.event;
+
+import com.github.plateofpasta.edgestitch.mixin.MixinHopperBlockEntity;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import java.util.HashMap;
+import java.util.Map;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.HopperBlock;
+import net.minecraft.block.entity.HopperBlockEntity;
+import net.minecraft.util.ActionResult;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.registry.RegistryKey;
+import net.minecraft.world.World;
+
+/**
+ * Opt-in cache of {@link HopperInsertCallback} verdicts. Each hopper stores the verdict for its
+ * target together with the generation of the chunk it inserts into, and reuses it until that
+ * generation changes, so a hopper whose verdict is cached costs one int compare per insert.
+ *
+ * <p>Listeners must not depend on anything but the hopper and its target position while the cache
+ * is enabled, and must call one of the invalidate methods when their rules change, for example
+ * when a claim is created or removed. Listeners registered after verdicts were cached also require
+ * {@link #invalidate()}.
+ *
+ * <p>Only used on the server thread.
+ *
+ * @see MixinHopperBlockEntity
+ */
+public final class HopperVerdictCache {
+  /** Key that enables the cache in the config file. */
+  public static final String ENABLED_KEY = "hoppers.cache";
+
+  /** Generation of each chunk that hoppers insert into, by packed chunk position, by world. */
+  private static final Map<RegistryKey<World>, Long2ObjectOpenHashMap<Generation>> WORLDS =
+      new HashMap<>();
+  private static boolean enabled;
+
+  /** Prevent instantiations of this class. */
+  private HopperVerdictCache() {}
+
+  /** @return {@code true} if verdicts are cached, else {@code false}. */
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Enables or disables the cache. Every change invalidates every cached verdict.
+   *
+   * @param enabled {@code true} to cache verdicts.
+   */
+  public static void setEnabled(boolean enabled) {
+    HopperVerdictCache.enabled = enabled;
+    invalidate();
+  }
+
+  /** Invalidates every cached verdict. */
+  public static void invalidate() {
+    for (Long2ObjectOpenHashMap<Generation> chunks : WORLDS.values()) {
+      for (Generation generation : chunks.values()) {
+        ++generation.value;
+      }
+    }
+    WORLDS.clear();
+  }
+
+  /**
+   * Invalidates the cached verdicts of the hoppers inserting into a chunk.
+   *
+   * @param world World of the chunk.
+   * @param pos Position of the chunk.
+   */
+  public static void invalidate(World world, ChunkPos pos) {
+    final Long2ObjectOpenHashMap<Generation> chunks = WORLDS.get(world.getRegistryKey());
+    final Generation generation = null == chunks ? null : chunks.get(pos.toLong());
+    if (null != generation) {
+      ++generation.value;
+    }
+  }
+
+  /**
+   * Invalidates the cached verdicts of the hoppers inserting into a box, and into the rest of the
+   * chunks it overlaps.
+   *
+   * @param world World of the box.
+   * @param box Box whose rules changed.
+   */
+  public static void invalidate(World world, BlockBox box) {
+    for (int chunkX = box.minX >> 4; chunkX <= box.maxX >> 4; ++chunkX) {
+      for (int chunkZ = box.minZ >> 4; chunkZ <= box.maxZ >> 4; ++chunkZ) {
+        invalidate(world, new ChunkPos(chunkX, chunkZ));
+      }
+    }
+  }
+
+  /**
+   * Invalidates the cached verdict of a single hopper.
+   *
+   * @param hopper Hopper to invalidate.
+   */
+  public static void invalidate(HopperBlockEntity hopper) {
+    ((HopperVerdictHolder) hopper).setVerdictEntry(null);
+  }
+
+  /**
+   * Gets the verdict of a hopper for its target, from its cache if still valid, else from the
+   * listeners.
+   *
+   * @param hopper Hopper that is inserting.
+   * @return Verdict of the {@link HopperInsertCallback} listeners.
+   */
+  public static ActionResult getVerdict(HopperBlockEntity hopper) {
+    final HopperVerdictHolder holder = (HopperVerdictHolder) hopper;
+    final BlockState state = hopper.getCachedState();
+    final Entry entry = holder.getVerdictEntry();
+    if (null != entry && entry.stamp == entry.generation.value && entry.state == state) {
+      return entry.verdict;
+    }
+    final BlockPos target = hopper.getPos().offset(state.get(HopperBlock.FACING));
+    // Read the generation first, so an invalidation by the listeners themselves is not missed.
+    final Generation generation = generationOf(hopper.getWorld(), target);
+    final int stamp = generation.value;
+    final ActionResult verdict = HopperInsertCallback.EVENT.invoker().onInsert(hopper, target);
+    holder.setVerdictEntry(new Entry(generation, stamp, state, verdict));
+    return verdict;
+  }
+
+  /**
+   * Invalidates and forgets the generation of an unloaded chunk.
+   *
+   * @param world World of the chunk.
+   * @param pos Position of the chunk.
+   */
+  public static void onChunkUnload(World world, ChunkPos pos) {
+    final Long2ObjectOpenHashMap<Generation> chunks = WORLDS.get(world.getRegistryKey());
+    final Generation generation = null == chunks ? null : chunks.remove(pos.toLong());
+    if (null != generation) {
+      ++generation.value;
+    }
+  }
+
+  /**
+   * Gets the generation of the chunk containing a position.
+   *
+   * @param world World of the position.
+   * @param pos Position.
+   * @return Generation of the chunk.
+   */
+  private static Generation generationOf(World world, BlockPos pos) {
+    final long chunkKey = ChunkPos.toLong(pos.getX() >> 4, pos.getZ() >> 4);
+    return WORLDS
+        .computeIfAbsent(world.getRegistryKey(), key -> new Long2ObjectOpenHashMap<>())
+        .computeIfAbsent(chunkKey, key -> new Generation());
+  }
+
+  /** Generation counter of a chunk, incremented whenever its verdicts are invalidated. */
+  private static final class Generation {
+    private int value;
+  }
+
+  /** Verdict cached on a hopper. */
+  public static final class Entry {
+    private final Generation generation;
+    private final int stamp;
+    private final BlockState state;
+    private final ActionResult verdict;
+
+    /**
+     * Constructor.
+     *
+     * @param generation Generation of the chunk the hopper inserts into.
+     * @param stamp Value of the generation when the verdict was computed.
+     * @param state State of the hopper when the verdict was computed.
+     * @param verdict Verdict of the listeners.
+     */
+    private Entry(Generation generation, int stamp, BlockState state, ActionResult verdict) {
+      this.generation = generation;
+      this.stamp = stamp;
+      this.state = state;
+      this.verdict = verdict;
+    }
+  }
+}
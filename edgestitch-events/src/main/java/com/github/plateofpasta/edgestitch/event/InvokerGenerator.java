@@ -0,0 +1,676 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.event;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.minecraft.util.ActionResult;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+/**
+ * Generates a straight-line invoker class for a set of listeners. Every listener is stored in its
+ * own final field and invoked from its own call site, so each call site only ever sees a single
+ * receiver class and the JIT can inline through it, unlike the shared call site of a loop over a
+ * listener array.
+ *
+ * <p>Supports callbacks that return {@code void} (every listener is invoked) and callbacks that
+ * return {@link ActionResult} (the first result that is not PASS is returned). Also generates the
+ * single listener wrappers used by {@link ListenerBudgets} and {@link ListenerProfiler}; profiling
+ * wrappers support any functional interface.
+ */
+final class InvokerGenerator {
+  private static final AtomicInteger COUNTER = new AtomicInteger();
+  private static final String OBJECT = Type.getInternalName(Object.class);
+  private static final String ACTION_RESULT_DESCRIPTOR = Type.getDescriptor(ActionResult.class);
+  private static final String LISTENER_FIELD = "listener";
+  private static final String FALLBACK_FIELD = "fallback";
+  // Minecraft field names are remapped in production, so PASS is passed to the constructor
+  // instead of being read from ActionResult by name.
+  private static final String PASS_FIELD = "pass";
+  private static final String GUARD_FIELD = "guard";
+  private static final String VERDICT_FIELD = "verdict";
+  private static final String GUARD = Type.getInternalName(ListenerGuard.class);
+  private static final String PROBE_FIELD = "probe";
+  private static final String PROBE = Type.getInternalName(ListenerProbe.class);
+  private static final String CONSTRUCTOR_DESCRIPTOR =
+      Type.getMethodDescriptor(
+          Type.VOID_TYPE,
+          Type.getType(Object[].class),
+          Type.getType(Object.class),
+          Type.getType(ActionResult.class));
+
+  /** Prevent instantiations of this class. */
+  private InvokerGenerator() {}
+
+  /**
+   * Checks if invokers can be generated for a listener type.
+   *
+   * @param type Listener type.
+   * @return {@code true} if the type is a functional interface returning void or ActionResult.
+   */
+  static boolean supports(Class<?> type) {
+    final Method callback = findCallback(type);
+    return type.isInterface()
+        && null != callback
+        && (void.class == callback.getReturnType()
+            || ActionResult.class == callback.getReturnType());
+  }
+
+  /**
+   * Checks if profiling wrappers can be generated for a listener type.
+   *
+   * @param type Listener type.
+   * @return {@code true} if the type is a functional interface, else {@code false}.
+   */
+  static boolean isFunctional(Class<?> type) {
+    return type.isInterface() && null != findCallback(type);
+  }
+
+  /**
+   * Gets the return type of the callback of a listener type.
+   *
+   * @param type Listener type, must be {@link #supports(Class) supported}.
+   * @return Return type of the callback.
+   */
+  static Class<?> returnTypeOf(Class<?> type) {
+    return findCallback(type).getReturnType();
+  }
+
+  /**
+   * Generates and instantiates an invoker.
+   *
+   * @param type Listener type, must be {@link #supports(Class) supported}.
+   * @param listeners Listeners in invocation order.
+   * @param monitorIndex Index of the first MONITOR listener, whose results are ignored.
+   * @param fallback Invoked after every listener before monitorIndex passed, may be {@code null}.
+   * @param <T> Listener type.
+   * @return Invoker of the listeners.
+   */
+  static <T> T generate(Class<T> type, T[] listeners, int monitorIndex, T fallback) {
+    final Method callback = findCallback(type);
+    final String className = classNameOf(type);
+    final byte[] bytes =
+        generateClass(type, callback, className, listeners.length, monitorIndex, fallback);
+    return define(
+        type,
+        className,
+        bytes,
+        new Class<?>[] {Object[].class, Object.class, ActionResult.class},
+        listeners,
+        fallback,
+        ActionResult.PASS);
+  }
+
+  /**
+   * Generates and instantiates a wrapper that times the invocations of a listener selected by its
+   * guard, see {@link ListenerGuard#shouldSample()}.
+   *
+   * @param type Listener type, must be {@link #supports(Class) supported}.
+   * @param listener Listener to wrap.
+   * @param guard Guard that samples the invocations.
+   * @param <T> Listener type.
+   * @return Wrapped listener.
+   */
+  static <T> T generateGuarded(Class<T> type, T listener, ListenerGuard guard) {
+    final Method callback = findCallback(type);
+    final String className = classNameOf(type);
+    final String typeName = Type.getInternalName(type);
+    final String typeDescriptor = Type.getDescriptor(type);
+    final String guardDescriptor = Type.getDescriptor(ListenerGuard.class);
+    final ClassWriter writer = newClassWriter(className, typeName);
+    writer
+        .visitField(
+            Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL, LISTENER_FIELD, typeDescriptor, null, null)
+        .visitEnd();
+    writer
+        .visitField(
+            Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL, GUARD_FIELD, guardDescriptor, null, null)
+        .visitEnd();
+
+    final MethodVisitor init =
+        writer.visitMethod(
+            Opcodes.ACC_PUBLIC,
+            "<init>",
+            Type.getMethodDescriptor(
+                Type.VOID_TYPE, Type.getType(Object.class), Type.getType(ListenerGuard.class)),
+            null,
+            null);
+    init.visitCode();
+    init.visitVarInsn(Opcodes.ALOAD, 0);
+    init.visitMethodInsn(Opcodes.INVOKESPECIAL, OBJECT, "<init>", "()V", false);
+    init.visitVarInsn(Opcodes.ALOAD, 0);
+    init.visitVarInsn(Opcodes.ALOAD, 1);
+    init.visitTypeInsn(Opcodes.CHECKCAST, typeName);
+    init.visitFieldInsn(Opcodes.PUTFIELD, className, LISTENER_FIELD, typeDescriptor);
+    init.visitVarInsn(Opcodes.ALOAD, 0);
+    init.visitVarInsn(Opcodes.ALOAD, 2);
+    init.visitFieldInsn(Opcodes.PUTFIELD, className, GUARD_FIELD, guardDescriptor);
+    init.visitInsn(Opcodes.RETURN);
+    init.visitMaxs(0, 0);
+    init.visitEnd();
+
+    final Type returnType = Type.getReturnType(callback);
+    final int returnOpcode = returnType.getOpcode(Opcodes.IRETURN);
+    int startSlot = 1;
+    for (Type argument : Type.getArgumentTypes(callback)) {
+      startSlot += argument.getSize();
+    }
+    final Label unsampled = new Label();
+    final MethodVisitor method =
+        writer.visitMethod(
+            Opcodes.ACC_PUBLIC, callback.getName(), Type.getMethodDescriptor(callback), null, null);
+    method.visitCode();
+    method.visitVarInsn(Opcodes.ALOAD, 0);
+    method.visitFieldInsn(Opcodes.GETFIELD, className, GUARD_FIELD, guardDescriptor);
+    method.visitMethodInsn(Opcodes.INVOKEVIRTUAL, GUARD, "shouldSample", "()Z", false);
+    method.visitJumpInsn(Opcodes.IFEQ, unsampled);
+    method.visitMethodInsn(Opcodes.INVOKESTATIC, "java/lang/System", "nanoTime", "()J", false);
+    method.visitVarInsn(Opcodes.LSTORE, startSlot);
+    invokeField(method, className, LISTENER_FIELD, typeName, typeDescriptor, callback);
+    method.visitVarInsn(Opcodes.ALOAD, 0);
+    method.visitFieldInsn(Opcodes.GETFIELD, className, GUARD_FIELD, guardDescriptor);
+    method.visitVarInsn(Opcodes.LLOAD, startSlot);
+    method.visitMethodInsn(Opcodes.INVOKEVIRTUAL, GUARD, "record", "(J)V", false);
+    method.visitInsn(returnOpcode);
+    method.visitLabel(unsampled);
+    invokeField(method, className, LISTENER_FIELD, typeName, typeDescriptor, callback);
+    method.visitInsn(returnOpcode);
+    method.visitMaxs(0, 0);
+    method.visitEnd();
+    writer.visitEnd();
+    return define(
+        type,
+        className,
+        writer.toByteArray(),
+        new Class<?>[] {Object.class, ListenerGuard.class},
+        listener,
+        guard);
+  }
+
+  /**
+   * Generates and instantiates a wrapper that times every invocation of a listener and records it
+   * into a probe, along with the returned value if it is an object.
+   *
+   * @param type Listener type, must be a {@link #isFunctional(Class) functional interface}.
+   * @param listener Listener to wrap.
+   * @param probe Probe that records the invocations.
+   * @param <T> Listener type.
+   * @return Wrapped listener.
+   */
+  static <T> T generateProfiled(Class<T> type, T listener, ListenerProbe probe) {
+    final Method callback = findCallback(type);
+    final String className = classNameOf(type);
+    final String typeName = Type.getInternalName(type);
+    final String typeDescriptor = Type.getDescriptor(type);
+    final String probeDescriptor = Type.getDescriptor(ListenerProbe.class);
+    final ClassWriter writer = newClassWriter(className, typeName);
+    writer
+        .visitField(
+            Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL, LISTENER_FIELD, typeDescriptor, null, null)
+        .visitEnd();
+    writer
+        .visitField(
+            Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL, PROBE_FIELD, probeDescriptor, null, null)
+        .visitEnd();
+
+    final MethodVisitor init =
+        writer.visitMethod(
+            Opcodes.ACC_PUBLIC,
+            "<init>",
+            Type.getMethodDescriptor(
+                Type.VOID_TYPE, Type.getType(Object.class), Type.getType(ListenerProbe.class)),
+            null,
+            null);
+    init.visitCode();
+    init.visitVarInsn(Opcodes.ALOAD, 0);
+    init.visitMethodInsn(Opcodes.INVOKESPECIAL, OBJECT, "<init>", "()V", false);
+    init.visitVarInsn(Opcodes.ALOAD, 0);
+    init.visitVarInsn(Opcodes.ALOAD, 1);
+    init.visitTypeInsn(Opcodes.CHECKCAST, typeName);
+    init.visitFieldInsn(Opcodes.PUTFIELD, className, LISTENER_FIELD, typeDescriptor);
+    init.visitVarInsn(Opcodes.ALOAD, 0);
+    init.visitVarInsn(Opcodes.ALOAD, 2);
+    init.visitFieldInsn(Opcodes.PUTFIELD, className, PROBE_FIELD, probeDescriptor);
+    init.visitInsn(Opcodes.RETURN);
+    init.visitMaxs(0, 0);
+    init.visitEnd();
+
+    final Type returnType = Type.getReturnType(callback);
+    int startSlot = 1;
+    for (Type argument : Type.getArgumentTypes(callback)) {
+      startSlot += argument.getSize();
+    }
+    // The start time takes two slots, the returned value is stored after it.
+    final int resultSlot = startSlot + 2;
+    final boolean object =
+        Type.OBJECT == returnType.getSort() || Type.ARRAY == returnType.getSort();
+    final MethodVisitor method =
+        writer.visitMethod(
+            Opcodes.ACC_PUBLIC, callback.getName(), Type.getMethodDescriptor(callback), null, null);
+    method.visitCode();
+    method.visitMethodInsn(Opcodes.INVOKESTATIC, "java/lang/System", "nanoTime", "()J", false);
+    method.visitVarInsn(Opcodes.LSTORE, startSlot);
+    invokeField(method, className, LISTENER_FIELD, typeName, typeDescriptor, callback);
+    if (Type.VOID != returnType.getSort()) {
+      method.visitVarInsn(returnType.getOpcode(Opcodes.ISTORE), resultSlot);
+    }
+    method.visitVarInsn(Opcodes.ALOAD, 0);
+    method.visitFieldInsn(Opcodes.GETFIELD, className, PROBE_FIELD, probeDescriptor);
+    method.visitVarInsn(Opcodes.LLOAD, startSlot);
+    if (object) {
+      method.visitVarInsn(Opcodes.ALOAD, resultSlot);
+      method.visitMethodInsn(
+          Opcodes.INVOKEVIRTUAL, PROBE, "record", "(JLjava/lang/Object;)V", false);
+    } else {
+      method.visitMethodInsn(Opcodes.INVOKEVIRTUAL, PROBE, "record", "(J)V", false);
+    }
+    if (Type.VOID != returnType.getSort()) {
+      method.visitVarInsn(returnType.getOpcode(Opcodes.ILOAD), resultSlot);
+    }
+    method.visitInsn(returnType.getOpcode(Opcodes.IRETURN));
+    method.visitMaxs(0, 0);
+    method.visitEnd();
+    writer.visitEnd();
+    return define(
+        type,
+        className,
+        writer.toByteArray(),
+        new Class<?>[] {Object.class, ListenerProbe.class},
+        listener,
+        probe);
+  }
+
+  /**
+   * Generates and instantiates a listener that always returns the same verdict.
+   *
+   * @param type Listener type, must be {@link #supports(Class) supported} and return ActionResult.
+   * @param verdict Verdict to return.
+   * @param <T> Listener type.
+   * @return Constant listener.
+   */
+  static <T> T generateConstant(Class<T> type, ActionResult verdict) {
+    final Method callback = findCallback(type);
+    final String className = classNameOf(type);
+    final ClassWriter writer = newClassWriter(className, Type.getInternalName(type));
+    writer
+        .visitField(
+            Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL,
+            VERDICT_FIELD,
+            ACTION_RESULT_DESCRIPTOR,
+            null,
+            null)
+        .visitEnd();
+
+    final MethodVisitor init =
+        writer.visitMethod(
+            Opcodes.ACC_PUBLIC,
+            "<init>",
+            Type.getMethodDescriptor(Type.VOID_TYPE, Type.getType(ActionResult.class)),
+            null,
+            null);
+    init.visitCode();
+    init.visitVarInsn(Opcodes.ALOAD, 0);
+    init.visitMethodInsn(Opcodes.INVOKESPECIAL, OBJECT, "<init>", "()V", false);
+    init.visitVarInsn(Opcodes.ALOAD, 0);
+    init.visitVarInsn(Opcodes.ALOAD, 1);
+    init.visitFieldInsn(Opcodes.PUTFIELD, className, VERDICT_FIELD, ACTION_RESULT_DESCRIPTOR);
+    init.visitInsn(Opcodes.RETURN);
+    init.visitMaxs(0, 0);
+    init.visitEnd();
+
+    final MethodVisitor method =
+        writer.visitMethod(
+            Opcodes.ACC_PUBLIC, callback.getName(), Type.getMethodDescriptor(callback), null, null);
+    method.visitCode();
+    method.visitVarInsn(Opcodes.ALOAD, 0);
+    method.visitFieldInsn(Opcodes.GETFIELD, className, VERDICT_FIELD, ACTION_RESULT_DESCRIPTOR);
+    method.visitInsn(Opcodes.ARETURN);
+    method.visitMaxs(0, 0);
+    method.visitEnd();
+    writer.visitEnd();
+    return define(
+        type,
+        className,
+        writer.toByteArray(),
+        new Class<?>[] {ActionResult.class},
+        verdict);
+  }
+
+  /**
+   * Gets a new unique name for a generated class.
+   *
+   * @param type Listener type.
+   * @return Internal name of the generated class.
+   */
+  private static String classNameOf(Class<?> type) {
+    return Type.getInternalName(type) + "$EdgestitchInvoker" + COUNTER.incrementAndGet();
+  }
+
+  /**
+   * Creates a class writer and starts a public final class implementing the listener type.
+   *
+   * @param className Internal name of the generated class.
+   * @param typeName Internal name of the listener type.
+   * @return Class writer.
+   */
+  private static ClassWriter newClassWriter(String className, String typeName) {
+    final ClassWriter writer =
+        new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS) {
+          @Override
+          protected String getCommonSuperClass(String type1, String type2) {
+            return OBJECT;
+          }
+        };
+    writer.visit(
+        Opcodes.V1_8,
+        Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER | Opcodes.ACC_SYNTHETIC,
+        className,
+        null,
+        OBJECT,
+        new String[] {typeName});
+    return writer;
+  }
+
+  /**
+   * Defines and instantiates a generated class.
+   *
+   * @param type Listener type.
+   * @param className Internal name of the generated class.
+   * @param bytes Class file bytes.
+   * @param parameterTypes Parameter types of the constructor.
+   * @param arguments Arguments of the constructor.
+   * @param <T> Listener type.
+   * @return Instance of the generated class.
+   */
+  private static <T> T define(
+      Class<T> type,
+      String className,
+      byte[] bytes,
+      Class<?>[] parameterTypes,
+      Object... arguments) {
+    try {
+      final Class<?> generatedClass =
+          new InvokerClassLoader(type.getClassLoader()).define(className, bytes);
+      return type.cast(generatedClass.getConstructor(parameterTypes).newInstance(arguments));
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Could not generate invoker for " + type.getName(), e);
+    }
+  }
+
+  /**
+   * Finds the single abstract method of a listener type.
+   *
+   * @param type Listener type.
+   * @return Callback method, or {@code null} if there is not exactly one abstract method.
+   */
+  private static Method findCallback(Class<?> type) {
+    Method found = null;
+    for (Method method : type.getMethods()) {
+      if (Modifier.isAbstract(method.getModifiers())) {
+        if (null != found) {
+          return null;
+        }
+        found = method;
+      }
+    }
+    return found;
+  }
+
+  /**
+   * Writes the invoker class.
+   *
+   * @param type Listener type.
+   * @param callback Callback method of the listener type.
+   * @param className Internal name of the generated class.
+   * @param listenerCount Number of listeners.
+   * @param monitorIndex Index of the first MONITOR listener.
+   * @param fallback Fallback listener, may be {@code null}.
+   * @return Class file bytes.
+   */
+  private static byte[] generateClass(
+      Class<?> type,
+      Method callback,
+      String className,
+      int listenerCount,
+      int monitorIndex,
+      Object fallback) {
+    final String typeName = Type.getInternalName(type);
+    final String typeDescriptor = Type.getDescriptor(type);
+    final ClassWriter writer = newClassWriter(className, typeName);
+    for (int i = 0; i < listenerCount; ++i) {
+      writer
+          .visitField(
+              Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL,
+              LISTENER_FIELD + i,
+              typeDescriptor,
+              null,
+              null)
+          .visitEnd();
+    }
+    if (null != fallback) {
+      writer
+          .visitField(
+              Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL, FALLBACK_FIELD, typeDescriptor, null, null)
+          .visitEnd();
+    }
+    writer
+        .visitField(
+            Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL,
+            PASS_FIELD,
+            ACTION_RESULT_DESCRIPTOR,
+            null,
+            null)
+        .visitEnd();
+    writeConstructor(writer, className, typeName, typeDescriptor, listenerCount, fallback);
+    writeCallback(
+        writer,
+        className,
+        typeName,
+        typeDescriptor,
+        callback,
+        listenerCount,
+        monitorIndex,
+        fallback);
+    writer.visitEnd();
+    return writer.toByteArray();
+  }
+
+  /**
+   * Writes the constructor, which copies the listeners into their fields.
+   *
+   * @param writer Class writer.
+   * @param className Internal name of the generated class.
+   * @param typeName Internal name of the listener type.
+   * @param typeDescriptor Descriptor of the listener type.
+   * @param listenerCount Number of listeners.
+   * @param fallback Fallback listener, may be {@code null}.
+   */
+  private static void writeConstructor(
+      ClassWriter writer,
+      String className,
+      String typeName,
+      String typeDescriptor,
+      int listenerCount,
+      Object fallback) {
+    final MethodVisitor init =
+        writer.visitMethod(Opcodes.ACC_PUBLIC, "<init>", CONSTRUCTOR_DESCRIPTOR, null, null);
+    init.visitCode();
+    init.visitVarInsn(Opcodes.ALOAD, 0);
+    init.visitMethodInsn(Opcodes.INVOKESPECIAL, OBJECT, "<init>", "()V", false);
+    for (int i = 0; i < listenerCount; ++i) {
+      init.visitVarInsn(Opcodes.ALOAD, 0);
+      init.visitVarInsn(Opcodes.ALOAD, 1);
+      init.visitLdcInsn(i);
+      init.visitInsn(Opcodes.AALOAD);
+      init.visitTypeInsn(Opcodes.CHECKCAST, typeName);
+      init.visitFieldInsn(Opcodes.PUTFIELD, className, LISTENER_FIELD + i, typeDescriptor);
+    }
+    if (null != fallback) {
+      init.visitVarInsn(Opcodes.ALOAD, 0);
+      init.visitVarInsn(Opcodes.ALOAD, 2);
+      init.visitTypeInsn(Opcodes.CHECKCAST, typeName);
+      init.visitFieldInsn(Opcodes.PUTFIELD, className, FALLBACK_FIELD, typeDescriptor);
+    }
+    init.visitVarInsn(Opcodes.ALOAD, 0);
+    init.visitVarInsn(Opcodes.ALOAD, 3);
+    init.visitFieldInsn(Opcodes.PUTFIELD, className, PASS_FIELD, ACTION_RESULT_DESCRIPTOR);
+    init.visitInsn(Opcodes.RETURN);
+    init.visitMaxs(0, 0);
+    init.visitEnd();
+  }
+
+  /**
+   * Writes the callback, which invokes each listener from its own call site.
+   *
+   * @param writer Class writer.
+   * @param className Internal name of the generated class.
+   * @param typeName Internal name of the listener type.
+   * @param typeDescriptor Descriptor of the listener type.
+   * @param callback Callback method of the listener type.
+   * @param listenerCount Number of listeners.
+   * @param monitorIndex Index of the first MONITOR listener.
+   * @param fallback Fallback listener, may be {@code null}.
+   */
+  private static void writeCallback(
+      ClassWriter writer,
+      String className,
+      String typeName,
+      String typeDescriptor,
+      Method callback,
+      int listenerCount,
+      int monitorIndex,
+      Object fallback) {
+    final String descriptor = Type.getMethodDescriptor(callback);
+    final boolean verdict = ActionResult.class == callback.getReturnType();
+    final MethodVisitor method =
+        writer.visitMethod(Opcodes.ACC_PUBLIC, callback.getName(), descriptor, null, null);
+    method.visitCode();
+    for (int i = 0; i < monitorIndex; ++i) {
+      invokeField(method, className, LISTENER_FIELD + i, typeName, typeDescriptor, callback);
+      if (verdict) {
+        returnIfNotPass(method, className);
+      }
+    }
+    if (null != fallback) {
+      invokeField(method, className, FALLBACK_FIELD, typeName, typeDescriptor, callback);
+      if (verdict) {
+        returnIfNotPass(method, className);
+      }
+    }
+    for (int i = monitorIndex; i < listenerCount; ++i) {
+      invokeField(method, className, LISTENER_FIELD + i, typeName, typeDescriptor, callback);
+      if (verdict) {
+        method.visitInsn(Opcodes.POP);
+      }
+    }
+    if (verdict) {
+      method.visitVarInsn(Opcodes.ALOAD, 0);
+      method.visitFieldInsn(Opcodes.GETFIELD, className, PASS_FIELD, ACTION_RESULT_DESCRIPTOR);
+      method.visitInsn(Opcodes.ARETURN);
+    } else {
+      method.visitInsn(Opcodes.RETURN);
+    }
+    method.visitMaxs(0, 0);
+    method.visitEnd();
+  }
+
+  /**
+   * Writes the invocation of the listener stored in a field with the arguments of the callback.
+   *
+   * @param method Method visitor of the callback.
+   * @param className Internal name of the generated class.
+   * @param field Name of the listener field.
+   * @param typeName Internal name of the listener type.
+   * @param typeDescriptor Descriptor of the listener type.
+   * @param callback Callback method of the listener type.
+   */
+  private static void invokeField(
+      MethodVisitor method,
+      String className,
+      String field,
+      String typeName,
+      String typeDescriptor,
+      Method callback) {
+    method.visitVarInsn(Opcodes.ALOAD, 0);
+    method.visitFieldInsn(Opcodes.GETFIELD, className, field, typeDescriptor);
+    int slot = 1;
+    for (Type argument : Type.getArgumentTypes(callback)) {
+      method.visitVarInsn(argument.getOpcode(Opcodes.ILOAD), slot);
+      slot += argument.getSize();
+    }
+    method.visitMethodInsn(
+        Opcodes.INVOKEINTERFACE,
+        typeName,
+        callback.getName(),
+        Type.getMethodDescriptor(callback),
+        true);
+  }
+
+  /**
+   * Writes a return of the ActionResult on top of the stack if it is not PASS. The result is
+   * popped otherwise.
+   *
+   * @param method Method visitor of the callback.
+   * @param className Internal name of the generated class.
+   */
+  private static void returnIfNotPass(MethodVisitor method, String className) {
+    final Label pass = new Label();
+    method.visitInsn(Opcodes.DUP);
+    method.visitVarInsn(Opcodes.ALOAD, 0);
+    method.visitFieldInsn(Opcodes.GETFIELD, className, PASS_FIELD, ACTION_RESULT_DESCRIPTOR);
+    method.visitJumpInsn(Opcodes.IF_ACMPEQ, pass);
+    method.visitInsn(Opcodes.ARETURN);
+    method.visitLabel(pass);
+    method.visitInsn(Opcodes.POP);
+  }
+
+  /** Class loader that defines a single generated invoker class. */
+  private static final class InvokerClassLoader extends ClassLoader {
+    /**
+     * Constructor.
+     *
+     * @param parent Class loader of the listener type.
+     */
+    private InvokerClassLoader(ClassLoader parent) {
+      super(parent);
+    }
+
+    /**
+     * Defines the generated class.
+     *
+     * @param internalName Internal name of the class.
+     * @param bytes Class file bytes.
+     * @return Defined class.
+     */
+    private Class<?> define(String internalName, byte[] bytes) {
+      return defineClass(internalName.replace('/', '.'), bytes, 0, bytes.length);
+    }
+  }
+}
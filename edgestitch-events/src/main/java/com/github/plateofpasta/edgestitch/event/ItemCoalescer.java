@@ -0,0 +1,229 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.event;
+
+import com.github.plateofpasta.edgestitch.mixin.MixinAccessorItemEntity;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.ItemEntity;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.ActionResult;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.world.World;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Item coalescing. Item entities about to spawn are merged into compatible item entities already
+ * within a small radius, found through the {@link ItemEntityIndex}. A fully merged item is never
+ * spawned, so player drops and block drops pile into few ticking entities. The merge follows
+ * vanilla: same item, tag and owner, and the merged item keeps the longer pickup delay and the
+ * younger age.
+ *
+ * <p>Items are merged through {@link ServerWorldEvents#ENTITY_SPAWN_VERDICT}, which every item
+ * spawn goes through, including player drops. The merge runs in the LATE phase, so listeners that
+ * veto item spawns, e.g. in claims, decide first and a vetoed item never lands in an existing
+ * stack. Only used on the server thread.
+ */
+public final class ItemCoalescer {
+  /** Key that enables coalescing in the config file. */
+  public static final String ENABLED_KEY = "items.merge";
+  /** Key of the merge radius in blocks in the config file. */
+  public static final String RADIUS_KEY = "items.merge.radius";
+  /** Default merge radius in blocks. */
+  public static final double DEFAULT_RADIUS = 1.5;
+
+  private static final Logger LOGGER = LogManager.getLogger();
+  /** Age of items that never despawn. */
+  private static final int NEVER_DESPAWN_AGE = -32768;
+  /** Pickup delay of items that can never be picked up. */
+  private static final int NEVER_PICKUP_DELAY = 32767;
+  /** Age after which vanilla stops merging an item. */
+  private static final int MAX_MERGE_AGE = 6000;
+  private static double radius = DEFAULT_RADIUS;
+  private static boolean enabled;
+  private static boolean registered;
+
+  /** Prevent instantiations of this class. */
+  private ItemCoalescer() {}
+
+  /** @return {@code true} if spawning items are merged, else {@code false}. */
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Enables or disables coalescing.
+   *
+   * @param enabled {@code true} to merge spawning items.
+   */
+  public static void setEnabled(boolean enabled) {
+    ItemCoalescer.enabled = enabled;
+    ItemEntityIndex.setEnabled(enabled);
+    if (enabled && !registered) {
+      registered = true;
+      ((EdgestitchEvent<ServerWorldEvents.ServerWorldSpawnEntityVerdictCallback>)
+              ServerWorldEvents.ENTITY_SPAWN_VERDICT)
+          .register(EventPhase.LATE, ItemCoalescer::onSpawn);
+    }
+  }
+
+  /**
+   * Sets the horizontal and vertical distance within which items are merged.
+   *
+   * @param radius Merge radius in blocks, at most 16.
+   */
+  public static void setRadius(double radius) {
+    if (radius < 0.0 || radius > 16.0) {
+      throw new IllegalArgumentException("radius must be within [0, 16]");
+    }
+    ItemCoalescer.radius = radius;
+  }
+
+  /**
+   * Loads the coalescing settings from the config file.
+   *
+   * @param properties Contents of the config file.
+   */
+  public static void loadConfig(Properties properties) {
+    final String value = properties.getProperty(RADIUS_KEY);
+    if (null != value) {
+      try {
+        setRadius(Double.parseDouble(value.trim()));
+      } catch (IllegalArgumentException e) {
+        LOGGER.warn("Ignoring invalid {}: {}", RADIUS_KEY, e.getMessage());
+      }
+    }
+    if (Boolean.parseBoolean(properties.getProperty(ENABLED_KEY))) {
+      setEnabled(true);
+    }
+  }
+
+  /**
+   * Merges a spawning item into nearby items.
+   *
+   * @param world World of the spawn.
+   * @param entity Entity being spawned.
+   * @param returnValue Out-parameter for the return value of spawnEntity.
+   * @return FAIL if the item was fully merged, else PASS.
+   */
+  private static ActionResult onSpawn(
+      World world, Entity entity, EventReturnValue<Boolean> returnValue) {
+    if (!enabled || !(entity instanceof ItemEntity) || world.isClient) {
+      return ActionResult.PASS;
+    }
+    final ItemEntity source = (ItemEntity) entity;
+    if (!canMerge(source)) {
+      return ActionResult.PASS;
+    }
+    final int minX = MathHelper.floor(source.getX() - radius) >> 4;
+    final int maxX = MathHelper.floor(source.getX() + radius) >> 4;
+    final int minZ = MathHelper.floor(source.getZ() - radius) >> 4;
+    final int maxZ = MathHelper.floor(source.getZ() + radius) >> 4;
+    for (int chunkX = minX; chunkX <= maxX; ++chunkX) {
+      for (int chunkZ = minZ; chunkZ <= maxZ; ++chunkZ) {
+        if (mergeInto(source, ItemEntityIndex.get(world, chunkX, chunkZ))) {
+          source.remove();
+          returnValue.set(Boolean.FALSE);
+          return ActionResult.FAIL;
+        }
+      }
+    }
+    return ActionResult.PASS;
+  }
+
+  /**
+   * Merges an item into the compatible items of a chunk, until it is empty.
+   *
+   * @param source Spawning item.
+   * @param targets Items of a chunk.
+   * @return {@code true} if the spawning item is empty, else {@code false}.
+   */
+  private static boolean mergeInto(ItemEntity source, List<ItemEntity> targets) {
+    final ItemStack sourceStack = source.getStack();
+    for (int i = 0; i < targets.size(); ++i) {
+      final ItemEntity target = targets.get(i);
+      if (Math.abs(target.getX() - source.getX()) > radius
+          || Math.abs(target.getY() - source.getY()) > radius
+          || Math.abs(target.getZ() - source.getZ()) > radius
+          || !canMerge(target)
+          || !canMerge(source, target)) {
+        continue;
+      }
+      final ItemStack targetStack = target.getStack();
+      final int moved =
+          Math.min(sourceStack.getCount(), targetStack.getMaxCount() - targetStack.getCount());
+      final ItemStack merged = targetStack.copy();
+      merged.increment(moved);
+      target.setStack(merged);
+      sourceStack.decrement(moved);
+      final MixinAccessorItemEntity targetAccessor = (MixinAccessorItemEntity) target;
+      final MixinAccessorItemEntity sourceAccessor = (MixinAccessorItemEntity) source;
+      targetAccessor.setPickupDelay(
+          Math.max(targetAccessor.getPickupDelay(), sourceAccessor.getPickupDelay()));
+      targetAccessor.setAge(Math.min(targetAccessor.getAge(), sourceAccessor.getAge()));
+      if (sourceStack.isEmpty()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Checks if an item may take part in a merge at all, like vanilla.
+   *
+   * @param item Item to check.
+   * @return {@code true} if the item may be merged, else {@code false}.
+   */
+  private static boolean canMerge(ItemEntity item) {
+    final MixinAccessorItemEntity accessor = (MixinAccessorItemEntity) item;
+    final ItemStack stack = item.getStack();
+    return item.isAlive()
+        && NEVER_PICKUP_DELAY != accessor.getPickupDelay()
+        && NEVER_DESPAWN_AGE != accessor.getAge()
+        && accessor.getAge() < MAX_MERGE_AGE
+        && stack.getCount() < stack.getMaxCount();
+  }
+
+  /**
+   * Checks if two items can be merged into one stack, like vanilla.
+   *
+   * @param source Spawning item.
+   * @param target Existing item.
+   * @return {@code true} if the items are compatible, else {@code false}.
+   */
+  private static boolean canMerge(ItemEntity source, ItemEntity target) {
+    final ItemStack sourceStack = source.getStack();
+    final ItemStack targetStack = target.getStack();
+    return source != target
+        && sourceStack.getItem() == targetStack.getItem()
+        && ItemStack.areTagsEqual(sourceStack, targetStack)
+        && Objects.equals(
+            ((MixinAccessorItemEntity) source).getOwner(),
+            ((MixinAccessorItemEntity) target).getOwner());
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.event;
+
+import com.github.plateofpasta.edgestitch.mixin.MixinWorldChunk;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.ItemEntity;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.registry.RegistryKey;
+import net.minecraft.world.World;
+
+/**
+ * Item entities of every loaded chunk, keyed by world and packed chunk position, so nearby items
+ * are found without querying entity bounding boxes. Maintained by the same chunk hooks as {@link
+ * EntityDensityIndex}.
+ *
+ * <p>Only accessed on the server thread. Tracking is disabled until {@link #setEnabled(boolean)}
+ * is called, items added before that are not indexed.
+ *
+ * @see MixinWorldChunk
+ */
+public final class ItemEntityIndex {
+  private static final Map<RegistryKey<World>, Long2ObjectOpenHashMap<List<ItemEntity>>> WORLDS =
+      new HashMap<>();
+  private static boolean enabled;
+
+  /** Prevent instantiations of this class. */
+  private ItemEntityIndex() {}
+
+  /** @return {@code true} if item entities are indexed, else {@code false}. */
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Enables or disables indexing. Disabling drops the index.
+   *
+   * @param enabled {@code true} to index item entities.
+   */
+  public static void setEnabled(boolean enabled) {
+    ItemEntityIndex.enabled = enabled;
+    if (!enabled) {
+      WORLDS.clear();
+    }
+  }
+
+  /**
+   * Indexes an entity added to a chunk, if it is an item.
+   *
+   * @param world World of the chunk.
+   * @param pos Position of the chunk.
+   * @param entity Added entity.
+   */
+  public static void onAdded(World world, ChunkPos pos, Entity entity) {
+    if (!enabled || world.isClient || !(entity instanceof ItemEntity)) {
+      return;
+    }
+    WORLDS
+        .computeIfAbsent(world.getRegistryKey(), key -> new Long2ObjectOpenHashMap<>())
+        .computeIfAbsent(pos.toLong(), key -> new ObjectArrayList<>())
+        .add((ItemEntity) entity);
+  }
+
+  /**
+   * Unindexes an entity removed from a chunk, if it is an item.
+   *
+   * @param world World of the chunk.
+   * @param pos Position of the chunk.
+   * @param entity Removed entity.
+   */
+  public static void onRemoved(World world, ChunkPos pos, Entity entity) {
+    if (!enabled || world.isClient || !(entity instanceof ItemEntity)) {
+      return;
+    }
+    final Long2ObjectOpenHashMap<List<ItemEntity>> chunks = WORLDS.get(world.getRegistryKey());
+    if (null == chunks) {
+      return;
+    }
+    final long chunkKey = pos.toLong();
+    final List<ItemEntity> items = chunks.get(chunkKey);
+    if (null != items && items.remove(entity) && items.isEmpty()) {
+      chunks.remove(chunkKey);
+    }
+  }
+
+  /**
+   * Drops the items of an unloaded chunk. Its items are indexed again when it loads.
+   *
+   * @param world World of the chunk.
+   * @param pos Position of the chunk.
+   */
+  public static void onChunkUnload(World world, ChunkPos pos) {
+    final Long2ObjectOpenHashMap<List<ItemEntity>> chunks = WORLDS.get(world.getRegistryKey());
+    if (null != chunks) {
+      chunks.remove(pos.toLong());
+    }
+  }
+
+  /**
+   * Gets the item entities of a chunk.
+   *
+   * @param world World of the chunk.
+   * @param chunkX X coordinate of the chunk.
+   * @param chunkZ Z coordinate of the chunk.
+   * @return Item entities of the chunk, must not be modified.
+   */
+  public static List<ItemEntity> get(World world, int chunkX, int chunkZ) {
+    final Long2ObjectOpenHashMap<List<ItemEntity>> chunks = WORLDS.get(world.getRegistryKey());
+    final List<ItemEntity> items =
+        null == chunks ? null : chunks.get(ChunkPos.toLong(chunkX, chunkZ));
+    return null == items ? Collections.emptyList() : items;
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.event;
+
+/**
+ * Log-linear histogram of nanosecond latencies. Every power of two is split into {@value
+ * #SUB_BUCKETS} linear buckets, so recorded values keep about two significant digits over the whole
+ * range of a long. Not thread safe, every thread records into its own histogram.
+ */
+final class LatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 4;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+  private final long[] counts = new long[BUCKETS];
+  private long count;
+
+  /**
+   * Records a value.
+   *
+   * @param nanos Latency in nanoseconds, negative values are recorded as 0.
+   */
+  void record(long nanos) {
+    ++counts[indexOf(Math.max(0L, nanos))];
+    ++count;
+  }
+
+  /**
+   * Adds every value recorded in another histogram to this histogram.
+   *
+   * @param other Histogram to add.
+   */
+  void add(LatencyHistogram other) {
+    for (int i = 0; i < BUCKETS; ++i) {
+      counts[i] += other.counts[i];
+    }
+    count += other.count;
+  }
+
+  /** @return Number of recorded values. */
+  long getCount() {
+    return count;
+  }
+
+  /**
+   * Gets the value at a percentile.
+   *
+   * @param percentile Percentile in the range [0, 100].
+   * @return Upper bound of the bucket holding the percentile, or 0 if nothing was recorded.
+   */
+  long getValueAtPercentile(double percentile) {
+    final long rank = (long) Math.ceil(count * Math.min(100.0, Math.max(0.0, percentile)) / 100.0);
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; ++i) {
+      seen += counts[i];
+      if (seen >= Math.max(1L, rank)) {
+        return upperBoundOf(i);
+      }
+    }
+    return 0L;
+  }
+
+  /**
+   * Gets the bucket of a value.
+   *
+   * @param value Non negative value.
+   * @return Bucket index.
+   */
+  private static int indexOf(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+    final int shift = exponent - SUB_BUCKET_BITS;
+    final int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+    return (shift + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  /**
+   * Gets the largest value of a bucket.
+   *
+   * @param index Bucket index.
+   * @return Largest value that is recorded into the bucket.
+   */
+  private static long upperBoundOf(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    final int shift = index / SUB_BUCKETS - 1;
+    final long lowerBound = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+    return lowerBound + (1L << shift) - 1;
+  }
+}
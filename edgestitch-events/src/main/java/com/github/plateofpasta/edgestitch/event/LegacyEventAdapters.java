@@ -0,0 +1,146 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.event;
+
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.ItemEntity;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.entity.projectile.ProjectileEntity;
+import net.minecraft.entity.projectile.thrown.ThrownEntity;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.ActionResult;
+import net.minecraft.util.TypedActionResult;
+import net.minecraft.util.hit.HitResult;
+import net.minecraft.world.World;
+
+/**
+ * Adapts the {@link TypedActionResult} events to their verdict counterparts. Each verdict event
+ * invokes its legacy event last, and only if the legacy event has listeners, so servers without
+ * legacy listeners never allocate a {@link TypedActionResult}.
+ */
+final class LegacyEventAdapters {
+  static final TypedActionResult<Boolean> PASS_SPAWN = TypedActionResult.pass(true);
+  static final TypedActionResult<ItemEntity> PASS_DROP = TypedActionResult.pass(null);
+
+  static final ServerWorldEvents.ServerWorldSpawnEntityCallback NO_SPAWN_LISTENERS =
+      (world, entity) -> PASS_SPAWN;
+  static final ServerPlayerEvents.ServerPlayerDropItemCallback NO_DROP_LISTENERS =
+      (playerEntity, stack) -> PASS_DROP;
+  static final ProjectileHitCallback NO_PROJECTILE_HIT_LISTENERS =
+      (projectileEntity, hitResult) -> TypedActionResult.pass(hitResult);
+  static final ThrownEntityCollisionCallback NO_THROWN_COLLISION_LISTENERS =
+      (thrownEntity, hitResult) -> TypedActionResult.pass(hitResult);
+
+  /** Prevent instantiations of this class. */
+  private LegacyEventAdapters() {}
+
+  /**
+   * Invokes {@link ServerWorldEvents#ENTITY_SPAWN}.
+   *
+   * @param world World entity is being spawned in.
+   * @param entity Entity being spawned.
+   * @param returnValue Written with the legacy value if the verdict is not PASS.
+   * @return Legacy verdict.
+   */
+  static ActionResult spawnEvent(
+      World world, Entity entity, EventReturnValue<Boolean> returnValue) {
+    final ServerWorldEvents.ServerWorldSpawnEntityCallback invoker =
+        ServerWorldEvents.ENTITY_SPAWN.invoker();
+    if (NO_SPAWN_LISTENERS == invoker) {
+      return ActionResult.PASS;
+    }
+    return unwrap(invoker.spawnEvent(world, entity), returnValue);
+  }
+
+  /**
+   * Invokes {@link ServerPlayerEvents#PLAYER_DROP_ITEM}.
+   *
+   * @param playerEntity Player dropping the item.
+   * @param stack Item stack being dropped.
+   * @param returnValue Written with the legacy value if the verdict is not PASS.
+   * @return Legacy verdict.
+   */
+  static ActionResult drop(
+      PlayerEntity playerEntity, ItemStack stack, EventReturnValue<ItemEntity> returnValue) {
+    final ServerPlayerEvents.ServerPlayerDropItemCallback invoker =
+        ServerPlayerEvents.PLAYER_DROP_ITEM.invoker();
+    if (NO_DROP_LISTENERS == invoker) {
+      return ActionResult.PASS;
+    }
+    return unwrap(invoker.drop(playerEntity, stack), returnValue);
+  }
+
+  /**
+   * Invokes {@link ProjectileHitCallback#EVENT}.
+   *
+   * @param projectileEntity Projectile that hit something.
+   * @param hitResult Current projectile hit result.
+   * @param returnValue Written with the legacy value if the verdict is not PASS.
+   * @return Legacy verdict.
+   */
+  static ActionResult onHit(
+      ProjectileEntity projectileEntity,
+      HitResult hitResult,
+      EventReturnValue<HitResult> returnValue) {
+    final ProjectileHitCallback invoker = ProjectileHitCallback.EVENT.invoker();
+    if (NO_PROJECTILE_HIT_LISTENERS == invoker) {
+      return ActionResult.PASS;
+    }
+    return unwrap(invoker.onHit(projectileEntity, hitResult), returnValue);
+  }
+
+  /**
+   * Invokes {@link ThrownEntityCollisionCallback#EVENT}.
+   *
+   * @param thrownEntity Entity being thrown.
+   * @param hitResult Current projectile hit result.
+   * @param returnValue Written with the legacy value if the verdict is not PASS.
+   * @return Legacy verdict.
+   */
+  static ActionResult onCollision(
+      ThrownEntity thrownEntity, HitResult hitResult, EventReturnValue<HitResult> returnValue) {
+    final ThrownEntityCollisionCallback invoker = ThrownEntityCollisionCallback.EVENT.invoker();
+    if (NO_THROWN_COLLISION_LISTENERS == invoker) {
+      return ActionResult.PASS;
+    }
+    return unwrap(invoker.onCollision(thrownEntity, hitResult), returnValue);
+  }
+
+  /**
+   * Splits a legacy result into a verdict and the out-parameter.
+   *
+   * @param result Legacy result.
+   * @param returnValue Written with the legacy value if the verdict is not PASS.
+   * @param <T> Type of the value.
+   * @return Verdict of the legacy result.
+   */
+  private static <T> ActionResult unwrap(
+      TypedActionResult<T> result, EventReturnValue<T> returnValue) {
+    if (ActionResult.PASS != result.getResult()) {
+      returnValue.set(result.getValue());
+    }
+    return result.getResult();
+  }
+}
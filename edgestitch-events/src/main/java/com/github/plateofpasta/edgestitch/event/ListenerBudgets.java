@@ -0,0 +1,288 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.event;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import net.fabricmc.fabric.api.event.Event;
+import net.minecraft.util.ActionResult;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Enforces per-tick time budgets on the listeners of events. Every listener of an event with a
+ * budget is wrapped so that one in {@link EventBudget#getSampleInterval()} invocations is timed,
+ * and the sampled time is extrapolated at the end of each tick. A listener that exceeds the budget
+ * for {@link EventBudget#getMaxStrikes()} consecutive ticks is quarantined: it is removed from the
+ * invoker, and replaced by the fallback verdict if that is FAIL, until the cool-down ends.
+ *
+ * <p>Events without a budget are not wrapped at all.
+ */
+public final class ListenerBudgets {
+  /** Prefix of the budget keys in the config file. */
+  public static final String CONFIG_KEY_PREFIX = "budget.";
+
+  private static final Logger LOGGER = LogManager.getLogger();
+  private static final Object LOCK = new Object();
+  private static final Map<EdgestitchEvent<?>, EventBudget> BUDGETS = new ConcurrentHashMap<>();
+  private static final Map<EdgestitchEvent<?>, Map<Object, ListenerGuard>> GUARDS =
+      new ConcurrentHashMap<>();
+  private static final Map<String, EventBudget> CONFIGURED = new ConcurrentHashMap<>();
+  private static final Set<EdgestitchEvent<?>> ADOPTED =
+      Collections.newSetFromMap(new ConcurrentHashMap<>());
+  private static final EdgestitchEvent.ListenerDecorator ENFORCER = ListenerBudgets::decorate;
+  private static boolean installed;
+  private static long tick;
+
+  /** Prevent instantiations of this class. */
+  private ListenerBudgets() {}
+
+  /**
+   * Sets the budget of an event and resets the state of its listeners.
+   *
+   * @param event Event created by {@link EdgestitchEventFactory#createGenerated}.
+   * @param budget Budget of each listener of the event.
+   * @throws IllegalArgumentException If the invoker of the event is not generated.
+   */
+  public static void setBudget(Event<?> event, EventBudget budget) {
+    final EdgestitchEvent<?> edgestitchEvent = requireSupported(event);
+    synchronized (LOCK) {
+      BUDGETS.put(edgestitchEvent, budget);
+      GUARDS.remove(edgestitchEvent);
+      if (!installed) {
+        installed = true;
+        EdgestitchEvent.addDecorator(ENFORCER);
+        return;
+      }
+    }
+    edgestitchEvent.refresh();
+  }
+
+  /**
+   * Removes the budget of an event and restores every quarantined listener of it.
+   *
+   * @param event Event to remove the budget of.
+   */
+  public static void clearBudget(Event<?> event) {
+    if (!(event instanceof EdgestitchEvent)) {
+      return;
+    }
+    final EdgestitchEvent<?> edgestitchEvent = (EdgestitchEvent<?>) event;
+    synchronized (LOCK) {
+      if (null == BUDGETS.remove(edgestitchEvent)) {
+        return;
+      }
+      GUARDS.remove(edgestitchEvent);
+      if (BUDGETS.isEmpty() && CONFIGURED.isEmpty()) {
+        installed = false;
+        EdgestitchEvent.removeDecorator(ENFORCER);
+        return;
+      }
+    }
+    edgestitchEvent.refresh();
+  }
+
+  /**
+   * Loads budgets from the config file. Each key is {@value #CONFIG_KEY_PREFIX} followed by an
+   * event name, see {@link EdgestitchEvent#getName()}, and each value is {@code
+   * budgetNanos,maxStrikes,cooldownTicks,PASS|FAIL[,sampleInterval]}. The budget is set on every
+   * event with that name once it has listeners, since event classes are initialized lazily.
+   *
+   * @param properties Contents of the config file.
+   */
+  public static void loadConfig(Properties properties) {
+    for (String key : properties.stringPropertyNames()) {
+      if (!key.startsWith(CONFIG_KEY_PREFIX)) {
+        continue;
+      }
+      try {
+        CONFIGURED.put(
+            key.substring(CONFIG_KEY_PREFIX.length()), parseBudget(properties.getProperty(key)));
+      } catch (IllegalArgumentException e) {
+        LOGGER.warn("Ignoring invalid listener budget {}: {}", key, e.getMessage());
+      }
+    }
+    if (CONFIGURED.isEmpty()) {
+      return;
+    }
+    synchronized (LOCK) {
+      if (!installed) {
+        installed = true;
+        EdgestitchEvent.addDecorator(ENFORCER);
+        return;
+      }
+    }
+    for (EdgestitchEvent<?> event : EdgestitchEvent.getEvents()) {
+      event.refresh();
+    }
+  }
+
+  /**
+   * Accounts the sampled time of the ending tick. Quarantines listeners that exceeded their budget
+   * too often and restores listeners whose cool-down ended. Called on the server thread at the end
+   * of every tick.
+   */
+  public static void onTickEnd() {
+    final List<EdgestitchEvent<?>> changed = new ArrayList<>();
+    synchronized (LOCK) {
+      ++tick;
+      for (Map.Entry<EdgestitchEvent<?>, Map<Object, ListenerGuard>> entry : GUARDS.entrySet()) {
+        final EdgestitchEvent<?> event = entry.getKey();
+        final EventBudget budget = BUDGETS.get(event);
+        if (null == budget) {
+          continue;
+        }
+        boolean eventChanged = false;
+        synchronized (entry.getValue()) {
+          for (Map.Entry<Object, ListenerGuard> guardEntry : entry.getValue().entrySet()) {
+            eventChanged |= account(event, budget, guardEntry.getKey(), guardEntry.getValue());
+          }
+        }
+        if (eventChanged) {
+          changed.add(event);
+        }
+      }
+    }
+    // Rebuild after releasing the lock, so that accounting never waits on listener registration.
+    for (EdgestitchEvent<?> event : changed) {
+      event.refresh();
+    }
+  }
+
+  /**
+   * Accounts the sampled time of a single listener.
+   *
+   * @param event Event the listener is registered to.
+   * @param budget Budget of the event.
+   * @param listener Listener as registered.
+   * @param guard Guard of the listener.
+   * @return {@code true} if the listener was quarantined or restored, else {@code false}.
+   */
+  private static boolean account(
+      EdgestitchEvent<?> event, EventBudget budget, Object listener, ListenerGuard guard) {
+    if (guard.isQuarantined()) {
+      if (tick < guard.getQuarantinedUntil()) {
+        return false;
+      }
+      guard.restore();
+      LOGGER.info("Restored listener {} of {} after its cool-down", listener, event.getName());
+      return true;
+    }
+    if (guard.takeEstimatedNanos() <= budget.getBudgetNanos()) {
+      guard.clearStrikes();
+      return false;
+    }
+    if (guard.strike() < budget.getMaxStrikes()) {
+      return false;
+    }
+    guard.quarantine(tick + budget.getCooldownTicks());
+    LOGGER.warn(
+        "Quarantined listener {} of {} for {} ticks, it exceeded its budget of {} ns for {} ticks",
+        listener,
+        event.getName(),
+        budget.getCooldownTicks(),
+        budget.getBudgetNanos(),
+        budget.getMaxStrikes());
+    return true;
+  }
+
+  /**
+   * Wraps the listeners of events with a budget.
+   *
+   * @param event Event the listener is registered to.
+   * @param phase Phase the listener is registered to.
+   * @param listener Listener as registered.
+   * @param wrapped Listener as wrapped by the previous decorators.
+   * @param <T> Listener type.
+   * @return Guarded listener, fallback listener, wrapped itself or {@code null}.
+   */
+  private static <T> T decorate(EdgestitchEvent<T> event, EventPhase phase, T listener, T wrapped) {
+    if (ADOPTED.add(event)) {
+      final EventBudget configured = CONFIGURED.get(event.getName());
+      if (null != configured && InvokerGenerator.supports(event.getType())) {
+        BUDGETS.putIfAbsent(event, configured);
+      }
+    }
+    final EventBudget budget = BUDGETS.get(event);
+    if (null == budget) {
+      return wrapped;
+    }
+    final Map<Object, ListenerGuard> guards =
+        GUARDS.computeIfAbsent(event, key -> Collections.synchronizedMap(new IdentityHashMap<>()));
+    final ListenerGuard guard =
+        guards.computeIfAbsent(listener, key -> new ListenerGuard(budget.getSampleInterval()));
+    if (!guard.isQuarantined()) {
+      return InvokerGenerator.generateGuarded(event.getType(), wrapped, guard);
+    }
+    final boolean verdict = ActionResult.class == InvokerGenerator.returnTypeOf(event.getType());
+    if (verdict && EventPhase.MONITOR != phase && ActionResult.FAIL == budget.getFallback()) {
+      return InvokerGenerator.generateConstant(event.getType(), ActionResult.FAIL);
+    }
+    return null;
+  }
+
+  /**
+   * Parses a budget from its config value.
+   *
+   * @param value {@code budgetNanos,maxStrikes,cooldownTicks,PASS|FAIL[,sampleInterval]}.
+   * @return Parsed budget.
+   * @throws IllegalArgumentException If the value is malformed.
+   */
+  private static EventBudget parseBudget(String value) {
+    final String[] parts = value.split(",");
+    if (4 != parts.length && 5 != parts.length) {
+      throw new IllegalArgumentException("expected 4 or 5 comma separated values");
+    }
+    return new EventBudget(
+        Long.parseLong(parts[0].trim()),
+        Integer.parseInt(parts[1].trim()),
+        Integer.parseInt(parts[2].trim()),
+        ActionResult.valueOf(parts[3].trim()),
+        5 == parts.length
+            ? Integer.parseInt(parts[4].trim())
+            : EventBudget.DEFAULT_SAMPLE_INTERVAL);
+  }
+
+  /**
+   * Checks that an event supports budgets.
+   *
+   * @param event Event to check.
+   * @return Event as an EdgestitchEvent.
+   * @throws IllegalArgumentException If the invoker of the event is not generated.
+   */
+  private static EdgestitchEvent<?> requireSupported(Event<?> event) {
+    if (!(event instanceof EdgestitchEvent)
+        || !InvokerGenerator.supports(((EdgestitchEvent<?>) event).getType())) {
+      throw new IllegalArgumentException("Budgets require an event with a generated invoker");
+    }
+    return (EdgestitchEvent<?>) event;
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.event;
+
+/**
+ * Samples the invocations of a single listener for {@link ListenerBudgets}. Public because the
+ * wrappers generated by {@link InvokerGenerator} call it; not meant to be used directly.
+ */
+public final class ListenerGuard {
+  private final int sampleInterval;
+  private int countdown;
+  private long sampledNanos;
+  private int strikes;
+  private volatile long quarantinedUntil = -1L;
+
+  /**
+   * Constructor.
+   *
+   * @param sampleInterval One in this many invocations is timed.
+   */
+  ListenerGuard(int sampleInterval) {
+    this.sampleInterval = sampleInterval;
+    this.countdown = sampleInterval;
+  }
+
+  /** @return {@code true} if the current invocation should be timed, else {@code false}. */
+  public boolean shouldSample() {
+    if (0 != --countdown) {
+      return false;
+    }
+    countdown = sampleInterval;
+    return true;
+  }
+
+  /**
+   * Records a timed invocation.
+   *
+   * @param start {@link System#nanoTime()} before the invocation.
+   */
+  public void record(long start) {
+    sampledNanos += System.nanoTime() - start;
+  }
+
+  /** @return Estimated time spent in the listener since the last call, in nanoseconds. */
+  long takeEstimatedNanos() {
+    final long estimate = sampledNanos * sampleInterval;
+    sampledNanos = 0L;
+    return estimate;
+  }
+
+  /** @return Number of consecutive ticks over budget after the new strike. */
+  int strike() {
+    return ++strikes;
+  }
+
+  /** Resets the consecutive ticks over budget. */
+  void clearStrikes() {
+    strikes = 0;
+  }
+
+  /** @return {@code true} if the listener is quarantined, else {@code false}. */
+  boolean isQuarantined() {
+    return 0L <= quarantinedUntil;
+  }
+
+  /** @return Tick at which the quarantine ends, or {@code -1} if not quarantined. */
+  long getQuarantinedUntil() {
+    return quarantinedUntil;
+  }
+
+  /**
+   * Quarantines the listener.
+   *
+   * @param untilTick Tick at which the quarantine ends.
+   */
+  void quarantine(long untilTick) {
+    quarantinedUntil = untilTick;
+    strikes = 0;
+  }
+
+  /** Ends the quarantine of the listener. */
+  void restore() {
+    quarantinedUntil = -1L;
+    sampledNanos = 0L;
+  }
+}
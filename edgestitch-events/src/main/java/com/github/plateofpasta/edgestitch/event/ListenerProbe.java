@@ -0,0 +1,132 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.event;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import net.minecraft.util.ActionResult;
+import net.minecraft.util.TypedActionResult;
+
+/**
+ * Measurements of a single listener for {@link ListenerProfiler}, split into one recorder per
+ * calling thread so recording never contends. Public because the wrappers generated by {@link
+ * InvokerGenerator} call it; not meant to be used directly.
+ */
+public final class ListenerProbe {
+  private final String eventName;
+  private final String listenerName;
+  private final boolean countCancellations;
+  private final Queue<Recorder> recorders = new ConcurrentLinkedQueue<>();
+  private final ThreadLocal<Recorder> local =
+      ThreadLocal.withInitial(
+          () -> {
+            final Recorder recorder = new Recorder();
+            recorders.add(recorder);
+            return recorder;
+          });
+
+  /**
+   * Constructor.
+   *
+   * @param eventName Name of the event the listener is registered to.
+   * @param listenerName Name of the listener.
+   * @param countCancellations {@code false} for MONITOR listeners, whose verdict is ignored.
+   */
+  ListenerProbe(String eventName, String listenerName, boolean countCancellations) {
+    this.eventName = eventName;
+    this.listenerName = listenerName;
+    this.countCancellations = countCancellations;
+  }
+
+  /**
+   * Records an invocation that returned nothing or a primitive.
+   *
+   * @param start {@link System#nanoTime()} before the invocation.
+   */
+  public void record(long start) {
+    final long elapsed = System.nanoTime() - start;
+    final Recorder recorder = local.get();
+    recorder.histogram.record(elapsed);
+    recorder.totalNanos += elapsed;
+  }
+
+  /**
+   * Records an invocation that returned an object, counting it as a cancellation if it is a
+   * verdict other than PASS.
+   *
+   * @param start {@link System#nanoTime()} before the invocation.
+   * @param result Returned value of the listener.
+   */
+  public void record(long start, Object result) {
+    final long elapsed = System.nanoTime() - start;
+    final Recorder recorder = local.get();
+    recorder.histogram.record(elapsed);
+    recorder.totalNanos += elapsed;
+    if (countCancellations && isCancellation(result)) {
+      ++recorder.cancellations;
+    }
+  }
+
+  /** @return Merged measurements of every thread. */
+  ListenerProfile snapshot() {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    long cancellations = 0;
+    long totalNanos = 0;
+    for (Recorder recorder : recorders) {
+      histogram.add(recorder.histogram);
+      cancellations += recorder.cancellations;
+      totalNanos += recorder.totalNanos;
+    }
+    return new ListenerProfile(
+        eventName,
+        listenerName,
+        histogram.getCount(),
+        cancellations,
+        totalNanos,
+        histogram.getValueAtPercentile(99.0));
+  }
+
+  /**
+   * Checks if the result of a listener cancels the event.
+   *
+   * @param result Returned value of the listener.
+   * @return {@code true} if the result is a verdict other than PASS, else {@code false}.
+   */
+  private static boolean isCancellation(Object result) {
+    if (result instanceof ActionResult) {
+      return ActionResult.PASS != result;
+    } else if (result instanceof TypedActionResult) {
+      return ActionResult.PASS != ((TypedActionResult<?>) result).getResult();
+    }
+    return false;
+  }
+
+  /** Measurements of a single listener on a single thread. */
+  private static final class Recorder {
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private long cancellations;
+    private long totalNanos;
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.event;
+
+/** Snapshot of the measurements of a single listener, see {@link ListenerProfiler}. */
+public final class ListenerProfile {
+  private final String eventName;
+  private final String listenerName;
+  private final long calls;
+  private final long cancellations;
+  private final long totalNanos;
+  private final long p99Nanos;
+
+  /**
+   * Constructor.
+   *
+   * @param eventName Name of the event the listener is registered to.
+   * @param listenerName Name of the listener class.
+   * @param calls Number of invocations.
+   * @param cancellations Number of invocations that returned a verdict other than PASS.
+   * @param totalNanos Total time spent in the listener.
+   * @param p99Nanos 99th percentile latency of the listener.
+   */
+  ListenerProfile(
+      String eventName,
+      String listenerName,
+      long calls,
+      long cancellations,
+      long totalNanos,
+      long p99Nanos) {
+    this.eventName = eventName;
+    this.listenerName = listenerName;
+    this.calls = calls;
+    this.cancellations = cancellations;
+    this.totalNanos = totalNanos;
+    this.p99Nanos = p99Nanos;
+  }
+
+  /** @return Name of the event the listener is registered to. */
+  public String getEventName() {
+    return eventName;
+  }
+
+  /** @return Name of the listener class, or of the class declaring the listener lambda. */
+  public String getListenerName() {
+    return listenerName;
+  }
+
+  /** @return Number of invocations. */
+  public long getCalls() {
+    return calls;
+  }
+
+  /** @return Number of invocations that returned a verdict other than PASS. */
+  public long getCancellations() {
+    return cancellations;
+  }
+
+  /** @return Total time spent in the listener in nanoseconds. */
+  public long getTotalNanos() {
+    return totalNanos;
+  }
+
+  /** @return 99th percentile latency of the listener in nanoseconds. */
+  public long getP99Nanos() {
+    return p99Nanos;
+  }
+}
@@ -0,0 +1,156 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.event;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Opt-in instrumentation of every listener of every {@link EdgestitchEvent}, including the
+ * regional and typed listeners invoked on behalf of an event. While profiling, each listener is
+ * wrapped in a class generated by {@link InvokerGenerator} that records its call count,
+ * cancellation count and latency histogram into a {@link ListenerProbe}. While not profiling, the
+ * invokers call the listeners directly and there is no overhead.
+ */
+public final class ListenerProfiler {
+  private static final String LAMBDA_MARKER = "$$Lambda";
+  private static final Object LOCK = new Object();
+  private static Session session;
+  private static boolean running;
+
+  /** Prevent instantiations of this class. */
+  private ListenerProfiler() {}
+
+  /**
+   * Starts a new profiling session, discarding the measurements of the previous session.
+   *
+   * @return {@code true} if the session was started, {@code false} if profiling already runs.
+   */
+  public static boolean start() {
+    synchronized (LOCK) {
+      if (running) {
+        return false;
+      }
+      session = new Session();
+      running = true;
+      EdgestitchEvent.addDecorator(session);
+      return true;
+    }
+  }
+
+  /**
+   * Stops the current profiling session. Its measurements stay available to {@link #dump()}.
+   *
+   * @return {@code true} if the session was stopped, {@code false} if profiling does not run.
+   */
+  public static boolean stop() {
+    synchronized (LOCK) {
+      if (!running) {
+        return false;
+      }
+      running = false;
+      EdgestitchEvent.removeDecorator(session);
+      return true;
+    }
+  }
+
+  /** @return {@code true} if a profiling session is running, else {@code false}. */
+  public static boolean isRunning() {
+    synchronized (LOCK) {
+      return running;
+    }
+  }
+
+  /**
+   * Snapshots the measurements of the current or last session. Measurements of a running session
+   * are read while other threads record, so they may be slightly behind.
+   *
+   * @return Profile of every listener that was invoked at least once.
+   */
+  public static List<ListenerProfile> dump() {
+    final Session current;
+    synchronized (LOCK) {
+      current = session;
+    }
+    return null == current ? Collections.emptyList() : current.snapshot();
+  }
+
+  /**
+   * Gets a readable name for a listener. Lambdas are named after the class that declares them.
+   *
+   * @param listener Listener to name.
+   * @return Listener name.
+   */
+  private static String nameOf(Object listener) {
+    final String name = listener.getClass().getName();
+    final int lambda = name.indexOf(LAMBDA_MARKER);
+    return -1 == lambda ? name : name.substring(0, lambda);
+  }
+
+  /** Decorator of a profiling session, owns the measurements of every listener. */
+  private static final class Session implements EdgestitchEvent.ListenerDecorator {
+    private final Map<EdgestitchEvent<?>, Map<Object, ListenerProbe>> probes = new HashMap<>();
+
+    @Override
+    public <T> T decorate(EdgestitchEvent<T> event, EventPhase phase, T listener, T wrapped) {
+      final Class<T> type = event.getType();
+      if (!InvokerGenerator.isFunctional(type)) {
+        return wrapped;
+      }
+      final ListenerProbe probe;
+      synchronized (probes) {
+        probe =
+            probes
+                .computeIfAbsent(event, key -> new IdentityHashMap<>())
+                .computeIfAbsent(
+                    listener,
+                    key ->
+                        new ListenerProbe(
+                            event.getName(), nameOf(listener), EventPhase.MONITOR != phase));
+      }
+      return InvokerGenerator.generateProfiled(type, wrapped, probe);
+    }
+
+    /** @return Profile of every listener that was invoked at least once. */
+    private List<ListenerProfile> snapshot() {
+      final List<ListenerProfile> profiles = new ArrayList<>();
+      synchronized (probes) {
+        for (Map<Object, ListenerProbe> eventProbes : probes.values()) {
+          for (ListenerProbe probe : eventProbes.values()) {
+            final ListenerProfile profile = probe.snapshot();
+            if (0 != profile.getCalls()) {
+              profiles.add(profile);
+            }
+          }
+        }
+      }
+      return profiles;
+    }
+  }
+}
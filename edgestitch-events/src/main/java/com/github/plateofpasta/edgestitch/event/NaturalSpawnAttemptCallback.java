@@ -0,0 +1,59 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.event;
+
+import com.github.plateofpasta.edgestitch.mixin.MixinSpawnHelper;
+import net.fabricmc.fabric.api.event.Event;
+import net.minecraft.entity.EntityType;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.ActionResult;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.chunk.Chunk;
+
+/**
+ * Callback event for when natural spawning tries a spawn position, before the mob is created.
+ * Cancelling here skips the construction, initialization, equipment and collision checks of the
+ * mob, all of which {@link ServerWorldEvents#ENTITY_SPAWN} would throw away.
+ *
+ * @see MixinSpawnHelper
+ * @see NaturalSpawnChunkCallback
+ */
+@FunctionalInterface
+public interface NaturalSpawnAttemptCallback {
+  Event<NaturalSpawnAttemptCallback> EVENT =
+      EdgestitchEventFactory.createGenerated(
+          NaturalSpawnAttemptCallback.class, (world, chunk, entityType, pos) -> ActionResult.PASS);
+
+  /**
+   * Callback for this interface.
+   *
+   * @param world World in which the spawn is attempted.
+   * @param chunk Chunk whose spawn pass is running.
+   * @param entityType Type of the entity that would spawn.
+   * @param pos Position the entity would spawn at. Mutable and reused, copy it to keep it.
+   * @return PASS if the spawn attempt should proceed as normal, else FAIL if it should be skipped.
+   */
+  ActionResult attempt(ServerWorld world, Chunk chunk, EntityType<?> entityType, BlockPos pos);
+}
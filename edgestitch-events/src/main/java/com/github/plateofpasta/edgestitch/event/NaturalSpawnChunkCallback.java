@@ -0,0 +1,54 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.event;
+
+import com.github.plateofpasta.edgestitch.mixin.MixinSpawnHelper;
+import net.fabricmc.fabric.api.event.Event;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.ActionResult;
+import net.minecraft.world.chunk.WorldChunk;
+
+/**
+ * Callback event for when natural spawning starts the spawn pass of a chunk. Cancelling skips
+ * every spawn group of the chunk for this tick with a single verdict.
+ *
+ * @see MixinSpawnHelper
+ * @see NaturalSpawnAttemptCallback
+ */
+@FunctionalInterface
+public interface NaturalSpawnChunkCallback {
+  Event<NaturalSpawnChunkCallback> EVENT =
+      EdgestitchEventFactory.createGenerated(
+          NaturalSpawnChunkCallback.class, (world, chunk) -> ActionResult.PASS);
+
+  /**
+   * Callback for this interface.
+   *
+   * @param world World in which the chunk is.
+   * @param chunk Chunk whose spawn pass is starting.
+   * @return PASS if the spawn pass should proceed as normal, else FAIL if it should be skipped.
+   */
+  ActionResult spawnPass(ServerWorld world, WorldChunk chunk);
+}
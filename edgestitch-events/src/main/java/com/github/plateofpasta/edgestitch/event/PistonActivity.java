@@ -0,0 +1,64 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.event;
+
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.registry.RegistryKey;
+import net.minecraft.world.World;
+
+/** Activation rate of a piston. See {@link RedstoneThrottle}. */
+public final class PistonActivity {
+  private final RegistryKey<World> worldKey;
+  private final BlockPos pos;
+  private final double activationsPerSecond;
+
+  /**
+   * Constructor.
+   *
+   * @param worldKey Key of the world of the piston.
+   * @param pos Position of the piston.
+   * @param activationsPerSecond Estimated extensions per second.
+   */
+  PistonActivity(RegistryKey<World> worldKey, BlockPos pos, double activationsPerSecond) {
+    this.worldKey = worldKey;
+    this.pos = pos;
+    this.activationsPerSecond = activationsPerSecond;
+  }
+
+  /** @return Key of the world of the piston. */
+  public RegistryKey<World> getWorldKey() {
+    return worldKey;
+  }
+
+  /** @return Position of the piston. */
+  public BlockPos getPos() {
+    return pos;
+  }
+
+  /** @return Estimated extensions per second over the last second. */
+  public double getActivationsPerSecond() {
+    return activationsPerSecond;
+  }
+}
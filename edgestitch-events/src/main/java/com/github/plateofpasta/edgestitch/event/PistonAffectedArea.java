@@ -0,0 +1,187 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.event;
+
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.longs.LongSets;
+import java.util.List;
+import net.minecraft.block.piston.PistonHandler;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.Direction;
+
+/**
+ * Blocks affected by a piston move: the moved blocks, where they are moved to and the broken
+ * blocks, summarized as the set of chunks they are in and their bounding box. Lets listeners of
+ * {@link PistonEvents#PISTON_EXTEND} and {@link PistonEvents#PISTON_RETRACT} check regions in one
+ * step instead of iterating the block lists of the {@link PistonHandler}.
+ */
+public final class PistonAffectedArea {
+  private final LongSet chunkKeys;
+  private final int minX;
+  private final int minY;
+  private final int minZ;
+  private final int maxX;
+  private final int maxY;
+  private final int maxZ;
+
+  /**
+   * Constructor.
+   *
+   * @param chunkKeys Packed positions of the affected chunks.
+   * @param minX Minimum X coordinate of the affected blocks.
+   * @param minY Minimum Y coordinate of the affected blocks.
+   * @param minZ Minimum Z coordinate of the affected blocks.
+   * @param maxX Maximum X coordinate of the affected blocks.
+   * @param maxY Maximum Y coordinate of the affected blocks.
+   * @param maxZ Maximum Z coordinate of the affected blocks.
+   */
+  private PistonAffectedArea(
+      LongSet chunkKeys, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+    this.chunkKeys = LongSets.unmodifiable(chunkKeys);
+    this.minX = minX;
+    this.minY = minY;
+    this.minZ = minZ;
+    this.maxX = maxX;
+    this.maxY = maxY;
+    this.maxZ = maxZ;
+  }
+
+  /**
+   * Gets the area affected by a piston move, computed once per push.
+   *
+   * @param pistonHandler Handler whose push was calculated.
+   * @return Affected area.
+   */
+  public static PistonAffectedArea of(PistonHandler pistonHandler) {
+    final PistonAffectedAreaHolder holder = (PistonAffectedAreaHolder) pistonHandler;
+    PistonAffectedArea area = holder.getAffectedArea();
+    if (null == area) {
+      area = compute(pistonHandler);
+      holder.setAffectedArea(area);
+    }
+    return area;
+  }
+
+  /**
+   * Computes the area affected by a piston move.
+   *
+   * @param pistonHandler Handler whose push was calculated.
+   * @return Affected area.
+   */
+  private static PistonAffectedArea compute(PistonHandler pistonHandler) {
+    final List<BlockPos> moved = pistonHandler.getMovedBlocks();
+    final List<BlockPos> broken = pistonHandler.getBrokenBlocks();
+    final Direction motion = pistonHandler.getMotionDirection();
+    final LongSet chunkKeys = new LongOpenHashSet();
+    int minX = Integer.MAX_VALUE;
+    int minY = Integer.MAX_VALUE;
+    int minZ = Integer.MAX_VALUE;
+    int maxX = Integer.MIN_VALUE;
+    int maxY = Integer.MIN_VALUE;
+    int maxZ = Integer.MIN_VALUE;
+    final int size = moved.size() + broken.size();
+    for (int i = 0; i < size; ++i) {
+      final BlockPos pos = i < moved.size() ? moved.get(i) : broken.get(i - moved.size());
+      // Moved blocks affect both their position and their destination.
+      final int steps = i < moved.size() ? 1 : 0;
+      for (int step = 0; step <= steps; ++step) {
+        final int x = pos.getX() + step * motion.getOffsetX();
+        final int y = pos.getY() + step * motion.getOffsetY();
+        final int z = pos.getZ() + step * motion.getOffsetZ();
+        chunkKeys.add(ChunkPos.toLong(x >> 4, z >> 4));
+        minX = Math.min(minX, x);
+        minY = Math.min(minY, y);
+        minZ = Math.min(minZ, z);
+        maxX = Math.max(maxX, x);
+        maxY = Math.max(maxY, y);
+        maxZ = Math.max(maxZ, z);
+      }
+    }
+    return new PistonAffectedArea(chunkKeys, minX, minY, minZ, maxX, maxY, maxZ);
+  }
+
+  /** @return {@code true} if no block is moved or broken, else {@code false}. */
+  public boolean isEmpty() {
+    return chunkKeys.isEmpty();
+  }
+
+  /** @return Packed positions of the chunks containing affected blocks, see {@link ChunkPos}. */
+  public LongSet getChunkKeys() {
+    return chunkKeys;
+  }
+
+  /**
+   * Checks if a chunk contains affected blocks.
+   *
+   * @param chunkX X coordinate of the chunk.
+   * @param chunkZ Z coordinate of the chunk.
+   * @return {@code true} if the chunk contains affected blocks, else {@code false}.
+   */
+  public boolean touchesChunk(int chunkX, int chunkZ) {
+    return chunkKeys.contains(ChunkPos.toLong(chunkX, chunkZ));
+  }
+
+  /** @return Bounding box of the affected blocks, {@code null} if none are affected. */
+  public BlockBox getBounds() {
+    return isEmpty() ? null : new BlockBox(minX, minY, minZ, maxX, maxY, maxZ);
+  }
+
+  /**
+   * Checks if any affected block may be within a box.
+   *
+   * @param box Box to check, inclusive.
+   * @return {@code true} if the bounding box of the affected blocks intersects the box, else
+   *     {@code false}.
+   */
+  public boolean intersects(BlockBox box) {
+    return !isEmpty()
+        && maxX >= box.minX
+        && minX <= box.maxX
+        && maxY >= box.minY
+        && minY <= box.maxY
+        && maxZ >= box.minZ
+        && minZ <= box.maxZ;
+  }
+
+  /**
+   * Checks if every affected block is within a box.
+   *
+   * @param box Box to check, inclusive.
+   * @return {@code true} if the bounding box of the affected blocks is within the box, else
+   *     {@code false}.
+   */
+  public boolean isWithin(BlockBox box) {
+    return isEmpty()
+        || (minX >= box.minX
+            && maxX <= box.maxX
+            && minY >= box.minY
+            && maxY <= box.maxY
+            && minZ >= box.minZ
+            && maxZ <= box.maxZ);
+  }
+}
@@ -25,7 +25,6 @@
 package com.github.plateofpasta.edgestitch.event;
 
 import net.fabricmc.fabric.api.event.Event;
-import net.fabricmc.fabric.api.event.EventFactory;
 import net.minecraft.block.piston.PistonHandler;
 import net.minecraft.util.ActionResult;
 import net.minecraft.util.math.BlockPos;
@@ -34,32 +33,25 @@ import net.minecraft.world.World;
 
 public class PistonEvents {
   public static final Event<PistonExtendCallback> PISTON_EXTEND =
-      EventFactory.createArrayBacked(
+      EdgestitchEventFactory.createGenerated(
           PistonExtendCallback.class,
-          (listeners) ->
-              (world, pistonPos, facingDir, pistonHandler) -> {
-                for (PistonExtendCallback event : listeners) {
-                  ActionResult result = event.extend(world, pistonPos, facingDir, pistonHandler);
-                  if (result != ActionResult.PASS) {
-                    return result;
-                  }
-                }
-                return ActionResult.PASS;
-              });
+          (world, pistonPos, facingDir, pistonHandler) -> ActionResult.PASS);
 
   public static final Event<PistonRetract> PISTON_RETRACT =
-      EventFactory.createArrayBacked(
+      EdgestitchEventFactory.createGenerated(
           PistonRetract.class,
-          (listeners) ->
-              (world, pistonPos, facingDir, pistonHandler) -> {
-                for (PistonRetract event : listeners) {
-                  ActionResult result = event.retract(world, pistonPos, facingDir, pistonHandler);
-                  if (result != ActionResult.PASS) {
-                    return result;
-                  }
-                }
-                return ActionResult.PASS;
-              });
+          (world, pistonPos, facingDir, pistonHandler) -> ActionResult.PASS);
+
+  /**
+   * Fired when vanilla decides whether to queue a piston move, before it computes the push of an
+   * extension. Listeners that only need the piston position and facing should veto here, so a
+   * cancelled move costs no push computation. Extensions queued by other means are checked before
+   * they are performed instead, see {@link PistonMoveChecks}.
+   */
+  public static final Event<PistonPreMoveCallback> PISTON_PRE_MOVE =
+      EdgestitchEventFactory.createGenerated(
+          PistonPreMoveCallback.class,
+          (world, pistonPos, facingDir, extend) -> ActionResult.PASS);
 
   /** Prevent instantiations of this class. */
   private PistonEvents() {}
@@ -73,7 +65,8 @@ public class PistonEvents {
      * @param world World in which the piston exists.
      * @param pistonPos Block position of the piston body.
      * @param facingDir Direction the piston is facing.
-     * @param pistonHandler Handler used to calculate the list of blocks that may be moved.
+     * @param pistonHandler Handler used to calculate the list of blocks that may be moved, see
+     *     {@link PistonAffectedArea#of} for the chunks and bounds of the affected blocks.
      * @return PASS if the piston extension should proceed as normal, else FAIL if the piston
      *     movement should be canceled.
      */
@@ -89,11 +82,30 @@ public class PistonEvents {
      * @param world World in which the piston exists.
      * @param pistonPos Block position of the piston body.
      * @param facingDir Direction the piston is facing.
-     * @param pistonHandler Handler used to calculate the list of blocks that may be moved.
+     * @param pistonHandler Handler used to calculate the list of blocks that may be moved, see
+     *     {@link PistonAffectedArea#of} for the chunks and bounds of the affected blocks.
      * @return PASS if the piston extension should proceed as normal, else FAIL if the piston
      *     movement should be canceled.
      */
     ActionResult retract(
         World world, BlockPos pistonPos, Direction facingDir, PistonHandler pistonHandler);
   }
+
+  /** Event handler for before a piston extends or retracts. */
+  @FunctionalInterface
+  public interface PistonPreMoveCallback {
+    /**
+     * Callback for this interface. Retractions are checked every time vanilla tries to queue them,
+     * and a vetoed retraction leaves the piston extended. Sticky pulls of retractions that were
+     * already queued are not checked, the client has been told about them.
+     *
+     * @param world World in which the piston exists.
+     * @param pistonPos Block position of the piston body.
+     * @param facingDir Direction the piston is facing.
+     * @param extend {@code true} if the piston is extending, {@code false} if it is retracting.
+     * @return PASS if the piston movement should proceed as normal, else FAIL if the piston
+     *     movement should be canceled.
+     */
+    ActionResult preMove(World world, BlockPos pistonPos, Direction facingDir, boolean extend);
+  }
 }
@@ -0,0 +1,105 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.event;
+
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import java.util.HashMap;
+import java.util.Map;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.registry.RegistryKey;
+import net.minecraft.world.World;
+
+/**
+ * Remembers the piston extensions that passed {@link PistonEvents#PISTON_PRE_MOVE} when vanilla
+ * decided to queue them, so the block event that performs the extension is not checked a second
+ * time. A pass stays valid until the end of the next tick, because block events queued after a
+ * world processed its block events are only processed on the next tick.
+ *
+ * <p>Only used on the server thread.
+ */
+public final class PistonMoveChecks {
+  /** Stale passes are only pruned once a world has this many. */
+  private static final int PRUNE_SIZE = 256;
+  private static final long NONE = Long.MIN_VALUE;
+  private static final Map<RegistryKey<World>, Long2LongOpenHashMap> PASSED = new HashMap<>();
+
+  /** Prevent instantiations of this class. */
+  private PistonMoveChecks() {}
+
+  /**
+   * @param world World in which the piston exists.
+   * @param pistonPos Block position of the piston body.
+   * @return Whether an extension of the piston passed the pre-move check and is still pending.
+   */
+  public static boolean isPassed(World world, BlockPos pistonPos) {
+    final Long2LongOpenHashMap passed = PASSED.get(world.getRegistryKey());
+    return null != passed && isValid(passed.get(pistonPos.asLong()), world.getTime());
+  }
+
+  /**
+   * Records that an extension of the piston passed the pre-move check.
+   *
+   * @param world World in which the piston exists.
+   * @param pistonPos Block position of the piston body.
+   */
+  public static void pass(World world, BlockPos pistonPos) {
+    final Long2LongOpenHashMap passed =
+        PASSED.computeIfAbsent(
+            world.getRegistryKey(),
+            key -> {
+              final Long2LongOpenHashMap map = new Long2LongOpenHashMap();
+              map.defaultReturnValue(NONE);
+              return map;
+            });
+    final long time = world.getTime();
+    if (passed.size() >= PRUNE_SIZE) {
+      // Block events can be dropped, for example when the piston lost power in the meantime.
+      passed.long2LongEntrySet().removeIf(entry -> !isValid(entry.getLongValue(), time));
+    }
+    passed.put(pistonPos.asLong(), time);
+  }
+
+  /**
+   * Removes the pass of a piston extension that is being performed.
+   *
+   * @param world World in which the piston exists.
+   * @param pistonPos Block position of the piston body.
+   * @return Whether the extension passed the pre-move check when it was queued.
+   */
+  public static boolean consume(World world, BlockPos pistonPos) {
+    final Long2LongOpenHashMap passed = PASSED.get(world.getRegistryKey());
+    return null != passed && isValid(passed.remove(pistonPos.asLong()), world.getTime());
+  }
+
+  /**
+   * @param passTime Time of a pass, {@link #NONE} if there is none.
+   * @param time Current time of the world.
+   * @return Whether the pass is from this or the previous tick.
+   */
+  private static boolean isValid(long passTime, long time) {
+    // Passes from the future belong to a world that was replaced by one with the same key.
+    return passTime >= time - 1 && passTime <= time;
+  }
+}
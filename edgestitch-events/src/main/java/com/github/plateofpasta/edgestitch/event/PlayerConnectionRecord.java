@@ -0,0 +1,69 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.event;
+
+import java.util.UUID;
+
+/** Copy of a player connection or disconnection, published by {@link AsyncEvents}. */
+public final class PlayerConnectionRecord {
+  private String playerName;
+  private UUID playerUuid;
+  private boolean connected;
+  private long timeMillis;
+
+  /**
+   * Overwrites this slot.
+   *
+   * @param playerName Name of the player.
+   * @param playerUuid UUID of the player.
+   * @param connected {@code true} if the player connected, {@code false} if they disconnected.
+   */
+  void set(String playerName, UUID playerUuid, boolean connected) {
+    this.playerName = playerName;
+    this.playerUuid = playerUuid;
+    this.connected = connected;
+    this.timeMillis = System.currentTimeMillis();
+  }
+
+  /** @return Name of the player. */
+  public String getPlayerName() {
+    return playerName;
+  }
+
+  /** @return UUID of the player. */
+  public UUID getPlayerUuid() {
+    return playerUuid;
+  }
+
+  /** @return {@code true} if the player connected, {@code false} if they disconnected. */
+  public boolean isConnected() {
+    return connected;
+  }
+
+  /** @return Wall clock time of the event in milliseconds. */
+  public long getTimeMillis() {
+    return timeMillis;
+  }
+}
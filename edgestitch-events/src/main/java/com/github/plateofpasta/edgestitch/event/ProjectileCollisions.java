@@ -0,0 +1,117 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.event;
+
+import com.github.plateofpasta.edgestitch.mixin.MixinProjectileEntity;
+import com.github.plateofpasta.edgestitch.mixin.MixinThrownEntity;
+import net.minecraft.entity.projectile.ProjectileEntity;
+import net.minecraft.entity.projectile.thrown.ThrownEntity;
+import net.minecraft.util.ActionResult;
+import net.minecraft.util.hit.HitResult;
+
+/**
+ * Single collision pipeline for projectiles. The collision of a thrown entity runs the listeners
+ * of {@link ThrownEntityCollisionVerdictCallback} and then those of {@link
+ * ProjectileHitVerdictCallback} with the possibly modified hit result, in one dispatch that shares
+ * its out-parameter. The hit result is then applied with the collision marked as dispatched, so
+ * the projectile hook does not invoke its listeners a second time. Other projectiles only run the
+ * projectile listeners.
+ *
+ * @see MixinThrownEntity
+ * @see MixinProjectileEntity
+ */
+public final class ProjectileCollisions {
+  private static final ThreadLocal<EventReturnValue<HitResult>> RETURN_VALUE =
+      EventReturnValue.perThread();
+
+  /** Prevent instantiations of this class. */
+  private ProjectileCollisions() {}
+
+  /** @return {@code true} if any listener is notified of projectile hits, else {@code false}. */
+  public static boolean hasProjectileListeners() {
+    return EdgestitchEvent.hasListeners(ProjectileHitVerdictCallback.EVENT)
+        || EdgestitchEvent.hasListeners(ProjectileHitCallback.EVENT);
+  }
+
+  /**
+   * @return {@code true} if any listener is notified of thrown entity collisions, including the
+   *     projectile listeners, else {@code false}.
+   */
+  public static boolean hasThrownListeners() {
+    return EdgestitchEvent.hasListeners(ThrownEntityCollisionVerdictCallback.EVENT)
+        || EdgestitchEvent.hasListeners(ThrownEntityCollisionCallback.EVENT)
+        || hasProjectileListeners();
+  }
+
+  /**
+   * Dispatches the collision of a thrown entity to the thrown entity and then the projectile
+   * listeners. A listener failing the collision skips the remaining listeners.
+   *
+   * @param thrownEntity Colliding entity.
+   * @param hitResult Hit result computed by vanilla.
+   * @return Hit result to apply, or {@code null} if the entity should be removed instead.
+   */
+  public static HitResult dispatchThrown(ThrownEntity thrownEntity, HitResult hitResult) {
+    HitResult current = hitResult;
+    if (EdgestitchEvent.hasListeners(ThrownEntityCollisionVerdictCallback.EVENT)
+        || EdgestitchEvent.hasListeners(ThrownEntityCollisionCallback.EVENT)) {
+      final EventReturnValue<HitResult> returnValue = RETURN_VALUE.get();
+      final HitResult outer = returnValue.swap(hitResult);
+      final ActionResult result =
+          ThrownEntityCollisionVerdictCallback.EVENT
+              .invoker()
+              .onCollision(thrownEntity, hitResult, returnValue);
+      final HitResult modified = returnValue.swap(outer);
+      if (ActionResult.FAIL == result) {
+        return null;
+      } else if (ActionResult.PASS != result) {
+        current = modified;
+      }
+    }
+    return dispatchProjectile(thrownEntity, current);
+  }
+
+  /**
+   * Dispatches the hit of a projectile to the projectile listeners.
+   *
+   * @param projectileEntity Projectile hitting something.
+   * @param hitResult Current hit result.
+   * @return Hit result to apply.
+   */
+  public static HitResult dispatchProjectile(
+      ProjectileEntity projectileEntity, HitResult hitResult) {
+    if (!hasProjectileListeners()) {
+      return hitResult;
+    }
+    final EventReturnValue<HitResult> returnValue = RETURN_VALUE.get();
+    final HitResult outer = returnValue.swap(hitResult);
+    final ActionResult result =
+        ProjectileHitVerdictCallback.EVENT
+            .invoker()
+            .onHit(projectileEntity, hitResult, returnValue);
+    final HitResult modified = returnValue.swap(outer);
+    return ActionResult.PASS != result ? modified : hitResult;
+  }
+}
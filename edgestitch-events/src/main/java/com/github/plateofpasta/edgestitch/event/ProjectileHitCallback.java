@@ -26,22 +26,23 @@ package com.github.plateofpasta.edgestitch.event;
 
 import com.github.plateofpasta.edgestitch.mixin.MixinProjectileEntity;
 import net.fabricmc.fabric.api.event.Event;
-import net.fabricmc.fabric.api.event.EventFactory;
 import net.minecraft.entity.projectile.ProjectileEntity;
 import net.minecraft.util.ActionResult;
 import net.minecraft.util.TypedActionResult;
 import net.minecraft.util.hit.HitResult;
 
 /**
- * Fabric API event interface for when a {@link ProjectileEntity} hits something.
+ * Fabric API event interface for when a {@link ProjectileEntity} hits something. Prefer {@link
+ * ProjectileHitVerdictCallback}, which does not allocate a result for every hit.
  *
  * @see MixinProjectileEntity
  */
 @FunctionalInterface
 public interface ProjectileHitCallback {
   Event<ProjectileHitCallback> EVENT =
-      EventFactory.createArrayBacked(
+      EdgestitchEventFactory.createArrayBacked(
           ProjectileHitCallback.class,
+          LegacyEventAdapters.NO_PROJECTILE_HIT_LISTENERS,
           (listeners) ->
               (projectileEntity, hitResult) -> {
                 for (ProjectileHitCallback event : listeners) {
@@ -0,0 +1,62 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.event;
+
+import com.github.plateofpasta.edgestitch.mixin.MixinProjectileEntity;
+import net.fabricmc.fabric.api.event.Event;
+import net.minecraft.entity.projectile.ProjectileEntity;
+import net.minecraft.util.ActionResult;
+import net.minecraft.util.hit.HitResult;
+
+/**
+ * Allocation free variant of {@link ProjectileHitCallback}. The modified hit result is written to
+ * the given {@link EventReturnValue} instead of being returned in a {@link
+ * net.minecraft.util.TypedActionResult}. Listeners of {@link ProjectileHitCallback} are invoked
+ * after the listeners of this event.
+ *
+ * @see MixinProjectileEntity
+ */
+@FunctionalInterface
+public interface ProjectileHitVerdictCallback {
+  Event<ProjectileHitVerdictCallback> EVENT =
+      EdgestitchEventFactory.createGenerated(
+          ProjectileHitVerdictCallback.class,
+          LegacyEventAdapters::onHit,
+          LegacyEventAdapters::onHit);
+
+  /**
+   * Callback for this interface.
+   *
+   * @param projectileEntity Projectile that hit something.
+   * @param hitResult Current projectile hit result.
+   * @param returnValue Out-parameter for the hit result to inject when the verdict is not PASS.
+   * @return PASS if the current hit result should be used, else FAIL if the hit result written to
+   *     returnValue should be injected.
+   */
+  ActionResult onHit(
+      ProjectileEntity projectileEntity,
+      HitResult hitResult,
+      EventReturnValue<HitResult> returnValue);
+}
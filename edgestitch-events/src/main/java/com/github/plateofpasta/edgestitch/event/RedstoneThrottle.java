@@ -0,0 +1,224 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.event;
+
+import it.unimi.dsi.fastutil.longs.Long2DoubleMap;
+import it.unimi.dsi.fastutil.longs.Long2DoubleMaps;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.ActionResult;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.util.registry.RegistryKey;
+import net.minecraft.world.World;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Detects fast piston clocks. Every piston extension is counted per position in an {@link
+ * ActivityTable} through {@link PistonEvents#PISTON_PRE_MOVE}, and pistons extending faster than a
+ * threshold are throttled or stopped. The pre-move check runs before vanilla computes the push to
+ * decide whether to queue an extension, so a throttled pulse does not walk the pushed blocks.
+ *
+ * <p>Only used on the server thread.
+ */
+public final class RedstoneThrottle {
+  /** Key of the {@link Mode} in the config file. */
+  public static final String MODE_KEY = "redstone.piston.mode";
+  /** Key of the threshold in extensions per second in the config file. */
+  public static final String THRESHOLD_KEY = "redstone.piston.threshold";
+  /** Default threshold in extensions per second. */
+  public static final double DEFAULT_THRESHOLD = 10.0;
+
+  private static final Logger LOGGER = LogManager.getLogger();
+  /** Rates are per second. */
+  private static final int WINDOW_TICKS = 20;
+  /** Slots per world, enough for the active pistons of a busy world. */
+  private static final int TABLE_CAPACITY = 4096;
+  /** Minimum rate reported by {@link #top}. */
+  private static final double MIN_REPORTED_RATE = 0.5;
+  private static final Map<RegistryKey<World>, ActivityTable> TABLES = new HashMap<>();
+  private static Mode mode = Mode.OFF;
+  private static double threshold = DEFAULT_THRESHOLD;
+  private static long cancelled;
+  private static boolean registered;
+
+  /** Prevent instantiations of this class. */
+  private RedstoneThrottle() {}
+
+  /** @return Current mode. */
+  public static Mode getMode() {
+    return mode;
+  }
+
+  /**
+   * Sets the mode.
+   *
+   * @param mode New mode, {@link Mode#OFF} stops tracking and forgets every rate.
+   */
+  public static void setMode(Mode mode) {
+    RedstoneThrottle.mode = mode;
+    if (Mode.OFF == mode) {
+      TABLES.clear();
+    } else if (!registered) {
+      registered = true;
+      ((EdgestitchEvent<PistonEvents.PistonPreMoveCallback>) PistonEvents.PISTON_PRE_MOVE)
+          .register(EventPhase.EARLY, RedstoneThrottle::onPreMove);
+    }
+  }
+
+  /** @return Extensions per second above which pistons are throttled or stopped. */
+  public static double getThreshold() {
+    return threshold;
+  }
+
+  /**
+   * Sets the threshold.
+   *
+   * @param threshold Extensions per second above which pistons are throttled or stopped.
+   */
+  public static void setThreshold(double threshold) {
+    if (!(threshold > 0.0)) {
+      throw new IllegalArgumentException("threshold must be positive");
+    }
+    RedstoneThrottle.threshold = threshold;
+  }
+
+  /** @return Number of piston extensions cancelled since the server started. */
+  public static long getCancelled() {
+    return cancelled;
+  }
+
+  /**
+   * Loads the mode and threshold from the config file.
+   *
+   * @param properties Contents of the config file.
+   */
+  public static void loadConfig(Properties properties) {
+    try {
+      final String value = properties.getProperty(THRESHOLD_KEY);
+      if (null != value) {
+        setThreshold(Double.parseDouble(value.trim()));
+      }
+    } catch (IllegalArgumentException e) {
+      LOGGER.warn("Ignoring invalid {}: {}", THRESHOLD_KEY, e.getMessage());
+    }
+    try {
+      final String value = properties.getProperty(MODE_KEY);
+      if (null != value) {
+        setMode(Mode.valueOf(value.trim().toUpperCase(Locale.ROOT)));
+      }
+    } catch (IllegalArgumentException e) {
+      LOGGER.warn("Ignoring invalid {}: {}", MODE_KEY, e.getMessage());
+    }
+  }
+
+  /**
+   * Gets the fastest pistons.
+   *
+   * @param worlds Worlds to report.
+   * @param count Maximum number of pistons.
+   * @return Fastest pistons of the worlds, fastest first.
+   */
+  public static List<PistonActivity> top(Iterable<ServerWorld> worlds, int count) {
+    final List<PistonActivity> all = new ArrayList<>();
+    for (ServerWorld world : worlds) {
+      final ActivityTable table = TABLES.get(world.getRegistryKey());
+      if (null == table) {
+        continue;
+      }
+      for (Long2DoubleMap.Entry entry :
+          Long2DoubleMaps.fastIterable(table.snapshot(world.getTime(), MIN_REPORTED_RATE))) {
+        all.add(
+            new PistonActivity(
+                world.getRegistryKey(),
+                BlockPos.fromLong(entry.getLongKey()),
+                entry.getDoubleValue()));
+      }
+    }
+    all.sort(Comparator.comparingDouble(PistonActivity::getActivationsPerSecond).reversed());
+    return all.subList(0, Math.min(count, all.size()));
+  }
+
+  /**
+   * Counts a piston extension, and vetoes it if the piston is too fast.
+   *
+   * @param world World in which the piston exists.
+   * @param pistonPos Block position of the piston body.
+   * @param facingDir Ignored.
+   * @param extend {@code true} if the piston is extending.
+   * @return FAIL if the piston is throttled, else PASS.
+   */
+  private static ActionResult onPreMove(
+      World world, BlockPos pistonPos, Direction facingDir, boolean extend) {
+    // Only extensions are counted, a clock cycle extends once.
+    if (Mode.OFF == mode || !extend || world.isClient) {
+      return ActionResult.PASS;
+    }
+    final ActivityTable table =
+        TABLES.computeIfAbsent(
+            world.getRegistryKey(), key -> new ActivityTable(TABLE_CAPACITY, WINDOW_TICKS));
+    final long key = pistonPos.asLong();
+    final long tick = world.getTime();
+    switch (mode) {
+      case THROTTLE:
+        // Only extensions that happen are counted, so the piston keeps running at the threshold.
+        if (table.rate(key, tick) + 1.0 > threshold) {
+          ++cancelled;
+          return ActionResult.FAIL;
+        }
+        table.hit(key, tick);
+        return ActionResult.PASS;
+      case CANCEL:
+        // Every attempt is counted, so a clock faster than the threshold stays stopped.
+        if (table.hit(key, tick) > threshold) {
+          ++cancelled;
+          return ActionResult.FAIL;
+        }
+        return ActionResult.PASS;
+      default:
+        table.hit(key, tick);
+        return ActionResult.PASS;
+    }
+  }
+
+  /** What happens to pistons extending faster than the threshold. */
+  public enum Mode {
+    /** Nothing is tracked. */
+    OFF,
+    /** Rates are tracked for {@code /edgestitch redstone top}, nothing is cancelled. */
+    MONITOR,
+    /** Extensions over the threshold are cancelled, the piston keeps running at the threshold. */
+    THROTTLE,
+    /** Every extension is cancelled while attempts exceed the threshold. */
+    CANCEL
+  }
+}
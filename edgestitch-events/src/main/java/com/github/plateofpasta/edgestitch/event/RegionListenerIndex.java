@@ -0,0 +1,253 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.event;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.registry.RegistryKey;
+import net.minecraft.world.World;
+
+/**
+ * Chunk keyed index of listeners that only care about a bounded area of one world. Each listener
+ * is registered with the world and the cuboid it covers and is stored under the packed chunk key
+ * of every chunk the cuboid intersects, so a lookup for a position outside of every registered
+ * area is a single primitive map probe.
+ *
+ * <p>Listeners are invoked on behalf of an {@link EdgestitchEvent}, in its NORMAL phase, so they
+ * are wrapped by the decorators of that event like its own listeners, e.g. while profiling.
+ *
+ * <p>Registration is copy-on-write and intended to happen rarely (e.g. at startup or when a claim
+ * is created or deleted). Lookups never lock.
+ *
+ * @param <T> Listener type.
+ */
+public final class RegionListenerIndex<T> {
+  private final EdgestitchEvent<T> event;
+  private volatile Map<RegistryKey<World>, Long2ObjectOpenHashMap<Entry<T>[]>> index =
+      new HashMap<>();
+
+  /**
+   * Constructor.
+   *
+   * @param event Event the listeners are invoked on behalf of.
+   */
+  public RegionListenerIndex(EdgestitchEvent<T> event) {
+    this.event = event;
+    event.addRefreshHook(this::redecorate);
+  }
+
+  /**
+   * Registers a listener for the cuboid between the two corners (inclusive).
+   *
+   * @param world World the listener covers.
+   * @param bounds Block bounds the listener covers.
+   * @param listener Listener to invoke for positions within the bounds.
+   * @return Entry of the listener, to pass to {@link #unregister(Entry)}.
+   */
+  public synchronized Entry<T> register(RegistryKey<World> world, BlockBox bounds, T listener) {
+    final Entry<T> entry = new Entry<>(world, bounds, listener);
+    entry.invoked = event.decorate(EventPhase.NORMAL, listener);
+    final Map<RegistryKey<World>, Long2ObjectOpenHashMap<Entry<T>[]>> copy = new HashMap<>(index);
+    final Long2ObjectOpenHashMap<Entry<T>[]> existingChunks = copy.get(world);
+    final Long2ObjectOpenHashMap<Entry<T>[]> chunks =
+        (null == existingChunks)
+            ? new Long2ObjectOpenHashMap<>()
+            : new Long2ObjectOpenHashMap<>(existingChunks);
+    for (int chunkX = bounds.minX >> 4; chunkX <= bounds.maxX >> 4; ++chunkX) {
+      for (int chunkZ = bounds.minZ >> 4; chunkZ <= bounds.maxZ >> 4; ++chunkZ) {
+        final long key = ChunkPos.toLong(chunkX, chunkZ);
+        final Entry<T>[] existing = chunks.get(key);
+        final Entry<T>[] updated =
+            (null == existing) ? newArray(1) : Arrays.copyOf(existing, existing.length + 1);
+        updated[updated.length - 1] = entry;
+        chunks.put(key, updated);
+      }
+    }
+    copy.put(world, chunks);
+    index = copy;
+    return entry;
+  }
+
+  /**
+   * Registers a listener for every block of the chunks between the two chunk positions
+   * (inclusive).
+   *
+   * @param world World the listener covers.
+   * @param min Chunk with the lowest X and Z coordinates.
+   * @param max Chunk with the highest X and Z coordinates.
+   * @param listener Listener to invoke for positions within the chunks.
+   * @return Entry of the listener, to pass to {@link #unregister(Entry)}.
+   */
+  public Entry<T> register(RegistryKey<World> world, ChunkPos min, ChunkPos max, T listener) {
+    return register(
+        world,
+        new BlockBox(min.getStartX(), 0, min.getStartZ(), max.getEndX(), 255, max.getEndZ()),
+        listener);
+  }
+
+  /**
+   * Unregisters a listener, e.g. when the claim it guards is deleted. Does nothing if the entry
+   * was already unregistered.
+   *
+   * @param entry Entry returned when the listener was registered.
+   */
+  public synchronized void unregister(Entry<T> entry) {
+    final Long2ObjectOpenHashMap<Entry<T>[]> existingChunks = index.get(entry.world);
+    if (null == existingChunks) {
+      return;
+    }
+    final Long2ObjectOpenHashMap<Entry<T>[]> chunks = new Long2ObjectOpenHashMap<>(existingChunks);
+    final BlockBox bounds = entry.bounds;
+    for (int chunkX = bounds.minX >> 4; chunkX <= bounds.maxX >> 4; ++chunkX) {
+      for (int chunkZ = bounds.minZ >> 4; chunkZ <= bounds.maxZ >> 4; ++chunkZ) {
+        final long key = ChunkPos.toLong(chunkX, chunkZ);
+        final Entry<T>[] existing = chunks.get(key);
+        final int i = (null == existing) ? -1 : Arrays.asList(existing).indexOf(entry);
+        if (-1 == i) {
+          continue;
+        }
+        if (1 == existing.length) {
+          chunks.remove(key);
+          continue;
+        }
+        final Entry<T>[] updated = newArray(existing.length - 1);
+        System.arraycopy(existing, 0, updated, 0, i);
+        System.arraycopy(existing, i + 1, updated, i, updated.length - i);
+        chunks.put(key, updated);
+      }
+    }
+    final Map<RegistryKey<World>, Long2ObjectOpenHashMap<Entry<T>[]>> copy = new HashMap<>(index);
+    if (chunks.isEmpty()) {
+      copy.remove(entry.world);
+    } else {
+      copy.put(entry.world, chunks);
+    }
+    index = copy;
+  }
+
+  /** Wraps every listener again with the current decorators of the event. */
+  private synchronized void redecorate() {
+    for (Long2ObjectOpenHashMap<Entry<T>[]> chunks : index.values()) {
+      for (Entry<T>[] entries : chunks.values()) {
+        for (Entry<T> entry : entries) {
+          entry.invoked = event.decorate(EventPhase.NORMAL, entry.listener);
+        }
+      }
+    }
+  }
+
+  /** @return {@code true} if no listener is registered, else {@code false}. */
+  public boolean isEmpty() {
+    return index.isEmpty();
+  }
+
+  /**
+   * Gets the listeners registered for the chunk containing the position. Callers must still check
+   * {@link Entry#contains(BlockPos)} since a cuboid may only partially cover the chunk.
+   *
+   * @param world World of the position.
+   * @param pos Block position being looked up.
+   * @return Entries for the chunk, or {@code null} if no listener covers the chunk.
+   */
+  public Entry<T>[] get(RegistryKey<World> world, BlockPos pos) {
+    final Long2ObjectOpenHashMap<Entry<T>[]> chunks = index.get(world);
+    return (null == chunks) ? null : chunks.get(ChunkPos.toLong(pos.getX() >> 4, pos.getZ() >> 4));
+  }
+
+  /**
+   * Creates a typed entry array.
+   *
+   * @param length Length of the array.
+   * @return New array.
+   */
+  @SuppressWarnings("unchecked")
+  private Entry<T>[] newArray(int length) {
+    return (Entry<T>[]) Array.newInstance(Entry.class, length);
+  }
+
+  /**
+   * A listener and the world and bounds it was registered with.
+   *
+   * @param <T> Listener type.
+   */
+  public static final class Entry<T> {
+    private final RegistryKey<World> world;
+    private final BlockBox bounds;
+    private final T listener;
+    private volatile T invoked;
+
+    /**
+     * Constructor.
+     *
+     * @param world World the listener covers.
+     * @param bounds Block bounds the listener covers.
+     * @param listener Listener.
+     */
+    private Entry(RegistryKey<World> world, BlockBox bounds, T listener) {
+      this.world = world;
+      this.bounds = bounds;
+      this.listener = listener;
+    }
+
+    /**
+     * Checks if the position is within the registered bounds.
+     *
+     * @param pos Block position.
+     * @return {@code true} if the listener covers the position, else {@code false}.
+     */
+    public boolean contains(BlockPos pos) {
+      return bounds.contains(pos);
+    }
+
+    /** @return World of this entry. */
+    public RegistryKey<World> getWorld() {
+      return world;
+    }
+
+    /** @return Bounds of this entry. */
+    public BlockBox getBounds() {
+      return bounds;
+    }
+
+    /** @return Listener of this entry, as registered. */
+    public T getListener() {
+      return listener;
+    }
+
+    /**
+     * @return Listener to invoke, wrapped by the decorators of the event, or {@code null} if a
+     *     decorator skips it.
+     */
+    public T getInvoked() {
+      return invoked;
+    }
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.event;
+
+import it.unimi.dsi.fastutil.longs.Long2ByteLinkedOpenHashMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import net.minecraft.util.ActionResult;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.registry.RegistryKey;
+import net.minecraft.world.World;
+
+/**
+ * Bounded memoization of event verdicts keyed by player, world and chunk section. Only the sections
+ * of the world a player was last looked up in are kept, so changing dimensions drops a player's
+ * cached verdicts instead of reusing them for the same coordinates in another world. Entries are
+ * invalidated in bulk by bumping the generation with {@link #invalidate()}, which listeners must do
+ * whenever the rules their verdicts are derived from change (e.g. a claim is resized or a player is
+ * trusted).
+ *
+ * <p>Only accessed from the server thread.
+ */
+public final class SectionDecisionCache {
+  private static final byte MISSING = -1;
+  private static final ActionResult[] RESULTS = ActionResult.values();
+
+  private final Map<UUID, PlayerSections> players = new HashMap<>();
+  private final int maxSectionsPerPlayer;
+  private int generation = 0;
+  private long hits = 0;
+  private long misses = 0;
+
+  /**
+   * Constructor.
+   *
+   * @param maxSectionsPerPlayer Maximum number of cached sections per player before the least
+   *     recently used section is evicted.
+   */
+  public SectionDecisionCache(int maxSectionsPerPlayer) {
+    this.maxSectionsPerPlayer = maxSectionsPerPlayer;
+  }
+
+  /**
+   * Gets the cached verdict for the player at the section containing the position.
+   *
+   * @param player UUID of the player.
+   * @param world Key of the world containing the position.
+   * @param pos Block position within the section.
+   * @return Cached verdict, or {@code null} if there is no valid cached verdict.
+   */
+  public ActionResult get(UUID player, RegistryKey<World> world, BlockPos pos) {
+    final PlayerSections sections = players.get(player);
+    if (null == sections || sections.generation != generation || sections.world != world) {
+      ++misses;
+      return null;
+    }
+    final byte cached = sections.verdicts.getAndMoveToLast(sectionKey(pos));
+    if (MISSING == cached) {
+      ++misses;
+      return null;
+    }
+    ++hits;
+    return RESULTS[cached];
+  }
+
+  /**
+   * Caches a verdict for the player at the section containing the position.
+   *
+   * @param player UUID of the player.
+   * @param world Key of the world containing the position.
+   * @param pos Block position within the section.
+   * @param result Verdict to cache.
+   */
+  public void put(UUID player, RegistryKey<World> world, BlockPos pos, ActionResult result) {
+    final PlayerSections sections = players.computeIfAbsent(player, uuid -> new PlayerSections());
+    if (sections.generation != generation || sections.world != world) {
+      sections.verdicts.clear();
+      sections.generation = generation;
+      sections.world = world;
+    }
+    if (sections.verdicts.size() >= maxSectionsPerPlayer) {
+      sections.verdicts.removeFirstByte();
+    }
+    sections.verdicts.putAndMoveToLast(sectionKey(pos), (byte) result.ordinal());
+  }
+
+  /** Invalidates every cached verdict. */
+  public void invalidate() {
+    ++generation;
+  }
+
+  /**
+   * Removes all cached verdicts of a player, e.g. when they disconnect, respawn or change
+   * dimension.
+   *
+   * @param player UUID of the player.
+   */
+  public void evict(UUID player) {
+    players.remove(player);
+  }
+
+  /** @return Number of lookups that were served from the cache. */
+  public long getHits() {
+    return hits;
+  }
+
+  /** @return Number of lookups that were not served from the cache. */
+  public long getMisses() {
+    return misses;
+  }
+
+  /**
+   * Packs the section of a block position.
+   *
+   * @param pos Block position.
+   * @return Packed chunk section position.
+   */
+  private static long sectionKey(BlockPos pos) {
+    return ChunkSectionPos.asLong(pos.getX() >> 4, pos.getY() >> 4, pos.getZ() >> 4);
+  }
+
+  /** Cached verdicts of a single player. */
+  private static final class PlayerSections {
+    private final Long2ByteLinkedOpenHashMap verdicts = new Long2ByteLinkedOpenHashMap();
+    private int generation;
+    private RegistryKey<World> world;
+
+    /** Constructor. */
+    private PlayerSections() {
+      verdicts.defaultReturnValue(MISSING);
+    }
+  }
+}
@@ -27,7 +27,6 @@ package com.github.plateofpasta.edgestitch.event;
 import com.github.plateofpasta.edgestitch.mixin.MixinPlayerManager;
 import com.github.plateofpasta.edgestitch.mixin.MixinServerPlayerEntity;
 import net.fabricmc.fabric.api.event.Event;
-import net.fabricmc.fabric.api.event.EventFactory;
 import net.minecraft.entity.ItemEntity;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.item.ItemStack;
@@ -37,28 +36,19 @@ import net.minecraft.util.TypedActionResult;
 /** Events related to {@link net.minecraft.server.network.ServerPlayerEntity}. */
 public class ServerPlayerEvents {
   public static final Event<ServerPlayerConnectCallback> PLAYER_CONNECT =
-      EventFactory.createArrayBacked(
+      EdgestitchEventFactory.createGenerated(
           ServerPlayerConnectCallback.class,
-          (listeners) ->
-              (playerName) -> {
-                for (ServerPlayerConnectCallback event : listeners) {
-                  event.connect(playerName);
-                }
-              });
+          (playerName) -> {});
 
   public static final Event<ServerPlayerDisconnectCallback> PLAYER_DISCONNECT =
-      EventFactory.createArrayBacked(
+      EdgestitchEventFactory.createGenerated(
           ServerPlayerDisconnectCallback.class,
-          (listeners) ->
-              (playerName) -> {
-                for (ServerPlayerDisconnectCallback event : listeners) {
-                  event.disconnect(playerName);
-                }
-              });
+          (playerName) -> {});
 
   public static final Event<ServerPlayerDropItemCallback> PLAYER_DROP_ITEM =
-      EventFactory.createArrayBacked(
+      EdgestitchEventFactory.createArrayBacked(
           ServerPlayerDropItemCallback.class,
+          LegacyEventAdapters.NO_DROP_LISTENERS,
           (listeners) ->
               (playerEntity, stack) -> {
                 for (ServerPlayerDropItemCallback event : listeners) {
@@ -68,9 +58,19 @@ public class ServerPlayerEvents {
                     return result;
                   }
                 }
-                return TypedActionResult.pass(null);
+                return LegacyEventAdapters.PASS_DROP;
               });
 
+  /**
+   * Allocation free variant of {@link #PLAYER_DROP_ITEM}. Listeners of {@link #PLAYER_DROP_ITEM}
+   * are invoked after the listeners of this event.
+   */
+  public static final Event<ServerPlayerDropItemVerdictCallback> PLAYER_DROP_ITEM_VERDICT =
+      EdgestitchEventFactory.createGenerated(
+          ServerPlayerDropItemVerdictCallback.class,
+          LegacyEventAdapters::drop,
+          LegacyEventAdapters::drop);
+
   /** Prevent instantiations of this class. */
   private ServerPlayerEvents() {}
 
@@ -122,4 +122,25 @@ public class ServerPlayerEvents {
      */
     TypedActionResult<ItemEntity> drop(PlayerEntity playerEntity, ItemStack stack);
   }
+
+  /**
+   * Allocation free variant of {@link ServerPlayerDropItemCallback}.
+   *
+   * @see MixinServerPlayerEntity
+   */
+  @FunctionalInterface
+  public interface ServerPlayerDropItemVerdictCallback {
+    /**
+     * Callback for this interface.
+     *
+     * @param playerEntity Player dropping the item.
+     * @param stack Item stack being dropped.
+     * @param returnValue Out-parameter for the ItemEntity returned when the verdict is not PASS.
+     *     Defaults to {@code null}.
+     * @return PASS if the drop should proceed, else FAIL if the target method should return early
+     *     with the value written to returnValue.
+     */
+    ActionResult drop(
+        PlayerEntity playerEntity, ItemStack stack, EventReturnValue<ItemEntity> returnValue);
+  }
 }
@@ -26,7 +26,6 @@ package com.github.plateofpasta.edgestitch.event;
 
 import com.github.plateofpasta.edgestitch.mixin.MixinServerWorld;
 import net.fabricmc.fabric.api.event.Event;
-import net.fabricmc.fabric.api.event.EventFactory;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.util.ActionResult;
@@ -37,23 +36,28 @@ import net.minecraft.world.World;
 /** Events related to {@link net.minecraft.server.world.ServerWorld}. */
 public class ServerWorldEvents {
   public static final Event<ServerWorldCanPlayerModifyCallback> PLAYER_MODIFY =
-      EventFactory.createArrayBacked(
+      EdgestitchEventFactory.createGenerated(
           ServerWorldCanPlayerModifyCallback.class,
-          (listeners) ->
-              (player, pos) -> {
-                for (ServerWorldCanPlayerModifyCallback event : listeners) {
-                  ActionResult result = event.modifyAt(player, pos);
+          (player, pos) -> ActionResult.PASS);
 
-                  if (result != ActionResult.PASS) {
-                    return result;
-                  }
-                }
-                return ActionResult.PASS;
-              });
+  /**
+   * Same as {@link #PLAYER_MODIFY}, but for listeners whose verdict only depends on the player and
+   * the chunk section of the position. Verdicts of this event are memoized in {@link
+   * #PLAYER_MODIFY_CACHE}, so listeners must call {@link SectionDecisionCache#invalidate()}
+   * whenever their regions or trust lists change. Invoked after {@link #PLAYER_MODIFY}.
+   */
+  public static final Event<ServerWorldCanPlayerModifyCallback> PLAYER_MODIFY_SECTION =
+      EdgestitchEventFactory.createGenerated(
+          ServerWorldCanPlayerModifyCallback.class,
+          (player, pos) -> ActionResult.PASS);
+
+  /** Memoized verdicts of {@link #PLAYER_MODIFY_SECTION}. */
+  public static final SectionDecisionCache PLAYER_MODIFY_CACHE = new SectionDecisionCache(256);
 
   public static final Event<ServerWorldSpawnEntityCallback> ENTITY_SPAWN =
-      EventFactory.createArrayBacked(
+      EdgestitchEventFactory.createArrayBacked(
           ServerWorldSpawnEntityCallback.class,
+          LegacyEventAdapters.NO_SPAWN_LISTENERS,
           (listeners) ->
               (world, entity) -> {
                 for (ServerWorldSpawnEntityCallback event : listeners) {
@@ -62,9 +66,42 @@ public class ServerWorldEvents {
                     return result;
                   }
                 }
-                return TypedActionResult.pass(true);
+                return LegacyEventAdapters.PASS_SPAWN;
               });
 
+  /**
+   * Allocation free variant of {@link #ENTITY_SPAWN}. Listeners of {@link #ENTITY_SPAWN} are
+   * invoked after the listeners of this event.
+   */
+  public static final Event<ServerWorldSpawnEntityVerdictCallback> ENTITY_SPAWN_VERDICT =
+      EdgestitchEventFactory.createGenerated(
+          ServerWorldSpawnEntityVerdictCallback.class,
+          LegacyEventAdapters::spawnEvent,
+          LegacyEventAdapters::spawnEvent);
+
+  /**
+   * Listeners of {@link #ENTITY_SPAWN_VERDICT} that are only invoked for some entity types. While
+   * the other spawn events have no listeners, item, experience orb or projectile spawns only pay
+   * for {@link EntityTypeListenerIndex#hasListeners(Entity)}. Invoked in the phase they were
+   * registered to, together with the listeners of {@link #ENTITY_SPAWN_VERDICT}.
+   */
+  @SuppressWarnings("unchecked")
+  public static final EntityTypeListenerIndex<ServerWorldSpawnEntityVerdictCallback>
+      ENTITY_SPAWN_BY_TYPE =
+          new EntityTypeListenerIndex<>(
+              ServerWorldSpawnEntityVerdictCallback.class,
+              (EdgestitchEvent<ServerWorldSpawnEntityVerdictCallback>) ENTITY_SPAWN_VERDICT,
+              (typed) ->
+                  (world, entity, returnValue) -> {
+                    for (ServerWorldSpawnEntityVerdictCallback listener : typed.apply(entity)) {
+                      final ActionResult result = listener.spawnEvent(world, entity, returnValue);
+                      if (ActionResult.PASS != result) {
+                        return result;
+                      }
+                    }
+                    return ActionResult.PASS;
+                  });
+
   /** Prevent instantiations of this class. */
   private ServerWorldEvents() {}
 
@@ -102,4 +139,24 @@ public class ServerWorldEvents {
      */
     TypedActionResult<Boolean> spawnEvent(World world, Entity entity);
   }
+
+  /**
+   * Allocation free variant of {@link ServerWorldSpawnEntityCallback}.
+   *
+   * @see MixinServerWorld
+   */
+  @FunctionalInterface
+  public interface ServerWorldSpawnEntityVerdictCallback {
+    /**
+     * Callback for this interface.
+     *
+     * @param world World entity is being spawned in.
+     * @param entity Entity being spawned.
+     * @param returnValue Out-parameter for the value spawnEntity returns when the verdict is not
+     *     PASS. Defaults to {@code false}.
+     * @return PASS if the function should continue operation, else FAIL if the injected function
+     *     should return early with the Boolean value written to returnValue.
+     */
+    ActionResult spawnEvent(World world, Entity entity, EventReturnValue<Boolean> returnValue);
+  }
 }
@@ -26,22 +26,23 @@ package com.github.plateofpasta.edgestitch.event;
 
 import com.github.plateofpasta.edgestitch.mixin.MixinThrownEntity;
 import net.fabricmc.fabric.api.event.Event;
-import net.fabricmc.fabric.api.event.EventFactory;
 import net.minecraft.entity.projectile.thrown.ThrownEntity;
 import net.minecraft.util.ActionResult;
 import net.minecraft.util.TypedActionResult;
 import net.minecraft.util.hit.HitResult;
 
 /**
- * Fabric API event interface for when a {@link ThrownEntity} hits something.
+ * Fabric API event interface for when a {@link ThrownEntity} hits something. Prefer {@link
+ * ThrownEntityCollisionVerdictCallback}, which does not allocate a result for every collision.
  *
  * @see MixinThrownEntity
  */
 @FunctionalInterface
 public interface ThrownEntityCollisionCallback {
   Event<ThrownEntityCollisionCallback> EVENT =
-      EventFactory.createArrayBacked(
+      EdgestitchEventFactory.createArrayBacked(
           ThrownEntityCollisionCallback.class,
+          LegacyEventAdapters.NO_THROWN_COLLISION_LISTENERS,
           (listeners) ->
               (thrownEntity, hitResult) -> {
                 for (ThrownEntityCollisionCallback event : listeners) {
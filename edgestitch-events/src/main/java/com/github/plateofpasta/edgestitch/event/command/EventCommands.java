@@ -0,0 +1,74 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.event.command;
+
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import net.fabricmc.fabric.api.command.v1.CommandRegistrationCallback;
+import net.minecraft.server.command.CommandManager;
+import net.minecraft.server.command.ServerCommandSource;
+
+/** Handles initializing and registering the Edgestitch events commands. */
+public final class EventCommands {
+  public static final String EDGESTITCH_COMMANDS_NAMESPACE = "edgestitch";
+  /** Permission level required to run the commands. */
+  private static final int OPERATOR_LEVEL = 4;
+
+  /** Prevent instantiations of this class. */
+  private EventCommands() {}
+
+  /** Registers the commands under the {@code /edgestitch} literal. */
+  public static void init() {
+    // Build commands. The root literal is shared with other Edgestitch modules and Brigadier keeps
+    // the requirement of whichever root was registered first, so each command carries its own.
+    final LiteralArgumentBuilder<ServerCommandSource> builder =
+        CommandManager.literal(EDGESTITCH_COMMANDS_NAMESPACE)
+            // Profile command.
+            .then(ProfileCommand.build().requires(EventCommands::isOperator))
+            // Entities command.
+            .then(EntitiesCommand.build().requires(EventCommands::isOperator))
+            // Fluids command.
+            .then(FluidsCommand.build().requires(EventCommands::isOperator))
+            // Redstone command.
+            .then(RedstoneCommand.build().requires(EventCommands::isOperator))
+            // Hoppers command.
+            .then(HoppersCommand.build().requires(EventCommands::isOperator));
+
+    // Register commands.
+    CommandRegistrationCallback.EVENT.register(
+        (dispatcher, dedicated) -> {
+          if (dedicated) {
+            dispatcher.register(builder);
+          }
+        });
+  }
+
+  /**
+   * @param source Source running a command.
+   * @return Whether the source may run the commands.
+   */
+  private static boolean isOperator(ServerCommandSource source) {
+    return source.hasPermissionLevel(OPERATOR_LEVEL);
+  }
+}
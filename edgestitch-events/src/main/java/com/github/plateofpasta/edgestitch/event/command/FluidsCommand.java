@@ -0,0 +1,113 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.event.command;
+
+import com.github.plateofpasta.edgestitch.event.ChunkFlowMetrics;
+import com.github.plateofpasta.edgestitch.event.FluidThrottle;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+import java.util.List;
+import java.util.stream.Collectors;
+import net.minecraft.server.command.CommandManager;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.text.LiteralText;
+import net.minecraft.util.math.ChunkPos;
+
+/**
+ * {@code /edgestitch fluids top [count]}. Reports the loaded chunks with the most flows deferred by
+ * the {@link FluidThrottle}.
+ */
+final class FluidsCommand {
+  static final String NAMESPACE = "fluids";
+  static final String TOP_NAMESPACE = "top";
+  static final String ARG0_NAMESPACE = "count";
+  private static final int DEFAULT_COUNT = 5;
+
+  /** Prevent instantiations of this class. */
+  private FluidsCommand() {}
+
+  /** @return Builder of the fluids command. */
+  static LiteralArgumentBuilder<ServerCommandSource> build() {
+    return CommandManager.literal(NAMESPACE)
+        .then(
+            CommandManager.literal(TOP_NAMESPACE)
+                .executes(context -> top(context, DEFAULT_COUNT))
+                .then(
+                    CommandManager.argument(ARG0_NAMESPACE, IntegerArgumentType.integer(1))
+                        .executes(
+                            context ->
+                                top(
+                                    context,
+                                    IntegerArgumentType.getInteger(context, ARG0_NAMESPACE)))));
+  }
+
+  /**
+   * Reports the most throttled chunks.
+   *
+   * @param context Context for the command.
+   * @param count Maximum number of chunks.
+   * @return {@code 0} if success, else {@code -1}.
+   */
+  private static int top(CommandContext<ServerCommandSource> context, int count) {
+    final ServerCommandSource source = context.getSource();
+    if (!FluidThrottle.isEnabled()) {
+      source.sendError(
+          new LiteralText(
+              "Fluid throttling is disabled, set " + FluidThrottle.BUDGET_KEY + " to enable it."));
+      return -1;
+    }
+    final List<ChunkFlowMetrics> top = FluidThrottle.top(count);
+    if (top.isEmpty()) {
+      source.sendError(new LiteralText("No fluid flows were deferred."));
+      return -1;
+    }
+    source.sendFeedback(
+        new LiteralText(
+            "Top chunks by deferred fluid flows:\n"
+                + top.stream().map(FluidsCommand::format).collect(Collectors.joining("\n"))),
+        false);
+    return 0;
+  }
+
+  /**
+   * Formats the metrics of a single chunk.
+   *
+   * @param metrics Metrics to format.
+   * @return Formatted metrics.
+   */
+  private static String format(ChunkFlowMetrics metrics) {
+    final ChunkPos pos = metrics.getChunkPos();
+    return String.format(
+        "%s [%d, %d] (blocks %d, %d): deferred=%d overloadedTicks=%d",
+        metrics.getWorldKey().getValue(),
+        pos.x,
+        pos.z,
+        pos.getStartX(),
+        pos.getStartZ(),
+        metrics.getDeferred(),
+        metrics.getOverloadedTicks());
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.event.command;
+
+import com.github.plateofpasta.edgestitch.event.HopperSleep;
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+import net.minecraft.server.command.CommandManager;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.text.LiteralText;
+
+/** {@code /edgestitch hoppers sleep}. Reports how many hoppers the {@link HopperSleep} skips. */
+final class HoppersCommand {
+  static final String NAMESPACE = "hoppers";
+  static final String SLEEP_NAMESPACE = "sleep";
+
+  /** Prevent instantiations of this class. */
+  private HoppersCommand() {}
+
+  /** @return Builder of the hoppers command. */
+  static LiteralArgumentBuilder<ServerCommandSource> build() {
+    return CommandManager.literal(NAMESPACE)
+        .then(CommandManager.literal(SLEEP_NAMESPACE).executes(HoppersCommand::sleep));
+  }
+
+  /**
+   * Reports the sleeping and active hoppers of the last tick.
+   *
+   * @param context Context for the command.
+   * @return {@code 0} if success, else {@code -1}.
+   */
+  private static int sleep(CommandContext<ServerCommandSource> context) {
+    final ServerCommandSource source = context.getSource();
+    if (!HopperSleep.isEnabled()) {
+      source.sendError(
+          new LiteralText(
+              "Hopper sleep is disabled, set " + HopperSleep.IDLE_ATTEMPTS_KEY + " to enable it."));
+      return -1;
+    }
+    source.sendFeedback(
+        new LiteralText(
+            String.format(
+                "Hoppers last tick: sleeping=%d active=%d, since start: sleeps=%d wakes=%d",
+                HopperSleep.getSleepingLastTick(),
+                HopperSleep.getActiveLastTick(),
+                HopperSleep.getSleeps(),
+                HopperSleep.getWakes())),
+        false);
+    return 0;
+  }
+}
@@ -0,0 +1,163 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.event.command;
+
+import com.github.plateofpasta.edgestitch.event.ListenerProfile;
+import com.github.plateofpasta.edgestitch.event.ListenerProfiler;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+import net.minecraft.server.command.CommandManager;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.text.LiteralText;
+
+/**
+ * {@code /edgestitch profile start|stop|dump [count]}. Controls the {@link ListenerProfiler} and
+ * reports the listeners with the highest total time and the highest 99th percentile latency.
+ */
+final class ProfileCommand {
+  static final String NAMESPACE = "profile";
+  static final String START_NAMESPACE = "start";
+  static final String STOP_NAMESPACE = "stop";
+  static final String DUMP_NAMESPACE = "dump";
+  static final String ARG0_NAMESPACE = "count";
+  private static final int DEFAULT_COUNT = 5;
+  private static final double NANOS_PER_MILLI = 1_000_000.0;
+  private static final double NANOS_PER_MICRO = 1_000.0;
+
+  /** Prevent instantiations of this class. */
+  private ProfileCommand() {}
+
+  /** @return Builder of the profile command. */
+  static LiteralArgumentBuilder<ServerCommandSource> build() {
+    return CommandManager.literal(NAMESPACE)
+        .then(CommandManager.literal(START_NAMESPACE).executes(ProfileCommand::start))
+        .then(CommandManager.literal(STOP_NAMESPACE).executes(ProfileCommand::stop))
+        .then(
+            CommandManager.literal(DUMP_NAMESPACE)
+                .executes(context -> dump(context, DEFAULT_COUNT))
+                .then(
+                    CommandManager.argument(ARG0_NAMESPACE, IntegerArgumentType.integer(1))
+                        .executes(
+                            context ->
+                                dump(
+                                    context,
+                                    IntegerArgumentType.getInteger(context, ARG0_NAMESPACE)))));
+  }
+
+  /**
+   * Starts profiling.
+   *
+   * @param context Context for the command.
+   * @return {@code 0} if success, else {@code -1}.
+   */
+  private static int start(CommandContext<ServerCommandSource> context) {
+    if (!ListenerProfiler.start()) {
+      context.getSource().sendError(new LiteralText("Listener profiling is already running."));
+      return -1;
+    }
+    context.getSource().sendFeedback(new LiteralText("Started listener profiling."), true);
+    return 0;
+  }
+
+  /**
+   * Stops profiling.
+   *
+   * @param context Context for the command.
+   * @return {@code 0} if success, else {@code -1}.
+   */
+  private static int stop(CommandContext<ServerCommandSource> context) {
+    if (!ListenerProfiler.stop()) {
+      context.getSource().sendError(new LiteralText("Listener profiling is not running."));
+      return -1;
+    }
+    context.getSource().sendFeedback(new LiteralText("Stopped listener profiling."), true);
+    return 0;
+  }
+
+  /**
+   * Reports the top listeners of the current or last profiling session.
+   *
+   * @param context Context for the command.
+   * @param count Number of listeners per ranking.
+   * @return {@code 0} if success, else {@code -1}.
+   */
+  private static int dump(CommandContext<ServerCommandSource> context, int count) {
+    final ServerCommandSource source = context.getSource();
+    final List<ListenerProfile> profiles = ListenerProfiler.dump();
+    if (profiles.isEmpty()) {
+      source.sendError(new LiteralText("No listener invocations were recorded."));
+      return -1;
+    }
+    source.sendFeedback(
+        new LiteralText(
+            "Top listeners by total time:\n"
+                + top(profiles, count, ListenerProfile::getTotalNanos)),
+        false);
+    source.sendFeedback(
+        new LiteralText(
+            "Top listeners by p99:\n" + top(profiles, count, ListenerProfile::getP99Nanos)),
+        false);
+    return 0;
+  }
+
+  /**
+   * Formats the listeners ranking highest by a measurement.
+   *
+   * @param profiles Profiles to rank.
+   * @param count Maximum number of listeners.
+   * @param key Measurement to rank by.
+   * @return One line per listener.
+   */
+  private static String top(
+      List<ListenerProfile> profiles, int count, ToLongFunction<ListenerProfile> key) {
+    return profiles.stream()
+        .sorted(Comparator.comparingLong(key).reversed())
+        .limit(count)
+        .map(ProfileCommand::format)
+        .collect(Collectors.joining("\n"));
+  }
+
+  /**
+   * Formats a single listener profile.
+   *
+   * @param profile Profile to format.
+   * @return Formatted profile.
+   */
+  private static String format(ListenerProfile profile) {
+    return String.format(
+        "%s %s: calls=%d cancels=%d total=%.3fms p99=%.1fus",
+        profile.getEventName(),
+        profile.getListenerName(),
+        profile.getCalls(),
+        profile.getCancellations(),
+        profile.getTotalNanos() / NANOS_PER_MILLI,
+        profile.getP99Nanos() / NANOS_PER_MICRO);
+  }
+}
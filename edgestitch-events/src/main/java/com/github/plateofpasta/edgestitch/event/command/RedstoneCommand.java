@@ -0,0 +1,116 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.event.command;
+
+import com.github.plateofpasta.edgestitch.event.PistonActivity;
+import com.github.plateofpasta.edgestitch.event.RedstoneThrottle;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+import java.util.List;
+import java.util.stream.Collectors;
+import net.minecraft.server.command.CommandManager;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.text.LiteralText;
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * {@code /edgestitch redstone top [count]}. Reports the pistons extending the fastest, as tracked
+ * by the {@link RedstoneThrottle}.
+ */
+final class RedstoneCommand {
+  static final String NAMESPACE = "redstone";
+  static final String TOP_NAMESPACE = "top";
+  static final String ARG0_NAMESPACE = "count";
+  private static final int DEFAULT_COUNT = 5;
+
+  /** Prevent instantiations of this class. */
+  private RedstoneCommand() {}
+
+  /** @return Builder of the redstone command. */
+  static LiteralArgumentBuilder<ServerCommandSource> build() {
+    return CommandManager.literal(NAMESPACE)
+        .then(
+            CommandManager.literal(TOP_NAMESPACE)
+                .executes(context -> top(context, DEFAULT_COUNT))
+                .then(
+                    CommandManager.argument(ARG0_NAMESPACE, IntegerArgumentType.integer(1))
+                        .executes(
+                            context ->
+                                top(
+                                    context,
+                                    IntegerArgumentType.getInteger(context, ARG0_NAMESPACE)))));
+  }
+
+  /**
+   * Reports the fastest pistons.
+   *
+   * @param context Context for the command.
+   * @param count Maximum number of pistons.
+   * @return {@code 0} if success, else {@code -1}.
+   */
+  private static int top(CommandContext<ServerCommandSource> context, int count) {
+    final ServerCommandSource source = context.getSource();
+    if (RedstoneThrottle.Mode.OFF == RedstoneThrottle.getMode()) {
+      source.sendError(
+          new LiteralText(
+              "Piston tracking is disabled, set " + RedstoneThrottle.MODE_KEY + " to enable it."));
+      return -1;
+    }
+    final List<PistonActivity> top =
+        RedstoneThrottle.top(source.getMinecraftServer().getWorlds(), count);
+    if (top.isEmpty()) {
+      source.sendError(new LiteralText("No active pistons."));
+      return -1;
+    }
+    source.sendFeedback(
+        new LiteralText(
+            String.format(
+                    "Top pistons by extensions per second (%s above %.1f, %d cancelled):\n",
+                    RedstoneThrottle.getMode(),
+                    RedstoneThrottle.getThreshold(),
+                    RedstoneThrottle.getCancelled())
+                + top.stream().map(RedstoneCommand::format).collect(Collectors.joining("\n"))),
+        false);
+    return 0;
+  }
+
+  /**
+   * Formats the activity of a single piston.
+   *
+   * @param activity Activity to format.
+   * @return Formatted activity.
+   */
+  private static String format(PistonActivity activity) {
+    final BlockPos pos = activity.getPos();
+    return String.format(
+        "%s [%d, %d, %d]: %.1f/s",
+        activity.getWorldKey().getValue(),
+        pos.getX(),
+        pos.getY(),
+        pos.getZ(),
+        activity.getActivationsPerSecond());
+  }
+}
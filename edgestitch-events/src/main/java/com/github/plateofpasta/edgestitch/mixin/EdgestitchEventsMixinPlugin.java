@@ -0,0 +1,257 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.mixin;
+
+import com.github.plateofpasta.edgestitch.EventsConfig;
+import com.github.plateofpasta.edgestitch.event.EntityLimiter;
+import com.github.plateofpasta.edgestitch.event.FluidFlowSuppression;
+import com.github.plateofpasta.edgestitch.event.FluidThrottle;
+import com.github.plateofpasta.edgestitch.event.HopperSleep;
+import com.github.plateofpasta.edgestitch.event.HopperTransfers;
+import com.github.plateofpasta.edgestitch.event.HopperVerdictCache;
+import com.github.plateofpasta.edgestitch.event.ItemCoalescer;
+import com.github.plateofpasta.edgestitch.event.RedstoneThrottle;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import net.fabricmc.loader.api.FabricLoader;
+import net.fabricmc.loader.api.ModContainer;
+import net.fabricmc.loader.api.metadata.CustomValue;
+import net.fabricmc.loader.api.metadata.ModDependency;
+import net.fabricmc.loader.api.metadata.ModMetadata;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.objectweb.asm.tree.ClassNode;
+import org.spongepowered.asm.mixin.extensibility.IMixinConfigPlugin;
+import org.spongepowered.asm.mixin.extensibility.IMixinInfo;
+
+/**
+ * Mixin config plugin that skips the injections of events nobody consumes. Mods declare the events
+ * they consume in the "custom" object of their fabric.mod.json:
+ *
+ * <pre>
+ * "edgestitch-events": {
+ *   "events": ["fluid_flow", "entity_spawn"]
+ * }
+ * </pre>
+ *
+ * Injections are only skipped if every mod that depends on edgestitch-events declares its events,
+ * so mods that predate the declaration keep working. The injections used by the features enabled
+ * in the config file, such as the fluid throttle or hopper sleep, are always kept.
+ *
+ * <p>The config keys are compile-time constants, so reading them does not load the classes of the
+ * features, and with them Minecraft classes, before the mixins are applied.
+ */
+public class EdgestitchEventsMixinPlugin implements IMixinConfigPlugin {
+  /**
+   * Name of the top level object within the fabric.mod.json "custom" object that contains the
+   * Edgestitch events consumed by a mod.
+   */
+  public static final String CONFIG_NAME_FIELD = "edgestitch-events";
+  /** Name of the array within {@link #CONFIG_NAME_FIELD} that lists the consumed events. */
+  public static final String EVENTS_FIELD = "events";
+  /** Event name that requests every event. */
+  public static final String ALL_EVENTS = "*";
+
+  private static final Logger LOGGER = LogManager.getLogger();
+  private static final Set<String> DEPENDENCY_IDS =
+      new HashSet<>(Arrays.asList("edgestitch-events", "edgestitch"));
+  /** Event names that require each elidable mixin. Mixins not in this map are always applied. */
+  private static final Map<String, Set<String>> MIXIN_EVENTS = new HashMap<>();
+
+  static {
+    mixinEvents("MixinBaseFluid", "fluid_flow");
+    mixinEvents("MixinHopperBlock", "hopper_insert");
+    mixinEvents("MixinHopperBlockEntity", "hopper_insert", "hopper_transfer");
+    mixinEvents("MixinPistonBlock", "piston");
+    mixinEvents("MixinPistonHandler", "piston");
+    mixinEvents("MixinProjectileEntity", "projectile_hit", "thrown_entity_collision");
+    mixinEvents("MixinThrownEntity", "thrown_entity_collision");
+    mixinEvents("MixinPlayerManager", "player_connect", "player_disconnect", "player_modify");
+    mixinEvents("MixinServerPlayerEntity", "player_drop_item", "player_modify");
+    mixinEvents("MixinServerWorld", "entity_spawn", "player_modify", "fluid_flow");
+    mixinEvents("MixinSpawnHelper", "natural_spawn");
+    mixinEvents("MixinWorldHopperWake", "hopper_insert");
+  }
+
+  /** Events consumed by loaded mods, or {@code null} if every mixin must be applied. */
+  private Set<String> requestedEvents = null;
+
+  /**
+   * Registers the event names that require a mixin.
+   *
+   * @param mixinName Simple name of the mixin class.
+   * @param events Event names.
+   */
+  private static void mixinEvents(String mixinName, String... events) {
+    MIXIN_EVENTS.put(mixinName, new HashSet<>(Arrays.asList(events)));
+  }
+
+  /**
+   * Collects the events declared by the mods that depend on edgestitch-events.
+   *
+   * @param mixinPackage Package of the mixins of this config.
+   */
+  @Override
+  public void onLoad(String mixinPackage) {
+    final Set<String> requested = new HashSet<>();
+    boolean hasConsumer = false;
+    for (ModContainer container : FabricLoader.getInstance().getAllMods()) {
+      final ModMetadata metadata = container.getMetadata();
+      if (!dependsOnEvents(metadata)) {
+        continue;
+      }
+      hasConsumer = true;
+      if (!metadata.containsCustomValue(CONFIG_NAME_FIELD)) {
+        // Undeclared consumer, it may rely on any event.
+        return;
+      }
+      final CustomValue.CvObject config = metadata.getCustomValue(CONFIG_NAME_FIELD).getAsObject();
+      if (!config.containsKey(EVENTS_FIELD)) {
+        return;
+      }
+      for (CustomValue event : config.get(EVENTS_FIELD).getAsArray()) {
+        requested.add(event.getAsString());
+      }
+    }
+    if (hasConsumer && !requested.contains(ALL_EVENTS)) {
+      final Set<String> configured = configuredEvents();
+      requested.addAll(configured);
+      requestedEvents = requested;
+      LOGGER.info("Edgestitch events requested by mods: {}", requestedEvents);
+      if (!configured.isEmpty()) {
+        LOGGER.info("Edgestitch events used by the config file: {}", configured);
+      }
+    }
+  }
+
+  /**
+   * Collects the events whose injections are used by the features enabled in the config file. A
+   * feature counts as enabled as soon as one of its keys is set, whatever its value, so a value the
+   * feature rejects keeps an injection rather than skipping one the feature needs.
+   *
+   * @return Events used by the config file.
+   */
+  private static Set<String> configuredEvents() {
+    final Properties config = EventsConfig.read();
+    final Set<String> events = new HashSet<>();
+    if (config.containsKey(FluidThrottle.BUDGET_KEY)
+        || config.containsKey(FluidFlowSuppression.ENABLED_KEY)) {
+      events.add("fluid_flow");
+    }
+    if (config.containsKey(RedstoneThrottle.MODE_KEY)
+        || config.containsKey(RedstoneThrottle.THRESHOLD_KEY)) {
+      events.add("piston");
+    }
+    if (config.containsKey(HopperSleep.IDLE_ATTEMPTS_KEY)
+        || config.containsKey(HopperSleep.MAX_SLEEP_KEY)
+        || config.containsKey(HopperVerdictCache.ENABLED_KEY)) {
+      events.add("hopper_insert");
+    }
+    if (config.containsKey(HopperTransfers.BATCH_KEY)) {
+      events.add("hopper_transfer");
+    }
+    for (String key : config.stringPropertyNames()) {
+      if (key.equals(ItemCoalescer.ENABLED_KEY)
+          || key.equals(EntityLimiter.TRACK_KEY)
+          || key.equals(EntityLimiter.TOTAL_CAP_KEY)
+          || key.startsWith(EntityLimiter.TYPE_CAP_PREFIX)
+          || key.startsWith(EntityLimiter.GROUP_CAP_PREFIX)) {
+        events.add("entity_spawn");
+        events.add("natural_spawn");
+        break;
+      }
+    }
+    return events;
+  }
+
+  /**
+   * Checks if a mod depends on edgestitch-events.
+   *
+   * @param metadata Metadata of the mod.
+   * @return {@code true} if the mod depends on edgestitch-events, else {@code false}.
+   */
+  private static boolean dependsOnEvents(ModMetadata metadata) {
+    for (ModDependency dependency : metadata.getDepends()) {
+      if (DEPENDENCY_IDS.contains(dependency.getModId())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public String getRefMapperConfig() {
+    return null;
+  }
+
+  /**
+   * Applies a mixin if any of its events was requested.
+   *
+   * @param targetClassName Fully qualified name of the target class.
+   * @param mixinClassName Fully qualified name of the mixin class.
+   * @return {@code true} if the mixin should be applied, else {@code false}.
+   */
+  @Override
+  public boolean shouldApplyMixin(String targetClassName, String mixinClassName) {
+    if (null == requestedEvents) {
+      return true;
+    }
+    final String simpleName = mixinClassName.substring(mixinClassName.lastIndexOf('.') + 1);
+    final Set<String> events = MIXIN_EVENTS.get(simpleName);
+    if (null == events || !Collections.disjoint(events, requestedEvents)) {
+      return true;
+    }
+    LOGGER.info("Skipping {}, none of its events were requested", simpleName);
+    return false;
+  }
+
+  @Override
+  public void acceptTargets(Set<String> myTargets, Set<String> otherTargets) {}
+
+  @Override
+  public List<String> getMixins() {
+    return null;
+  }
+
+  @Override
+  public void preApply(
+      String targetClassName,
+      ClassNode targetClass,
+      String mixinClassName,
+      IMixinInfo mixinInfo) {}
+
+  @Override
+  public void postApply(
+      String targetClassName,
+      ClassNode targetClass,
+      String mixinClassName,
+      IMixinInfo mixinInfo) {}
+}
@@ -24,7 +24,11 @@
 
 package com.github.plateofpasta.edgestitch.mixin;
 
+import com.github.plateofpasta.edgestitch.event.EdgestitchEvent;
 import com.github.plateofpasta.edgestitch.event.FluidFlowCallback;
+import com.github.plateofpasta.edgestitch.event.FluidFlowSuppression;
+import com.github.plateofpasta.edgestitch.event.FluidThrottle;
+import com.github.plateofpasta.edgestitch.event.RegionListenerIndex;
 import net.minecraft.block.BlockState;
 import net.minecraft.fluid.FlowableFluid;
 import net.minecraft.fluid.FluidState;
@@ -60,14 +64,101 @@ public abstract class MixinBaseFluid {
       Direction direction,
       FluidState fluidState,
       CallbackInfo info) {
-    // Pass automatically if world is not a World (i.e. ChunkRegion).
+    // Pass automatically if nobody is listening or world is not a World (i.e. ChunkRegion).
+    if (!EdgestitchEvent.hasListeners(FluidFlowCallback.EVENT)
+        && FluidFlowCallback.REGIONAL.isEmpty()
+        && !FluidThrottle.isEnabled()) {
+      return;
+    }
     if (!(world instanceof World)) {
       return;
     }
+    final BlockPos source = pos.offset(direction.getOpposite());
+    FluidFlowSuppression.onFlowAttempt((World) world, source, direction);
+    if (FluidFlowSuppression.isSuppressed((World) world, source, direction)) {
+      info.cancel();
+      return;
+    }
     ActionResult result =
         FluidFlowCallback.EVENT.invoker().flow((World) world, pos, state, direction, fluidState);
+    if (ActionResult.PASS == result) {
+      result = invokeRegional((World) world, pos, state, direction, fluidState);
+    }
     if (ActionResult.PASS != result) {
+      FluidFlowSuppression.suppress((World) world, source, direction);
+    }
+    // Only flows that would happen count against the budget of the chunk.
+    if (ActionResult.PASS != result
+        || (FluidThrottle.isEnabled() && FluidThrottle.defer((World) world, pos, direction))) {
+      info.cancel();
+    }
+  }
+
+  /**
+   * Mixin to skip fluids whose every attempted flow was vetoed before, and to record the directions
+   * the other fluids attempt, see {@link FluidFlowSuppression}.
+   *
+   * @param world World fluid is in.
+   * @param fluidPos Position of the flowing fluid.
+   * @param state State of the fluid.
+   * @param info Mixin callback info.
+   */
+  @Inject(method = "tryFlow", at = @At("HEAD"), cancellable = true)
+  private void tryFlowSuppressionMixin(
+      WorldAccess world, BlockPos fluidPos, FluidState state, CallbackInfo info) {
+    if (!FluidFlowSuppression.isEnabled() || !(world instanceof World)) {
+      return;
+    }
+    if (FluidFlowSuppression.isFullySuppressed((World) world, fluidPos)) {
       info.cancel();
+      return;
+    }
+    FluidFlowSuppression.beginAttempt((World) world, fluidPos);
+  }
+
+  /**
+   * Mixin to remember the directions a fluid attempted to flow in, see {@link
+   * FluidFlowSuppression}.
+   *
+   * @param world World fluid is in.
+   * @param fluidPos Position of the flowing fluid.
+   * @param state Ignored.
+   * @param info Mixin callback info.
+   */
+  @Inject(method = "tryFlow", at = @At("RETURN"))
+  private void tryFlowSuppressionEndMixin(
+      WorldAccess world, BlockPos fluidPos, FluidState state, CallbackInfo info) {
+    if (FluidFlowSuppression.isEnabled() && world instanceof World) {
+      FluidFlowSuppression.endAttempt((World) world, fluidPos);
+    }
+  }
+
+  /**
+   * Invokes the regional listeners covering the position being flowed into.
+   *
+   * @param world World fluid is in.
+   * @param pos Position being flowed into.
+   * @param state Block state being flowed into.
+   * @param direction Direction of flow.
+   * @param fluidState State of the fluid.
+   * @return Result of the first listener that did not PASS, else PASS.
+   */
+  private static ActionResult invokeRegional(
+      World world, BlockPos pos, BlockState state, Direction direction, FluidState fluidState) {
+    RegionListenerIndex.Entry<FluidFlowCallback>[] entries =
+        FluidFlowCallback.REGIONAL.get(world.getRegistryKey(), pos);
+    if (null == entries) {
+      return ActionResult.PASS;
+    }
+    for (RegionListenerIndex.Entry<FluidFlowCallback> entry : entries) {
+      final FluidFlowCallback listener = entry.getInvoked();
+      if (null != listener && entry.contains(pos)) {
+        ActionResult result = listener.flow(world, pos, state, direction, fluidState);
+        if (ActionResult.PASS != result) {
+          return result;
+        }
+      }
     }
+    return ActionResult.PASS;
   }
 }
@@ -0,0 +1,63 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.mixin;
+
+import com.github.plateofpasta.edgestitch.event.HopperSleep;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.HopperBlock;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/** Mixin for waking sleeping hoppers when a neighbour changes, see {@link HopperSleep}. */
+@Mixin(HopperBlock.class)
+public abstract class MixinHopperBlock {
+  /**
+   * Wakes the hopper when one of its neighbours changes.
+   *
+   * @param state Ignored.
+   * @param world World the hopper is in.
+   * @param pos Position of the hopper.
+   * @param block Ignored.
+   * @param fromPos Ignored.
+   * @param notify Ignored.
+   * @param info Mixin callback info.
+   */
+  @Inject(method = "neighborUpdate", at = @At("HEAD"))
+  private void neighborUpdateMixin(
+      BlockState state,
+      World world,
+      BlockPos pos,
+      Block block,
+      BlockPos fromPos,
+      boolean notify,
+      CallbackInfo info) {
+    HopperSleep.wake(world, pos);
+  }
+}
@@ -1,17 +1,250 @@
 package com.github.plateofpasta.edgestitch.mixin;
 
+import com.github.plateofpasta.edgestitch.event.EdgestitchEvent;
 import com.github.plateofpasta.edgestitch.event.HopperInsertCallback;
+import com.github.plateofpasta.edgestitch.event.HopperSleep;
+import com.github.plateofpasta.edgestitch.event.HopperSleeper;
+import com.github.plateofpasta.edgestitch.event.HopperTransfers;
+import com.github.plateofpasta.edgestitch.event.HopperVerdictCache;
+import com.github.plateofpasta.edgestitch.event.HopperVerdictHolder;
+import java.util.function.Supplier;
 import net.minecraft.block.HopperBlock;
+import net.minecraft.block.entity.Hopper;
 import net.minecraft.block.entity.HopperBlockEntity;
+import net.minecraft.entity.Entity;
+import net.minecraft.inventory.Inventory;
+import net.minecraft.item.ItemStack;
 import net.minecraft.util.ActionResult;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.world.World;
 import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.Unique;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.Redirect;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 
 @Mixin(HopperBlockEntity.class)
-public abstract class MixinHopperBlockEntity {
+public abstract class MixinHopperBlockEntity implements HopperVerdictHolder, HopperSleeper {
+  /** Value of {@link #sleepUntil} while the hopper is awake. */
+  @Unique private static final long AWAKE = Long.MIN_VALUE;
+  @Shadow private int transferCooldown;
+  @Unique private HopperVerdictCache.Entry verdictEntry;
+  @Unique private int idleAttempts;
+  @Unique private long sleepUntil = AWAKE;
+
+  @Override
+  public HopperVerdictCache.Entry getVerdictEntry() {
+    return verdictEntry;
+  }
+
+  @Override
+  public void setVerdictEntry(HopperVerdictCache.Entry entry) {
+    verdictEntry = entry;
+  }
+
+  @Override
+  public boolean isSleeping() {
+    return AWAKE != sleepUntil;
+  }
+
+  @Override
+  public void wake() {
+    if (AWAKE != sleepUntil) {
+      HopperSleep.onWake();
+    }
+    sleepUntil = AWAKE;
+    idleAttempts = 0;
+  }
+
+  /**
+   * Mixin that skips the transfers of a sleeping hopper, see {@link HopperSleep}.
+   *
+   * @param extractMethod Ignored.
+   * @param info Callback info.
+   */
+  @Inject(method = "insertAndExtract", at = @At("HEAD"), cancellable = true)
+  private void insertAndExtractSleepMixin(
+      Supplier<Boolean> extractMethod, CallbackInfoReturnable<Boolean> info) {
+    if (!HopperSleep.isEnabled()) {
+      return;
+    }
+    final World world = ((HopperBlockEntity) (Object) this).getWorld();
+    if (null == world || world.isClient) {
+      return;
+    }
+    if (AWAKE != sleepUntil) {
+      if (world.getTime() < sleepUntil) {
+        HopperSleep.onSkipped();
+        info.setReturnValue(false);
+        return;
+      }
+      wake();
+    }
+    HopperSleep.onRan();
+  }
+
+  /**
+   * Mixin that starts tracking the batches moved by a transfer attempt, see {@link
+   * HopperTransfers}.
+   *
+   * @param extractMethod Ignored.
+   * @param info Callback info.
+   */
+  @Inject(method = "insertAndExtract", at = @At("HEAD"))
+  private void insertAndExtractBatchMixin(
+      Supplier<Boolean> extractMethod, CallbackInfoReturnable<Boolean> info) {
+    HopperTransfers.startAttempt();
+  }
+
+  /**
+   * Mixin that stretches the cooldown after a batched transfer, so items move as fast as in
+   * vanilla.
+   *
+   * @param extractMethod Ignored.
+   * @param info Callback info.
+   */
+  @Inject(method = "insertAndExtract", at = @At("RETURN"))
+  private void insertAndExtractCooldownMixin(
+      Supplier<Boolean> extractMethod, CallbackInfoReturnable<Boolean> info) {
+    if (info.getReturnValueZ() && 1 < HopperTransfers.getBatchSize()) {
+      transferCooldown = HopperTransfers.getCooldown();
+    }
+  }
+
+  /**
+   * Mixin that takes a batch out of a slot of this hopper when inserting.
+   *
+   * @param hopper This hopper.
+   * @param slot Slot to take from.
+   * @param amount Number of items vanilla takes.
+   * @return Taken stack.
+   */
+  @Redirect(
+      method = "insert",
+      at =
+          @At(
+              value = "INVOKE",
+              target =
+                  "Lnet/minecraft/block/entity/HopperBlockEntity;removeStack(II)Lnet/minecraft/item/ItemStack;"))
+  private ItemStack insertTakeMixin(HopperBlockEntity hopper, int slot, int amount) {
+    return HopperTransfers.take(hopper, slot, amount, true);
+  }
+
+  /**
+   * Mixin that fires {@link com.github.plateofpasta.edgestitch.event.HopperTransferCallback} when
+   * inserting.
+   *
+   * @param from This hopper.
+   * @param to Inventory the hopper faces.
+   * @param stack Stack taken out of this hopper.
+   * @param side Side of the target inventory.
+   * @return Leftover stack.
+   */
+  @Redirect(
+      method = "insert",
+      at =
+          @At(
+              value = "INVOKE",
+              target =
+                  "Lnet/minecraft/block/entity/HopperBlockEntity;transfer(Lnet/minecraft/inventory/Inventory;Lnet/minecraft/inventory/Inventory;Lnet/minecraft/item/ItemStack;Lnet/minecraft/util/math/Direction;)Lnet/minecraft/item/ItemStack;"))
+  private ItemStack insertTransferMixin(
+      Inventory from, Inventory to, ItemStack stack, Direction side) {
+    return HopperTransfers.transfer(from, to, stack, side);
+  }
+
+  /**
+   * Mixin that takes a batch out of a slot of the inventory above a hopper block when extracting.
+   * Hopper minecarts keep moving single items.
+   *
+   * @param inventory Inventory above the hopper.
+   * @param slot Slot to take from.
+   * @param amount Number of items vanilla takes.
+   * @param hopper Hopper that is extracting.
+   * @param sourceInventory Ignored.
+   * @param sourceSlot Ignored.
+   * @param side Ignored.
+   * @return Taken stack.
+   */
+  @Redirect(
+      method =
+          "extract(Lnet/minecraft/block/entity/Hopper;Lnet/minecraft/inventory/Inventory;ILnet/minecraft/util/math/Direction;)Z",
+      at =
+          @At(
+              value = "INVOKE",
+              target =
+                  "Lnet/minecraft/inventory/Inventory;removeStack(II)Lnet/minecraft/item/ItemStack;"))
+  private static ItemStack extractTakeMixin(
+      Inventory inventory,
+      int slot,
+      int amount,
+      Hopper hopper,
+      Inventory sourceInventory,
+      int sourceSlot,
+      Direction side) {
+    return HopperTransfers.take(inventory, slot, amount, hopper instanceof HopperBlockEntity);
+  }
+
+  /**
+   * Mixin that fires {@link com.github.plateofpasta.edgestitch.event.HopperTransferCallback} when
+   * extracting.
+   *
+   * @param from Inventory above the hopper.
+   * @param to Hopper that is extracting.
+   * @param stack Stack taken out of the inventory above.
+   * @param side Always {@code null}.
+   * @return Leftover stack.
+   */
+  @Redirect(
+      method =
+          "extract(Lnet/minecraft/block/entity/Hopper;Lnet/minecraft/inventory/Inventory;ILnet/minecraft/util/math/Direction;)Z",
+      at =
+          @At(
+              value = "INVOKE",
+              target =
+                  "Lnet/minecraft/block/entity/HopperBlockEntity;transfer(Lnet/minecraft/inventory/Inventory;Lnet/minecraft/inventory/Inventory;Lnet/minecraft/item/ItemStack;Lnet/minecraft/util/math/Direction;)Lnet/minecraft/item/ItemStack;"))
+  private static ItemStack extractTransferMixin(
+      Inventory from, Inventory to, ItemStack stack, Direction side) {
+    return HopperTransfers.transfer(from, to, stack, side);
+  }
+
+  /**
+   * Mixin that puts a hopper to sleep once enough consecutive transfer attempts moved nothing.
+   *
+   * @param extractMethod Ignored.
+   * @param info Callback info.
+   */
+  @Inject(method = "insertAndExtract", at = @At("RETURN"))
+  private void insertAndExtractIdleMixin(
+      Supplier<Boolean> extractMethod, CallbackInfoReturnable<Boolean> info) {
+    final World world = ((HopperBlockEntity) (Object) this).getWorld();
+    if (!HopperSleep.isEnabled() || null == world || world.isClient) {
+      return;
+    }
+    if (info.getReturnValueZ()) {
+      idleAttempts = 0;
+    } else if (transferCooldown <= 0 && ++idleAttempts >= HopperSleep.getIdleAttempts()) {
+      // Attempts refused because of the cooldown are not idle attempts.
+      sleepUntil = world.getTime() + HopperSleep.getMaxSleepTicks();
+      HopperSleep.onSleep();
+    }
+  }
+
+  /**
+   * Mixin that wakes a hopper when an entity enters it, it may be an item to pick up.
+   *
+   * @param entity Ignored.
+   * @param info Callback info.
+   */
+  @Inject(method = "onEntityCollided", at = @At("HEAD"))
+  private void onEntityCollidedMixin(Entity entity, CallbackInfo info) {
+    if (AWAKE != sleepUntil) {
+      wake();
+    }
+  }
 
   /**
    * Mixin that injects into the beginning of insert. This could happen later at the point where
@@ -21,10 +254,18 @@ public abstract class MixinHopperBlockEntity {
    */
   @Inject(method = "insert", at = @At(value = "INVOKE"), cancellable = true)
   private void onInsert(CallbackInfoReturnable<Boolean> info) {
+    if (!EdgestitchEvent.hasListeners(HopperInsertCallback.EVENT)) {
+      return;
+    }
     HopperBlockEntity thisHopper = (HopperBlockEntity) (Object) this;
-    BlockPos targetPosition =
-        thisHopper.getPos().offset(thisHopper.getCachedState().get(HopperBlock.FACING));
-    ActionResult result = HopperInsertCallback.EVENT.invoker().onInsert(thisHopper, targetPosition);
+    ActionResult result;
+    if (HopperVerdictCache.isEnabled()) {
+      result = HopperVerdictCache.getVerdict(thisHopper);
+    } else {
+      BlockPos targetPosition =
+          thisHopper.getPos().offset(thisHopper.getCachedState().get(HopperBlock.FACING));
+      result = HopperInsertCallback.EVENT.invoker().onInsert(thisHopper, targetPosition);
+    }
     if (ActionResult.PASS != result) {
       info.setReturnValue(false);
       info.cancel();
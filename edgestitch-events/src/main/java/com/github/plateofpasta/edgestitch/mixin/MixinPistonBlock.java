@@ -24,7 +24,10 @@
 
 package com.github.plateofpasta.edgestitch.mixin;
 
+import com.github.plateofpasta.edgestitch.event.EdgestitchEvent;
 import com.github.plateofpasta.edgestitch.event.PistonEvents;
+import com.github.plateofpasta.edgestitch.event.PistonMoveChecks;
+import net.minecraft.block.BlockState;
 import net.minecraft.block.PistonBlock;
 import net.minecraft.block.piston.PistonHandler;
 import net.minecraft.util.ActionResult;
@@ -34,12 +37,104 @@ import net.minecraft.world.World;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 import org.spongepowered.asm.mixin.injection.callback.LocalCapture;
 
 @Mixin(PistonBlock.class)
 public class MixinPistonBlock {
 
+  /**
+   * Invokes the pre-move callback before vanilla computes the push of an extension to decide
+   * whether to queue it, so a vetoed extension neither walks the pushed blocks nor is queued.
+   *
+   * @param world World the piston block is in.
+   * @param pistonPos Block position of the piston block.
+   * @param state Block state of the piston block.
+   * @param info Callback info.
+   */
+  @Inject(
+      method = "tryMove",
+      at = @At(value = "NEW", target = "net/minecraft/block/piston/PistonHandler"),
+      cancellable = true)
+  private void handlePreExtend(
+      World world, BlockPos pistonPos, BlockState state, CallbackInfo info) {
+    if (!EdgestitchEvent.hasListeners(PistonEvents.PISTON_PRE_MOVE)
+        || PistonMoveChecks.isPassed(world, pistonPos)) {
+      return;
+    }
+    final ActionResult result =
+        PistonEvents.PISTON_PRE_MOVE
+            .invoker()
+            .preMove(world, pistonPos, state.get(PistonBlock.FACING), true);
+    if (ActionResult.PASS == result) {
+      PistonMoveChecks.pass(world, pistonPos);
+    } else {
+      info.cancel();
+    }
+  }
+
+  /**
+   * Invokes the pre-move callback before a retraction is queued. Retractions are only vetoed
+   * here, before the client is told about them.
+   *
+   * @param world World the piston block is in.
+   * @param pistonPos Block position of the piston block.
+   * @param state Block state of the piston block.
+   * @param info Callback info.
+   */
+  @Inject(
+      method = "tryMove",
+      at =
+          @At(
+              value = "INVOKE",
+              target =
+                  "Lnet/minecraft/world/World;addSyncedBlockEvent(Lnet/minecraft/util/math/BlockPos;Lnet/minecraft/block/Block;II)V",
+              ordinal = 1),
+      cancellable = true)
+  private void handlePreRetract(
+      World world, BlockPos pistonPos, BlockState state, CallbackInfo info) {
+    if (!EdgestitchEvent.hasListeners(PistonEvents.PISTON_PRE_MOVE)) {
+      return;
+    }
+    final ActionResult result =
+        PistonEvents.PISTON_PRE_MOVE
+            .invoker()
+            .preMove(world, pistonPos, state.get(PistonBlock.FACING), false);
+    if (ActionResult.PASS != result) {
+      info.cancel();
+    }
+  }
+
+  /**
+   * Invokes the pre-move callback for extensions that were queued without passing {@link
+   * #handlePreExtend}, for example by other mods.
+   *
+   * @param world World the piston block is in.
+   * @param pistonPos Block position of the piston block.
+   * @param facingDir Direction the piston is facing.
+   * @param isRetracted Whether the piston is retracted (always true for extend events).
+   * @param info Callback info.
+   */
+  @Inject(method = "move", at = @At("HEAD"), cancellable = true)
+  private void handlePreMove(
+      World world,
+      BlockPos pistonPos,
+      Direction facingDir,
+      boolean isRetracted,
+      CallbackInfoReturnable<Boolean> info) {
+    if (!isRetracted
+        || !EdgestitchEvent.hasListeners(PistonEvents.PISTON_PRE_MOVE)
+        || PistonMoveChecks.consume(world, pistonPos)) {
+      return;
+    }
+    final ActionResult result =
+        PistonEvents.PISTON_PRE_MOVE.invoker().preMove(world, pistonPos, facingDir, true);
+    if (ActionResult.PASS != result) {
+      info.setReturnValue(false);
+    }
+  }
+
   /**
    * @param world World the piston block is in.
    * @param pistonPos Block position of the piston block.
@@ -66,6 +161,10 @@ public class MixinPistonBlock {
       CallbackInfoReturnable<Boolean> info,
       BlockPos toPos,
       PistonHandler pistonHandler) {
+    if (!EdgestitchEvent.hasListeners(
+        isRetracted ? PistonEvents.PISTON_EXTEND : PistonEvents.PISTON_RETRACT)) {
+      return;
+    }
     final ActionResult result;
     if (isRetracted) {
       result =
@@ -24,7 +24,10 @@
 
 package com.github.plateofpasta.edgestitch.mixin;
 
+import com.github.plateofpasta.edgestitch.event.AsyncEvents;
+import com.github.plateofpasta.edgestitch.event.EdgestitchEvent;
 import com.github.plateofpasta.edgestitch.event.ServerPlayerEvents;
+import com.github.plateofpasta.edgestitch.event.ServerWorldEvents;
 import net.minecraft.network.ClientConnection;
 import net.minecraft.server.PlayerManager;
 import net.minecraft.server.network.ServerPlayerEntity;
@@ -32,6 +35,7 @@ import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 
 /** Mixin for passing the name of the world when loaded by the MinecraftServer. */
 @Mixin(PlayerManager.class)
@@ -46,6 +50,10 @@ public abstract class MixinPlayerManager {
   @Inject(method = "onPlayerConnect", at = @At("TAIL"))
   public void onPlayerConnectAfter(
       ClientConnection connection, ServerPlayerEntity player, CallbackInfo info) {
+    AsyncEvents.publishPlayerConnection(player, true);
+    if (!EdgestitchEvent.hasListeners(ServerPlayerEvents.PLAYER_CONNECT)) {
+      return;
+    }
     ServerPlayerEvents.PLAYER_CONNECT.invoker().connect(player.getName().asString());
   }
 
@@ -57,6 +65,24 @@ public abstract class MixinPlayerManager {
    */
   @Inject(method = "remove", at = @At("TAIL"))
   public void onPlayerRemoveAfter(ServerPlayerEntity player, CallbackInfo info) {
+    ServerWorldEvents.PLAYER_MODIFY_CACHE.evict(player.getUuid());
+    AsyncEvents.publishPlayerConnection(player, false);
+    if (!EdgestitchEvent.hasListeners(ServerPlayerEvents.PLAYER_DISCONNECT)) {
+      return;
+    }
     ServerPlayerEvents.PLAYER_DISCONNECT.invoker().disconnect(player.getName().asString());
   }
+
+  /**
+   * Forgets the cached claim checks of a player that respawns, possibly in another world.
+   *
+   * @param player Player that respawns.
+   * @param alive Ignored.
+   * @param info Ignored.
+   */
+  @Inject(method = "respawnPlayer", at = @At("HEAD"))
+  public void onRespawnPlayerBefore(
+      ServerPlayerEntity player, boolean alive, CallbackInfoReturnable<ServerPlayerEntity> info) {
+    ServerWorldEvents.PLAYER_MODIFY_CACHE.evict(player.getUuid());
+  }
 }
@@ -24,21 +24,33 @@
 
 package com.github.plateofpasta.edgestitch.mixin;
 
-import com.github.plateofpasta.edgestitch.event.ProjectileHitCallback;
+import com.github.plateofpasta.edgestitch.event.ProjectileCollisionHolder;
+import com.github.plateofpasta.edgestitch.event.ProjectileCollisions;
 import net.minecraft.entity.projectile.ProjectileEntity;
-import net.minecraft.util.ActionResult;
-import net.minecraft.util.TypedActionResult;
 import net.minecraft.util.hit.HitResult;
 import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.ModifyVariable;
 
 /** Mixin for changing the behavior of projectile entities. */
 @Mixin(ProjectileEntity.class)
-public abstract class MixinProjectileEntity {
+public abstract class MixinProjectileEntity implements ProjectileCollisionHolder {
+  @Unique private boolean collisionDispatched;
+
+  @Override
+  public boolean isCollisionDispatched() {
+    return collisionDispatched;
+  }
+
+  @Override
+  public void setCollisionDispatched(boolean dispatched) {
+    collisionDispatched = dispatched;
+  }
 
   /**
    * Mixin to modify the passed in parameter of onHit and thus modify the behavior of the method.
+   * Collisions already dispatched by {@link MixinThrownEntity} are applied as they are.
    *
    * @param hitResult Parameter of onHit to modify.
    * @return Possibly modified HitResult.
@@ -48,12 +60,9 @@ public abstract class MixinProjectileEntity {
       at = @At("HEAD"),
       name = "hitResult")
   private HitResult onHitModifyHitResult(HitResult hitResult) {
-    TypedActionResult<HitResult> result =
-        ProjectileHitCallback.EVENT.invoker().onHit((ProjectileEntity) (Object) this, hitResult);
-    if (ActionResult.PASS != result.getResult()) {
-      return result.getValue();
-    } else {
+    if (collisionDispatched) {
       return hitResult;
     }
+    return ProjectileCollisions.dispatchProjectile((ProjectileEntity) (Object) this, hitResult);
   }
 }
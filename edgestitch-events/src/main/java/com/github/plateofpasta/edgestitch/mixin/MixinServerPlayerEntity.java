@@ -24,20 +24,27 @@
 
 package com.github.plateofpasta.edgestitch.mixin;
 
+import com.github.plateofpasta.edgestitch.event.EdgestitchEvent;
+import com.github.plateofpasta.edgestitch.event.EventReturnValue;
 import com.github.plateofpasta.edgestitch.event.ServerPlayerEvents;
+import com.github.plateofpasta.edgestitch.event.ServerWorldEvents;
 import net.minecraft.entity.ItemEntity;
 import net.minecraft.item.ItemStack;
 import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.ActionResult;
-import net.minecraft.util.TypedActionResult;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 
 /** Mixin for ServerPlayerEntity. */
 @Mixin(ServerPlayerEntity.class)
 public abstract class MixinServerPlayerEntity {
+  private static final ThreadLocal<EventReturnValue<ItemEntity>> DROP_RETURN_VALUE =
+      EventReturnValue.perThread();
+
   /**
    * Mixin for when the ServerPlayerEntity drops an item. todo Figure out if this just prevents the
    * item entity from spawning or completely prevents the drop.
@@ -52,15 +59,34 @@ public abstract class MixinServerPlayerEntity {
   @Inject(method = "dropItem", at = @At("HEAD"), cancellable = true)
   public void onDropBefore(
       ItemStack stack, boolean bl, boolean bl2, CallbackInfoReturnable<ItemEntity> info) {
-    TypedActionResult<ItemEntity> result =
-        ServerPlayerEvents.PLAYER_DROP_ITEM
+    if (!EdgestitchEvent.hasListeners(ServerPlayerEvents.PLAYER_DROP_ITEM_VERDICT)
+        && !EdgestitchEvent.hasListeners(ServerPlayerEvents.PLAYER_DROP_ITEM)) {
+      return;
+    }
+    final EventReturnValue<ItemEntity> returnValue = DROP_RETURN_VALUE.get();
+    final ItemEntity outer = returnValue.swap(null);
+    ActionResult result =
+        ServerPlayerEvents.PLAYER_DROP_ITEM_VERDICT
             .invoker()
-            .drop((ServerPlayerEntity) (Object) (this), stack);
-    if (result.getResult() != ActionResult.PASS) {
-      // Return a null ItemEntity.
-      info.setReturnValue(result.getValue());
+            .drop((ServerPlayerEntity) (Object) (this), stack, returnValue);
+    final ItemEntity dropped = returnValue.swap(outer);
+    if (result != ActionResult.PASS) {
+      // Return a null ItemEntity unless a listener provided one.
+      info.setReturnValue(dropped);
       info.cancel();
       return;
     }
   }
+
+  /**
+   * Forgets the cached claim checks of the player after it changed dimension, by portal or by
+   * teleport.
+   *
+   * @param origin Ignored.
+   * @param info Callback info.
+   */
+  @Inject(method = "worldChanged", at = @At("HEAD"))
+  private void onWorldChanged(ServerWorld origin, CallbackInfo info) {
+    ServerWorldEvents.PLAYER_MODIFY_CACHE.evict(((ServerPlayerEntity) (Object) this).getUuid());
+  }
 }
@@ -24,12 +24,16 @@
 
 package com.github.plateofpasta.edgestitch.mixin;
 
+import com.github.plateofpasta.edgestitch.event.AsyncEvents;
+import com.github.plateofpasta.edgestitch.event.EdgestitchEvent;
+import com.github.plateofpasta.edgestitch.event.EventReturnValue;
+import com.github.plateofpasta.edgestitch.event.FluidFlowSuppression;
 import com.github.plateofpasta.edgestitch.event.ServerWorldEvents;
+import net.minecraft.block.BlockState;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.ActionResult;
-import net.minecraft.util.TypedActionResult;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.profiler.Profiler;
 import net.minecraft.util.registry.RegistryKey;
@@ -39,6 +43,7 @@ import net.minecraft.world.dimension.DimensionType;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 
 import java.util.function.Supplier;
@@ -46,6 +51,9 @@ import java.util.function.Supplier;
 /** Mixin for passing the name of the world when it is closed. */
 @Mixin(ServerWorld.class)
 public abstract class MixinServerWorld extends World {
+  private static final ThreadLocal<EventReturnValue<Boolean>> SPAWN_RETURN_VALUE =
+      EventReturnValue.perThread();
+
   /**
    * Constructor required for the Mixin to compile, since the World class does not have a default
    * constructor.
@@ -77,16 +85,40 @@ public abstract class MixinServerWorld extends World {
    */
   @Inject(method = "spawnEntity", at = @At("HEAD"), cancellable = true)
   public void spawnEntityMixin(Entity entity, CallbackInfoReturnable<Boolean> info) {
-    TypedActionResult<Boolean> result =
-        ServerWorldEvents.ENTITY_SPAWN.invoker().spawnEvent(this, entity);
+    // Typed listeners are invoked by bridges registered to ENTITY_SPAWN_VERDICT, which only matter
+    // if a typed listener wants the type of the entity.
+    if (!EdgestitchEvent.hasDirectListeners(ServerWorldEvents.ENTITY_SPAWN_VERDICT)
+        && !EdgestitchEvent.hasListeners(ServerWorldEvents.ENTITY_SPAWN)
+        && !ServerWorldEvents.ENTITY_SPAWN_BY_TYPE.hasListeners(entity)) {
+      return;
+    }
+    final EventReturnValue<Boolean> returnValue = SPAWN_RETURN_VALUE.get();
+    final Boolean outer = returnValue.swap(Boolean.FALSE);
+    final ActionResult result =
+        ServerWorldEvents.ENTITY_SPAWN_VERDICT.invoker().spawnEvent(this, entity, returnValue);
+    final Boolean spawned = returnValue.swap(outer);
 
-    if (result.getResult() != ActionResult.PASS) {
-      info.setReturnValue(result.getValue());
+    if (result != ActionResult.PASS) {
+      info.setReturnValue(Boolean.TRUE.equals(spawned));
       info.cancel();
       return;
     }
   }
 
+  /**
+   * Mixin hooked into the returns of spawnEntity, publishes successful spawns to the asynchronous
+   * observers.
+   *
+   * @param entity Entity that was spawned into the world.
+   * @param info Mixin info.
+   */
+  @Inject(method = "spawnEntity", at = @At("RETURN"))
+  public void spawnEntityReturnMixin(Entity entity, CallbackInfoReturnable<Boolean> info) {
+    if (info.getReturnValueZ()) {
+      AsyncEvents.publishEntitySpawn(this, entity);
+    }
+  }
+
   /**
    * Mixin to check if a player can modify a position in the ServerWorld.
    *
@@ -97,11 +129,40 @@ public abstract class MixinServerWorld extends World {
   @Inject(method = "canPlayerModifyAt", at = @At("HEAD"), cancellable = true)
   public void canPlayerModifyAtMixinClaimCheck(
       PlayerEntity player, BlockPos pos, CallbackInfoReturnable<Boolean> info) {
+    if (!EdgestitchEvent.hasListeners(ServerWorldEvents.PLAYER_MODIFY)
+        && !EdgestitchEvent.hasListeners(ServerWorldEvents.PLAYER_MODIFY_SECTION)) {
+      return;
+    }
     ActionResult result = ServerWorldEvents.PLAYER_MODIFY.invoker().modifyAt(player, pos);
+    // The cache only holds verdicts of PLAYER_MODIFY_SECTION, skip it while nobody listens there.
+    if (result == ActionResult.PASS
+        && EdgestitchEvent.hasListeners(ServerWorldEvents.PLAYER_MODIFY_SECTION)) {
+      final RegistryKey<World> world = getRegistryKey();
+      result = ServerWorldEvents.PLAYER_MODIFY_CACHE.get(player.getUuid(), world, pos);
+      if (null == result) {
+        result = ServerWorldEvents.PLAYER_MODIFY_SECTION.invoker().modifyAt(player, pos);
+        ServerWorldEvents.PLAYER_MODIFY_CACHE.put(player.getUuid(), world, pos, result);
+      }
+    }
     if (result != ActionResult.PASS) {
       info.setReturnValue(false);
       info.cancel();
       return;
     }
   }
+
+  /**
+   * Mixin hooked into the head of onBlockChanged, forgets the remembered fluid flow vetoes around
+   * the changed block.
+   *
+   * @param pos Position of the changed block.
+   * @param oldBlock Ignored.
+   * @param newBlock Ignored.
+   * @param info Mixin info.
+   */
+  @Inject(method = "onBlockChanged", at = @At("HEAD"))
+  public void onBlockChangedMixin(
+      BlockPos pos, BlockState oldBlock, BlockState newBlock, CallbackInfo info) {
+    FluidFlowSuppression.onBlockChanged(this, pos);
+  }
 }
@@ -0,0 +1,147 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.mixin;
+
+import com.github.plateofpasta.edgestitch.event.EdgestitchEvent;
+import com.github.plateofpasta.edgestitch.event.NaturalSpawnAttemptCallback;
+import com.github.plateofpasta.edgestitch.event.NaturalSpawnChunkCallback;
+import net.minecraft.entity.SpawnGroup;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.ActionResult;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.SpawnHelper;
+import net.minecraft.world.biome.SpawnSettings;
+import net.minecraft.world.chunk.WorldChunk;
+import net.minecraft.world.gen.StructureAccessor;
+import net.minecraft.world.gen.chunk.ChunkGenerator;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+/** Mixin for vetoing natural spawns before the mob is created. */
+@Mixin(SpawnHelper.class)
+public abstract class MixinSpawnHelper {
+  /**
+   * Chunk of the running spawn pass, natural spawning only runs on the server thread. Cleared once
+   * the pass ends so an unloaded chunk is not kept in memory.
+   */
+  @Unique private static WorldChunk spawningChunk;
+
+  /**
+   * Invokes a callback for when the spawn pass of a chunk starts, and records the chunk of the
+   * spawn attempts that follow.
+   *
+   * @param world World in which the chunk is.
+   * @param chunk Chunk whose spawn pass is starting.
+   * @param info Ignored.
+   * @param spawnAnimals Ignored.
+   * @param spawnMonsters Ignored.
+   * @param shouldSpawnAnimals Ignored.
+   * @param callbackInfo Mixin callback info.
+   */
+  @Inject(method = "spawn", at = @At("HEAD"), cancellable = true)
+  private static void spawnPassMixin(
+      ServerWorld world,
+      WorldChunk chunk,
+      SpawnHelper.Info info,
+      boolean spawnAnimals,
+      boolean spawnMonsters,
+      boolean shouldSpawnAnimals,
+      CallbackInfo callbackInfo) {
+    spawningChunk = chunk;
+    if (!EdgestitchEvent.hasListeners(NaturalSpawnChunkCallback.EVENT)) {
+      return;
+    }
+    if (ActionResult.PASS != NaturalSpawnChunkCallback.EVENT.invoker().spawnPass(world, chunk)) {
+      // Cancelling skips the injection at the return of the pass.
+      spawningChunk = null;
+      callbackInfo.cancel();
+    }
+  }
+
+  /**
+   * Forgets the chunk of the spawn pass that ended.
+   *
+   * @param world Ignored.
+   * @param chunk Ignored.
+   * @param info Ignored.
+   * @param spawnAnimals Ignored.
+   * @param spawnMonsters Ignored.
+   * @param shouldSpawnAnimals Ignored.
+   * @param callbackInfo Mixin callback info.
+   */
+  @Inject(method = "spawn", at = @At("RETURN"))
+  private static void spawnPassEndMixin(
+      ServerWorld world,
+      WorldChunk chunk,
+      SpawnHelper.Info info,
+      boolean spawnAnimals,
+      boolean spawnMonsters,
+      boolean shouldSpawnAnimals,
+      CallbackInfo callbackInfo) {
+    spawningChunk = null;
+  }
+
+  /**
+   * Invokes a callback for each natural spawn attempt, before the mob is created.
+   *
+   * @param world World in which the spawn is attempted.
+   * @param group Ignored.
+   * @param structureAccessor Ignored.
+   * @param chunkGenerator Ignored.
+   * @param spawnEntry Entry of the entity that would spawn.
+   * @param pos Position the entity would spawn at.
+   * @param squaredDistance Ignored.
+   * @param info Mixin callback info.
+   */
+  @Inject(
+      method =
+          "canSpawn(Lnet/minecraft/server/world/ServerWorld;Lnet/minecraft/entity/SpawnGroup;Lnet/minecraft/world/gen/StructureAccessor;Lnet/minecraft/world/gen/chunk/ChunkGenerator;Lnet/minecraft/world/biome/SpawnSettings$SpawnEntry;Lnet/minecraft/util/math/BlockPos$Mutable;D)Z",
+      at = @At("HEAD"),
+      cancellable = true)
+  private static void canSpawnMixin(
+      ServerWorld world,
+      SpawnGroup group,
+      StructureAccessor structureAccessor,
+      ChunkGenerator chunkGenerator,
+      SpawnSettings.SpawnEntry spawnEntry,
+      BlockPos.Mutable pos,
+      double squaredDistance,
+      CallbackInfoReturnable<Boolean> info) {
+    if (!EdgestitchEvent.hasListeners(NaturalSpawnAttemptCallback.EVENT)) {
+      return;
+    }
+    final ActionResult result =
+        NaturalSpawnAttemptCallback.EVENT
+            .invoker()
+            .attempt(world, spawningChunk, spawnEntry.type, pos);
+    if (ActionResult.PASS != result) {
+      info.setReturnValue(false);
+    }
+  }
+}
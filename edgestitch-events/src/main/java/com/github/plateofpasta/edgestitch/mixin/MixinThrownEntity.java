@@ -24,9 +24,9 @@
 
 package com.github.plateofpasta.edgestitch.mixin;
 
-import com.github.plateofpasta.edgestitch.event.ThrownEntityCollisionCallback;
+import com.github.plateofpasta.edgestitch.event.ProjectileCollisionHolder;
+import com.github.plateofpasta.edgestitch.event.ProjectileCollisions;
 import net.minecraft.entity.projectile.thrown.ThrownEntity;
-import net.minecraft.util.TypedActionResult;
 import net.minecraft.util.hit.HitResult;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
@@ -35,9 +35,9 @@ import org.spongepowered.asm.mixin.injection.Redirect;
 /** Mixin to modify the collision behavior of {@link ThrownEntity} objects. */
 @Mixin(ThrownEntity.class)
 public abstract class MixinThrownEntity {
-
   /**
-   * Redirect the only invocation of onCollision for thrown entities.
+   * Redirect the only invocation of onCollision for thrown entities. The collision is dispatched
+   * once to both the thrown entity and the projectile listeners, see {@link ProjectileCollisions}.
    *
    * @param thrownEntity Thrown entity invoking onCollision.
    * @param hitResult Parameter of onHit to modify.
@@ -50,28 +50,24 @@ public abstract class MixinThrownEntity {
               target =
                   "Lnet/minecraft/entity/projectile/thrown/ThrownEntity;onCollision(Lnet/minecraft/util/hit/HitResult;)V"))
   private void onHitModifyHitResult(ThrownEntity thrownEntity, HitResult hitResult) {
-    TypedActionResult<HitResult> result =
-        ThrownEntityCollisionCallback.EVENT.invoker().onCollision(thrownEntity, hitResult);
-    switch (result.getResult()) {
-      case PASS:
-        {
-          // Invoke onCollision with without modifications.
-          ((MixinAccessorProjectileEntity) thrownEntity).invokeOnCollision(hitResult);
-          break;
-        }
-      case CONSUME:
-      case SUCCESS:
-        {
-          // Invoke onCollision with modified hitResult.
-          ((MixinAccessorProjectileEntity) thrownEntity).invokeOnCollision(result.getValue());
-          break;
-        }
-      case FAIL:
-        {
-          // Thrown entity is marked for removal from the game.
-          thrownEntity.remove();
-          break;
-        }
+    final MixinAccessorProjectileEntity projectile = (MixinAccessorProjectileEntity) thrownEntity;
+    if (!ProjectileCollisions.hasThrownListeners()) {
+      projectile.invokeOnCollision(hitResult);
+      return;
+    }
+    final HitResult result = ProjectileCollisions.dispatchThrown(thrownEntity, hitResult);
+    if (null == result) {
+      // Thrown entity is marked for removal from the game.
+      thrownEntity.remove();
+      return;
+    }
+    final ProjectileCollisionHolder holder = (ProjectileCollisionHolder) thrownEntity;
+    holder.setCollisionDispatched(true);
+    try {
+      projectile.invokeOnCollision(result);
+    } finally {
+      // A stale flag would make every later hit of the entity skip the projectile listeners.
+      holder.setCollisionDispatched(false);
     }
   }
 }
@@ -0,0 +1,86 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.mixin;
+
+import com.github.plateofpasta.edgestitch.event.EntityDensityIndex;
+import com.github.plateofpasta.edgestitch.event.ItemEntityIndex;
+import net.minecraft.entity.Entity;
+import net.minecraft.util.collection.TypeFilterableList;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.WorldChunk;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.Redirect;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * Mixin for keeping the per-chunk entity counts of {@link EntityDensityIndex} and the per-chunk
+ * items of {@link ItemEntityIndex} up to date.
+ */
+@Mixin(WorldChunk.class)
+public abstract class MixinWorldChunk {
+  @Shadow
+  public abstract World getWorld();
+
+  @Shadow
+  public abstract ChunkPos getPos();
+
+  /**
+   * Counts and indexes an entity added to this chunk.
+   *
+   * @param entity Added entity.
+   * @param info Mixin callback info.
+   */
+  @Inject(method = "addEntity", at = @At("TAIL"))
+  private void addEntityMixin(Entity entity, CallbackInfo info) {
+    EntityDensityIndex.onAdded(getWorld(), getPos(), entity);
+    ItemEntityIndex.onAdded(getWorld(), getPos(), entity);
+  }
+
+  /**
+   * Uncounts and unindexes an entity removed from this chunk, if it actually was in the section.
+   *
+   * @param section Entity section of this chunk.
+   * @param entity Removed entity.
+   * @return {@code true} if the entity was removed from the section, else {@code false}.
+   */
+  @Redirect(
+      method = "remove(Lnet/minecraft/entity/Entity;I)V",
+      at =
+          @At(
+              value = "INVOKE",
+              target = "Lnet/minecraft/util/collection/TypeFilterableList;remove(Ljava/lang/Object;)Z"))
+  private boolean removeEntityMixin(TypeFilterableList<Entity> section, Object entity) {
+    final boolean removed = section.remove(entity);
+    if (removed) {
+      EntityDensityIndex.onRemoved(getWorld(), getPos(), (Entity) entity);
+      ItemEntityIndex.onRemoved(getWorld(), getPos(), (Entity) entity);
+    }
+    return removed;
+  }
+}
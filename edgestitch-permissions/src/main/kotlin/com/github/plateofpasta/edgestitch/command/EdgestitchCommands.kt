@@ -36,13 +36,14 @@ const val EDGESTITCH_COMMANDS_NAMESPACE = "edgestitch"
 
 /** Handles initializing and registering Edgestitch permissions. */
 fun initCommands() {
-  // Build commands.
+  // Build commands. The root literal is shared with other Edgestitch modules and Brigadier keeps
+  // the requirement of whichever root was registered first, so each command carries its own.
   val builder =
       CommandManager.literal(EDGESTITCH_COMMANDS_NAMESPACE)
-          .requires(EdgestitchOpPredicate())
           // Add command.
           .then(
               CommandManager.literal(Add.NAMESPACE)
+                  .requires(EdgestitchOpPredicate())
                   .then(
                       CommandManager.argument(Add.ARG0_NAMESPACE, StringArgumentType.string())
                           .suggests(PlayerNameSuggestions())
@@ -54,6 +55,7 @@ fun initCommands() {
           // Remove command.
           .then(
               CommandManager.literal(Remove.NAMESPACE)
+                  .requires(EdgestitchOpPredicate())
                   .then(
                       CommandManager.argument(Remove.ARG0_NAMESPACE, StringArgumentType.string())
                           .suggests(PlayerNameSuggestions())
@@ -65,6 +67,7 @@ fun initCommands() {
           // List command.
           .then(
               CommandManager.literal(ListCommand.NAMESPACE)
+                  .requires(EdgestitchOpPredicate())
                   .then(
                       CommandManager.argument(
                               ListCommand.ARG0_NAMESPACE, EntityArgumentType.player())
@@ -72,6 +75,7 @@ fun initCommands() {
           // Describe command.
           .then(
               CommandManager.literal(Describe.NAMESPACE)
+                  .requires(EdgestitchOpPredicate())
                   .then(
                       CommandManager.argument(Describe.ARG0_NAMESPACE, StringArgumentType.string())
                           .suggests(PermissionSuggestions())
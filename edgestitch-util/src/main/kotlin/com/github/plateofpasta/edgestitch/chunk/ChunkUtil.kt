@@ -26,16 +26,41 @@ package com.github.plateofpasta.edgestitch.chunk
 
 import com.github.plateofpasta.edgestitch.mixin.MixinAccessorServerChunkManager
 import com.github.plateofpasta.edgestitch.mixin.MixinAccessorTACS
+import java.util.concurrent.CancellationException
+import java.util.concurrent.CompletableFuture
 import java.util.concurrent.ExecutionException
 import java.util.concurrent.TimeUnit
 import java.util.concurrent.TimeoutException
+import net.minecraft.block.Block
 import net.minecraft.block.Blocks
+import net.minecraft.block.entity.BlockEntity
+import net.minecraft.fluid.Fluid
+import net.minecraft.network.packet.s2c.play.ChunkDataS2CPacket
+import net.minecraft.network.packet.s2c.play.LightUpdateS2CPacket
 import net.minecraft.server.world.ServerWorld
+import net.minecraft.util.Util
 import net.minecraft.util.math.BlockPos
 import net.minecraft.util.math.ChunkPos
+import net.minecraft.util.math.Direction
+import net.minecraft.world.ChunkTickScheduler
+import net.minecraft.world.Heightmap
 import net.minecraft.world.World
 import net.minecraft.world.chunk.*
 
+private val AIR = Blocks.AIR.defaultState
+
+/** Generation stages run by chunk regeneration, in order. */
+private val STATUS_ORDER =
+    arrayOf(
+        ChunkStatus.STRUCTURE_STARTS,
+        ChunkStatus.STRUCTURE_REFERENCES,
+        ChunkStatus.BIOMES,
+        ChunkStatus.NOISE,
+        ChunkStatus.SURFACE,
+        ChunkStatus.CARVERS,
+        ChunkStatus.LIQUID_CARVERS,
+        ChunkStatus.FEATURES)
+
 /**
  * Regenerates the given chunk in this world.
  *
@@ -52,50 +77,162 @@ fun regenerateChunk(world: World, chunk: ChunkPos): Boolean {
 }
 
 /**
- * Chunk regeneration requires a 17x17 list of chunks for certain generation steps. The center chunk
- * is the generation target.
+ * Copies a generated chunk into this world in bulk. The sections of the generated chunk replace
+ * those of the loaded chunk, instead of setting every block with its own neighbour updates,
+ * heightmap update, light update and block update packet. Afterwards heightmaps are recomputed
+ * once, the light of the chunk is cleared and recomputed once, points of interest are only updated
+ * at blocks that changed, and block entities are replaced. The blocks the generator marked for
+ * post-processing are post-processed and its scheduled block and fluid ticks are moved to the
+ * world, like when a generated chunk is loaded. Changed blocks on the border of the chunk and their
+ * neighbours in loaded chunks are updated against each other. Finally, watching players are sent
+ * the whole chunk in one packet, and its light once it is recomputed.
  *
- * @param center Position of the chunk that is the generation target.
- * @return List of minecraft Chunks required for chunk regeneration.
+ * @param world World to copy the chunk into.
+ * @param source Generated chunk, its sections are moved into the world and must not be used after.
  */
-private fun populateBaseChunkList(center: ChunkPos): List<Chunk> {
-  val chunkList = ArrayList<Chunk>(17 * 17)
-  val j = center.x
-  val k = center.z
-  for (n in (j - 8)..(j + 8)) {
-    for (o in (k - 8)..(k + 8)) {
-      chunkList.add(ProtoChunk(ChunkPos(n, o), UpgradeData.NO_UPGRADE_DATA))
+private fun applyChunkToWorld(world: ServerWorld, source: Chunk) {
+  val chunkPos = source.pos
+  val target = world.getChunk(chunkPos.x, chunkPos.z)
+  val tacs =
+      (world.chunkManager as MixinAccessorServerChunkManager).accessThreadedAnvilChunkStorage()
+  val lightingProvider = (tacs as MixinAccessorTACS).publicGetServerLightingProvider()
+  // Old block entities are dropped without breaking their blocks, like the old contents.
+  for (pos in ArrayList(target.blockEntities.keys)) {
+    world.removeBlockEntity(pos)
+  }
+  val oldSections = target.sectionArray.copyOf()
+  for (i in 0..15) {
+    val section = source.sectionArray[i]
+    target.sectionArray[i] =
+        if (ChunkSection.isEmpty(section)) WorldChunk.EMPTY_SECTION else section
+  }
+  Heightmap.populateHeightmaps(target, ChunkStatus.FULL.heightmapTypes)
+  // Drop the light of the old contents and light the column again, like unloading and loading it.
+  lightingProvider.updateChunkStatus(chunkPos)
+  val lit = lightingProvider.light(target, false)
+  val pos = BlockPos.Mutable()
+  val changedBorder = ArrayList<BlockPos>()
+  for (i in 0..15) {
+    val oldSection = oldSections[i]
+    val newSection = target.sectionArray[i]
+    val oldEmpty = ChunkSection.isEmpty(oldSection)
+    val newEmpty = ChunkSection.isEmpty(newSection)
+    if (oldEmpty && newEmpty) {
+      continue
+    }
+    // Chunk blocks are stored in YZX coordinate order in ChunkSections.
+    for (y in 0..15) {
+      for (z in 0..15) {
+        for (x in 0..15) {
+          val oldState = if (oldEmpty) AIR else oldSection!!.getBlockState(x, y, z)
+          val newState = if (newEmpty) AIR else newSection!!.getBlockState(x, y, z)
+          if (oldState !== newState) {
+            pos.set(chunkPos.startX + x, (i shl 4) + y, chunkPos.startZ + z)
+            world.onBlockChanged(pos, oldState, newState)
+            if (0 == x || 15 == x || 0 == z || 15 == z) {
+              changedBorder.add(pos.toImmutable())
+            }
+          }
+        }
+      }
     }
   }
-  return chunkList
+  for (blockEntityPos in source.blockEntityPositions) {
+    val state = target.getBlockState(blockEntityPos)
+    if (!state.block.hasBlockEntity()) {
+      continue
+    }
+    // Block entities without a generated instance or tag are created when first accessed.
+    val blockEntity =
+        source.getBlockEntity(blockEntityPos)
+            ?: source.getBlockEntityTag(blockEntityPos)?.let {
+              BlockEntity.createFromTag(state, it)
+            }
+    if (null != blockEntity) {
+      world.setBlockEntity(blockEntityPos, blockEntity)
+    }
+  }
+  runPostProcessing(world, source)
+  updateBorder(world, chunkPos, changedBorder)
+  @Suppress("UNCHECKED_CAST")
+  (source.blockTickScheduler as? ChunkTickScheduler<Block>)?.tick(world.blockTickScheduler) {
+    world.getBlockState(it).block
+  }
+  @Suppress("UNCHECKED_CAST")
+  (source.fluidTickScheduler as? ChunkTickScheduler<Fluid>)?.tick(world.fluidTickScheduler) {
+    world.getFluidState(it).fluid
+  }
+  target.setShouldSave(true)
+  val packet = ChunkDataS2CPacket(target, 0xFFFF)
+  tacs.getPlayersWatchingChunk(chunkPos, false).forEach { it.networkHandler.sendPacket(packet) }
+  lit.thenRunAsync(
+      {
+        val lightPacket = LightUpdateS2CPacket(chunkPos, lightingProvider, true)
+        tacs.getPlayersWatchingChunk(chunkPos, false).forEach {
+          it.networkHandler.sendPacket(lightPacket)
+        }
+      },
+      world.server)
 }
 
 /**
- * Loads a 16x16x16 section of a chunk into this world.
+ * Post-processes the blocks the generator marked, e.g. to connect fences placed by features, the
+ * same way [WorldChunk.runPostProcessing] does for loaded chunks.
  *
- * @param targetChunk Position of the chunk we're loading.
- * @param loadSection Section that we're loading blocks from.
+ * @param world World the chunk was copied into.
+ * @param source Generated chunk holding the marked blocks.
  */
-private fun loadChunkSectionToWorld(
-    world: World, targetChunk: ChunkPos, loadSection: ChunkSection?
-) {
-  if (null == loadSection) {
-    return
+private fun runPostProcessing(world: ServerWorld, source: Chunk) {
+  val lists = source.postProcessingLists
+  for (i in lists.indices) {
+    val list = lists[i] ?: continue
+    for (packed in list) {
+      val pos = ProtoChunk.joinBlockPos(packed, i, source.pos)
+      val state = world.getBlockState(pos)
+      world.setBlockState(pos, Block.postProcessState(state, world, pos), 20)
+    }
   }
-  // Chunk blocks are stored in YZX coordinate order in ChunkSections and Chunk NBT data.
-  // Chunk sections range from 0 to 15 in height.
-  for (coordY in (loadSection.yOffset)..(loadSection.yOffset + 15)) {
-    for (coordZ in (targetChunk.startZ)..(targetChunk.endZ)) {
-      for (coordX in (targetChunk.startX)..(targetChunk.endX)) {
-        val blockState =
-            if (loadSection.isEmpty) {
-              Blocks.AIR.defaultState
-            } else {
-              // The (coord and 15) operation is used because that's how ProtoChunk does it.
-              loadSection.getBlockState(coordX and 15, coordY and 15, coordZ and 15)
-            }
-        world.setBlockState(BlockPos(coordX, coordY, coordZ), blockState)
+}
+
+/**
+ * Updates the changed blocks on the border of a chunk and their neighbours in the loaded chunks
+ * next to it against each other, so shapes connect across the border and fluids and redstone next
+ * to it schedule their ticks. Only the new chunk is sent to players afterwards, so changes to its
+ * blocks skip the block update packet while changes to neighbours send it.
+ *
+ * @param world World the chunk was copied into.
+ * @param chunkPos Position of the chunk.
+ * @param changed Changed blocks on the border of the chunk.
+ */
+private fun updateBorder(world: ServerWorld, chunkPos: ChunkPos, changed: List<BlockPos>) {
+  val neighbourPos = BlockPos.Mutable()
+  for (pos in changed) {
+    for (direction in Direction.Type.HORIZONTAL) {
+      neighbourPos.set(pos, direction)
+      val neighbourChunkX = neighbourPos.x shr 4
+      val neighbourChunkZ = neighbourPos.z shr 4
+      if ((neighbourChunkX == chunkPos.x && neighbourChunkZ == chunkPos.z) ||
+          !world.chunkManager.isChunkLoaded(neighbourChunkX, neighbourChunkZ)) {
+        continue
       }
+      val state = world.getBlockState(pos)
+      val neighbourState = world.getBlockState(neighbourPos)
+      Block.replace(
+          state,
+          state.getStateForNeighborUpdate(direction, neighbourState, world, pos, neighbourPos),
+          world,
+          pos,
+          20)
+      val updated = world.getBlockState(pos)
+      Block.replace(
+          neighbourState,
+          neighbourState.getStateForNeighborUpdate(
+              direction.opposite, updated, world, neighbourPos, pos),
+          world,
+          neighbourPos,
+          18)
+      world.updateNeighbor(neighbourPos, updated.block, pos)
+      world.updateNeighbor(pos, neighbourState.block, neighbourPos)
     }
   }
 }
@@ -121,46 +258,249 @@ private fun loadChunkSectionToWorld(
     InterruptedException::class,
     TimeoutException::class)
 private fun regenerateChunkImpl(world: World, chunkPos: ChunkPos) {
-  val statusOrder =
-      arrayOf(
-          ChunkStatus.STRUCTURE_STARTS,
-          ChunkStatus.STRUCTURE_REFERENCES,
-          ChunkStatus.BIOMES,
-          ChunkStatus.NOISE,
-          ChunkStatus.SURFACE,
-          ChunkStatus.CARVERS,
-          ChunkStatus.LIQUID_CARVERS,
-          ChunkStatus.FEATURES)
   if (world !is ServerWorld) {
     throw ClassCastException("Could not cast world to ServerWorld for chunk regeneration")
   }
-  // 17x17 chunk list is required
-  val chunkList = populateBaseChunkList(chunkPos)
+  val template = TemplateCache.load(world, chunkPos)
+  if (null != template) {
+    applyChunkToWorld(world, template)
+    return
+  }
+  val chunk = generateChunk(world, chunkPos, null) { false }!!
+  TemplateCache.store(world, chunk)
+  applyChunkToWorld(world, chunk)
+}
+
+/**
+ * Regenerates a chunk in this world without blocking the calling thread. Generation runs on the
+ * worker executor, or the chunk is read from the [TemplateCache], then it is copied into the
+ * world on the server thread under the budget of [RegenApplyQueue]. Cancelling the returned
+ * future stops the regeneration before its next generation stage or before the apply.
+ *
+ * @param world World to regenerate the chunk in.
+ * @param chunkPos Position of the chunk to regenerate.
+ * @return Future completed with the timings of the regeneration once the chunk is applied, or
+ * completed exceptionally if the regeneration failed.
+ */
+fun regenerateChunkAsync(world: World, chunkPos: ChunkPos): CompletableFuture<RegenResult> {
+  val result = CompletableFuture<RegenResult>()
+  if (world !is ServerWorld) {
+    result.completeExceptionally(
+        ClassCastException("Could not cast world to ServerWorld for chunk regeneration"))
+    return result
+  }
+  Util.getServerWorkerExecutor().execute {
+    try {
+      val template = TemplateCache.load(world, chunkPos)
+      val stageNanos = LinkedHashMap<ChunkStatus, Long>()
+      val chunk =
+          template
+              ?: generateChunk(world, chunkPos, stageNanos) { result.isDone }?.also {
+                TemplateCache.store(world, it)
+              }
+      if (null != chunk) {
+        val generated = System.nanoTime()
+        RegenApplyQueue.submit({ result.cancel(false) }) {
+          if (!result.isDone) {
+            val start = System.nanoTime()
+            try {
+              applyChunkToWorld(world, chunk)
+              val applyNanos = System.nanoTime() - start
+              result.complete(
+                  RegenResult(
+                      chunkPos, stageNanos, start - generated, applyNanos, null != template))
+            } catch (e: Exception) {
+              result.completeExceptionally(e)
+            }
+          }
+        }
+      }
+    } catch (e: Exception) {
+      result.completeExceptionally(e)
+    }
+  }
+  return result
+}
+
+/**
+ * Regenerates every chunk within a rectangle of this world without blocking the calling thread.
+ * The chunks share one [GenerationNeighbourhood], so each of them runs each generation stage
+ * exactly once and they see each other's terrain and structures like in a fresh world. A stage
+ * runs on every chunk in parallel on the worker executor before the next stage starts; features
+ * also write into neighbouring chunks, so they run in 9 phases of chunks at least 3 chunks apart.
+ * The chunks are then copied into the world row by row under the budget of [RegenApplyQueue].
+ * If the [TemplateCache] has every chunk of the rectangle, they are read from it instead of being
+ * generated, else every generated chunk is stored in it. Cancelling the returned future stops the
+ * regeneration before the next phase or apply.
+ *
+ * @param world World to regenerate the chunks in.
+ * @param min Corner of the rectangle with the lowest coordinates.
+ * @param max Corner of the rectangle with the highest coordinates.
+ * @return Future completed with the timings of every chunk in apply order once every chunk is
+ * applied, or completed exceptionally if the regeneration failed.
+ */
+fun regenerateRegion(
+    world: World,
+    min: ChunkPos,
+    max: ChunkPos
+): CompletableFuture<List<RegenResult>> {
+  val result = CompletableFuture<List<RegenResult>>()
+  if (world !is ServerWorld) {
+    result.completeExceptionally(
+        ClassCastException("Could not cast world to ServerWorld for chunk regeneration"))
+    return result
+  }
+  if (min.x > max.x || min.z > max.z) {
+    result.completeExceptionally(IllegalArgumentException("min must not be greater than max"))
+    return result
+  }
+  val executor = Util.getServerWorkerExecutor()
+  val neighbourhood = GenerationNeighbourhood(min, max)
+  // Ordered by Z, then X, which is also the apply order.
+  val stageNanos = LinkedHashMap<ChunkPos, MutableMap<ChunkStatus, Long>>()
+  for (z in min.z..max.z) {
+    for (x in min.x..max.x) {
+      stageNanos[ChunkPos(x, z)] = LinkedHashMap()
+    }
+  }
+  // Generation is skipped if every chunk has a template.
+  val templates = HashMap<ChunkPos, Chunk>()
+  var generation =
+      CompletableFuture.runAsync(
+          {
+            for (chunkPos in stageNanos.keys) {
+              TemplateCache.load(world, chunkPos)?.let { templates[chunkPos] = it }
+            }
+          },
+          executor)
+  for (status in STATUS_ORDER) {
+    val phases =
+        if (ChunkStatus.FEATURES == status) {
+          stageNanos.keys.groupBy { Math.floorMod(it.x, 3) + 3 * Math.floorMod(it.z, 3) }.values
+        } else {
+          listOf(stageNanos.keys)
+        }
+    for (phase in phases) {
+      generation =
+          generation.thenComposeAsync(
+              {
+                if (result.isDone) {
+                  throw CancellationException()
+                } else if (templates.size == stageNanos.size) {
+                  return@thenComposeAsync CompletableFuture.completedFuture<Void>(null)
+                }
+                val tasks =
+                    phase.map { chunkPos ->
+                      CompletableFuture.runAsync(
+                          {
+                            val start = System.nanoTime()
+                            runStage(world, status, neighbourhood.chunksFor(chunkPos, status))
+                            stageNanos.getValue(chunkPos)[status] = System.nanoTime() - start
+                          },
+                          executor)
+                    }
+                CompletableFuture.allOf(*tasks.toTypedArray())
+              },
+              executor)
+    }
+  }
+  generation.whenComplete { _, e ->
+    if (null != e) {
+      result.completeExceptionally(e)
+      return@whenComplete
+    }
+    val fromTemplates = templates.size == stageNanos.size
+    if (!fromTemplates) {
+      for (chunkPos in stageNanos.keys) {
+        TemplateCache.store(world, neighbourhood.getChunk(chunkPos))
+      }
+    }
+    val generated = System.nanoTime()
+    val results = ArrayList<RegenResult>(stageNanos.size)
+    for ((chunkPos, nanos) in stageNanos) {
+      RegenApplyQueue.submit({ result.cancel(false) }) {
+        if (!result.isDone) {
+          val start = System.nanoTime()
+          try {
+            val chunk =
+                if (fromTemplates) {
+                  templates.getValue(chunkPos)
+                } else {
+                  neighbourhood.getChunk(chunkPos)
+                }
+            applyChunkToWorld(world, chunk)
+            results.add(
+                RegenResult(
+                    chunkPos, nanos, start - generated, System.nanoTime() - start, fromTemplates))
+            if (results.size == stageNanos.size) {
+              result.complete(results)
+            }
+          } catch (e: Exception) {
+            result.completeExceptionally(e)
+          }
+        }
+      }
+    }
+  }
+  return result
+}
+
+/**
+ * Runs the generation stages of a chunk on the calling thread.
+ *
+ * @param world World the chunk is generated for.
+ * @param chunkPos Position of the chunk to generate.
+ * @param stageNanos Receives the time spent in each stage, may be `null`.
+ * @param isCancelled Checked before each stage.
+ * @return Generated chunk, or `null` if the generation was cancelled.
+ * @throws ExecutionException Failure of a generation stage.
+ * @throws InterruptedException Failure of a generation stage.
+ * @throws TimeoutException A generation stage did not complete in time.
+ */
+@Throws(ExecutionException::class, InterruptedException::class, TimeoutException::class)
+private fun generateChunk(
+    world: ServerWorld,
+    chunkPos: ChunkPos,
+    stageNanos: MutableMap<ChunkStatus, Long>?,
+    isCancelled: () -> Boolean
+): Chunk? {
+  val neighbourhood = GenerationNeighbourhood(chunkPos)
+  for (currentStatus in STATUS_ORDER) {
+    if (isCancelled()) {
+      return null
+    }
+    val start = System.nanoTime()
+    runStage(world, currentStatus, neighbourhood.chunksFor(chunkPos, currentStatus))
+    stageNanos?.put(currentStatus, System.nanoTime() - start)
+  }
+  return neighbourhood.getChunk(chunkPos)
+}
+
+/**
+ * Runs a generation stage of the chunk in the middle of a list on the calling thread.
+ *
+ * @param world World the chunk is generated for.
+ * @param status Generation stage to run.
+ * @param chunks Chunks read by the stage, see [GenerationNeighbourhood.chunksFor].
+ * @throws ExecutionException Failure of the generation stage.
+ * @throws InterruptedException Failure of the generation stage.
+ * @throws TimeoutException The generation stage did not complete in time.
+ */
+@Throws(ExecutionException::class, InterruptedException::class, TimeoutException::class)
+private fun runStage(world: ServerWorld, status: ChunkStatus, chunks: List<Chunk>) {
   val chunkManager = world.chunkManager
   val tacs = (chunkManager as MixinAccessorServerChunkManager).accessThreadedAnvilChunkStorage()
   val publicTACS = tacs as MixinAccessorTACS
-  for (currentStatus in statusOrder) {
-    // Run all of the chunk generation tasks in order.
-    // There is no need to store the future return value because the chunk is maintained in
-    // the chunkList.
-    // Either all tasks complete successfully or we abort the process.
-    currentStatus.runGenerationTask(
-            world,
-            chunkManager.chunkGenerator,
-            publicTACS.publicGetStructureManager(),
-            publicTACS.publicGetServerLightingProvider(),
-            { throw RuntimeException("Error in regenerating chunk") },
-            chunkList)
-        .get(10, TimeUnit.SECONDS)
-        .orThrow()
-  }
-  val centerChunk = chunkList[chunkList.size / 2]
-  for (i in 0..15) {
-    var section = centerChunk.sectionArray[i]
-    if (null == section) {
-      // Empty sections only contain air blocks.
-      section = ChunkSection(i shl 4)
-    }
-    loadChunkSectionToWorld(world, centerChunk.pos, section)
-  }
+  // There is no need to store the future return value because the chunk is maintained in
+  // the neighbourhood.
+  // Either the task completes successfully or we abort the process.
+  status.runGenerationTask(
+          world,
+          chunkManager.chunkGenerator,
+          publicTACS.publicGetStructureManager(),
+          publicTACS.publicGetServerLightingProvider(),
+          { throw RuntimeException("Error in regenerating chunk") },
+          chunks)
+      .get(10, TimeUnit.SECONDS)
+      .orThrow()
 }
@@ -0,0 +1,117 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.chunk
+
+import net.minecraft.block.BlockState
+import net.minecraft.util.math.BlockPos
+import net.minecraft.util.math.ChunkPos
+import net.minecraft.world.chunk.Chunk
+import net.minecraft.world.chunk.ChunkStatus
+import net.minecraft.world.chunk.ProtoChunk
+import net.minecraft.world.chunk.UpgradeData
+
+/**
+ * Chunks passed to the generation stages when regenerating a rectangle of chunks. Each stage only
+ * gets the square of chunks within its task margin. The regenerated chunks and the chunks within
+ * [REAL_RADIUS] of them, which features write into and read back, are real proto chunks shared by
+ * every stage; the chunks beyond that are never generated and share a placeholder that discards
+ * writes, instead of allocating a proto chunk for each of the 17x17 chunks the widest stages can
+ * see.
+ *
+ * Every real chunk is created up front, so the neighbourhood can be read from several threads.
+ *
+ * @property min Corner of the regenerated chunks with the lowest coordinates.
+ * @property max Corner of the regenerated chunks with the highest coordinates.
+ */
+internal class GenerationNeighbourhood(val min: ChunkPos, val max: ChunkPos) {
+  private val chunks = HashMap<Long, ProtoChunk>()
+  private val placeholder = PlaceholderChunk(min)
+
+  init {
+    for (z in (min.z - REAL_RADIUS)..(max.z + REAL_RADIUS)) {
+      for (x in (min.x - REAL_RADIUS)..(max.x + REAL_RADIUS)) {
+        chunks[ChunkPos.toLong(x, z)] = ProtoChunk(ChunkPos(x, z), UpgradeData.NO_UPGRADE_DATA)
+      }
+    }
+  }
+
+  /**
+   * Neighbourhood of a single chunk.
+   *
+   * @param center Position of the chunk being regenerated.
+   */
+  constructor(center: ChunkPos) : this(center, center)
+
+  /**
+   * Gets a regenerated chunk.
+   *
+   * @param pos Position of the chunk, within [min] and [max].
+   * @return Proto chunk at the position.
+   */
+  fun getChunk(pos: ChunkPos): Chunk {
+    return chunks.getValue(pos.toLong())
+  }
+
+  /**
+   * Gets the chunks a generation stage reads, in the order expected by
+   * [net.minecraft.world.ChunkRegion]. Chunk regions index their chunks relative to the positions
+   * of the first and last chunk, so those are always real or placeholders of their own with the
+   * right position.
+   *
+   * @param center Position of the chunk the stage generates.
+   * @param status Generation stage.
+   * @return Square of chunks within the task margin of the stage, ordered by Z, then X.
+   */
+  fun chunksFor(center: ChunkPos, status: ChunkStatus): List<Chunk> {
+    val margin = status.taskMargin
+    val width = 2 * margin + 1
+    val chunkList = ArrayList<Chunk>(width * width)
+    for (z in (center.z - margin)..(center.z + margin)) {
+      for (x in (center.x - margin)..(center.x + margin)) {
+        chunkList.add(chunks[ChunkPos.toLong(x, z)] ?: placeholder)
+      }
+    }
+    if (chunkList[0] === placeholder) {
+      chunkList[0] = PlaceholderChunk(ChunkPos(center.x - margin, center.z - margin))
+    }
+    if (chunkList[chunkList.size - 1] === placeholder) {
+      chunkList[chunkList.size - 1] =
+          PlaceholderChunk(ChunkPos(center.x + margin, center.z + margin))
+    }
+    return chunkList
+  }
+
+  /** Empty chunk that ignores block changes, so sharing it between positions is harmless. */
+  private class PlaceholderChunk(pos: ChunkPos) : ProtoChunk(pos, UpgradeData.NO_UPGRADE_DATA) {
+    override fun setBlockState(pos: BlockPos, state: BlockState, moved: Boolean): BlockState? {
+      return null
+    }
+  }
+
+  companion object {
+    /** Radius around the regenerated chunks within which chunks are real proto chunks. */
+    const val REAL_RADIUS = 1
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.chunk
+
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.TimeUnit
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents
+import net.minecraft.server.MinecraftServer
+
+/**
+ * Applies regenerated chunks on the server thread under a per-tick time budget. Applies are run at
+ * the end of the server tick until the budget is used up; at least one apply runs per tick, so a
+ * budget smaller than a single apply only limits applies to one per tick.
+ *
+ * Applies still queued when the server stops are discarded instead of being run, so they neither
+ * keep the worlds of the stopped server in memory nor run against the next server. Applies queued
+ * while no server is running are discarded right away.
+ */
+object RegenApplyQueue {
+  /** Default time budget per tick, in milliseconds. */
+  const val DEFAULT_BUDGET_MILLIS = 5L
+
+  private val pending = ConcurrentLinkedQueue<Pending>()
+  @Volatile private var budgetNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_BUDGET_MILLIS)
+  @Volatile private var registered = false
+  @Volatile private var stopped = false
+
+  /** Time budget per tick for applying regenerated chunks, in milliseconds. */
+  var budgetMillis: Long
+    get() = TimeUnit.NANOSECONDS.toMillis(budgetNanos)
+    set(value) {
+      require(0 <= value) { "budget must not be negative" }
+      budgetNanos = TimeUnit.MILLISECONDS.toNanos(value)
+    }
+
+  /** Number of applies waiting for the server thread. */
+  val size: Int
+    get() = pending.size
+
+  /**
+   * Queues an apply to run on the server thread. May be called from any thread.
+   *
+   * @param onDiscard Called instead of the apply if the server stops before it ran, e.g. to cancel
+   *     the future waiting for it.
+   * @param apply Apply to run.
+   */
+  fun submit(onDiscard: () -> Unit = {}, apply: () -> Unit) {
+    register()
+    pending.add(Pending(apply, onDiscard))
+    if (stopped) {
+      discardAll()
+    }
+  }
+
+  /**
+   * Registers the tick listener that runs the applies and the lifecycle listeners that discard
+   * them, the first time anything is queued.
+   */
+  @Synchronized
+  private fun register() {
+    if (!registered) {
+      ServerTickEvents.END_SERVER_TICK.register(ServerTickEvents.EndTick { onTickEnd(it) })
+      ServerLifecycleEvents.SERVER_STARTING.register(
+          ServerLifecycleEvents.ServerStarting { stopped = false })
+      ServerLifecycleEvents.SERVER_STOPPING.register(
+          ServerLifecycleEvents.ServerStopping {
+            stopped = true
+            discardAll()
+          })
+      registered = true
+    }
+  }
+
+  /** Discards every queued apply. */
+  private fun discardAll() {
+    while (true) {
+      val discarded = pending.poll() ?: return
+      discarded.onDiscard()
+    }
+  }
+
+  /**
+   * Runs queued applies until the budget of this tick is used up.
+   *
+   * @param server Ticking server.
+   */
+  private fun onTickEnd(@Suppress("UNUSED_PARAMETER") server: MinecraftServer) {
+    val start = System.nanoTime()
+    do {
+      val next = pending.poll() ?: return
+      next.apply()
+    } while (System.nanoTime() - start < budgetNanos)
+  }
+
+  /**
+   * A queued apply.
+   *
+   * @property apply Apply to run.
+   * @property onDiscard Called instead of the apply if it is discarded.
+   */
+  private class Pending(val apply: () -> Unit, val onDiscard: () -> Unit)
+}
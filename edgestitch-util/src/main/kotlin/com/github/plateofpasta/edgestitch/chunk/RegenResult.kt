@@ -0,0 +1,51 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.chunk
+
+import net.minecraft.util.math.ChunkPos
+import net.minecraft.world.chunk.ChunkStatus
+
+/**
+ * Result of an asynchronous chunk regeneration.
+ *
+ * @property chunk Position of the regenerated chunk.
+ * @property stageNanos Time spent in each generation stage, in generation order.
+ * @property queuedNanos Time between the end of generation and the start of the apply, spent
+ * waiting for the server thread and the apply budget.
+ * @property applyNanos Time spent copying the chunk into the world on the server thread.
+ * @property fromTemplate `true` if the chunk was read from the [TemplateCache] instead of being
+ * generated, its [stageNanos] are then empty.
+ */
+data class RegenResult(
+    val chunk: ChunkPos,
+    val stageNanos: Map<ChunkStatus, Long>,
+    val queuedNanos: Long,
+    val applyNanos: Long,
+    val fromTemplate: Boolean = false
+) {
+  /** Total time spent generating the chunk. */
+  val generationNanos: Long
+    get() = stageNanos.values.sum()
+}
@@ -0,0 +1,338 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2020 PlateOfPasta
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.plateofpasta.edgestitch.chunk
+
+import com.google.common.hash.Hashing
+import io.netty.buffer.ByteBufInputStream
+import io.netty.buffer.Unpooled
+import java.io.IOException
+import java.nio.channels.FileChannel
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardCopyOption
+import java.nio.file.attribute.FileTime
+import java.util.WeakHashMap
+import java.util.stream.Collectors
+import net.fabricmc.loader.api.FabricLoader
+import net.minecraft.SharedConstants
+import net.minecraft.block.Block
+import net.minecraft.fluid.Fluid
+import net.minecraft.fluid.Fluids
+import net.minecraft.nbt.CompoundTag
+import net.minecraft.nbt.ListTag
+import net.minecraft.nbt.NbtIo
+import net.minecraft.nbt.NbtOps
+import net.minecraft.server.world.ServerWorld
+import net.minecraft.util.Util
+import net.minecraft.util.math.ChunkPos
+import net.minecraft.world.ChunkSerializer
+import net.minecraft.world.ChunkTickScheduler
+import net.minecraft.world.chunk.Chunk
+import net.minecraft.world.chunk.ChunkSection
+import net.minecraft.world.chunk.ProtoChunk
+import net.minecraft.world.chunk.UpgradeData
+import net.minecraft.world.gen.chunk.ChunkGenerator
+import org.apache.logging.log4j.LogManager
+
+/**
+ * Disk cache of regenerated chunks. Regeneration is deterministic for a given seed, dimension and
+ * generator except for features, so a chunk regenerated before is read back instead of being
+ * generated again, which also makes its features the same on every regeneration. Templates hold the
+ * block sections, block entities, scheduled ticks and blocks to post-process of a chunk as
+ * compressed NBT, one file per chunk in a directory per template format, seed, dimension, generator
+ * and game data version. Files are read through a memory
+ * map and written on the worker executor. The least recently used templates are deleted once the
+ * cache outgrows [maxBytes].
+ *
+ * Disabled by default.
+ */
+object TemplateCache {
+  /** Default size limit of the cache, in bytes. */
+  const val DEFAULT_MAX_BYTES = 256L * 1024 * 1024
+
+  private val LOGGER = LogManager.getLogger()
+  private const val SECTIONS = "Sections"
+  private const val BLOCK_ENTITIES = "BlockEntities"
+  private const val BLOCK_TICKS = "ToBeTicked"
+  private const val FLUID_TICKS = "LiquidsToBeTicked"
+  private const val POST_PROCESSING = "PostProcessing"
+  /** Version of the template contents, part of the directory name so old templates are unused. */
+  private const val FORMAT = 2
+  private val worldKeys = WeakHashMap<ServerWorld, String>()
+  /** Size of every template file in access order, or `null` until the directory was scanned. */
+  private var index: LinkedHashMap<Path, Long>? = null
+  private var totalBytes = 0L
+
+  /** `true` if regenerated chunks are cached, else `false`. */
+  @Volatile var enabled = false
+
+  /** Directory containing the templates. */
+  @Volatile
+  var directory: Path = FabricLoader.getInstance().gameDir.resolve("edgestitch-templates")
+    @Synchronized
+    set(value) {
+      field = value
+      index = null
+    }
+
+  /** Size limit of the cache, in bytes. */
+  @Volatile
+  var maxBytes = DEFAULT_MAX_BYTES
+    set(value) {
+      require(0 <= value) { "size limit must not be negative" }
+      field = value
+    }
+
+  /**
+   * Reads the template of a chunk.
+   *
+   * @param world World the chunk belongs to.
+   * @param chunkPos Position of the chunk.
+   * @return Chunk holding the blocks and block entities of the template, or `null` if the cache is
+   * disabled or has no template for the chunk.
+   */
+  internal fun load(world: ServerWorld, chunkPos: ChunkPos): Chunk? {
+    if (!enabled) {
+      return null
+    }
+    val path = pathOf(world, chunkPos)
+    if (!Files.isRegularFile(path)) {
+      return null
+    }
+    return try {
+      val tag =
+          FileChannel.open(path).use { channel ->
+            val buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+            NbtIo.readCompressed(ByteBufInputStream(Unpooled.wrappedBuffer(buffer)))
+          }
+      touch(path)
+      readChunk(chunkPos, tag)
+    } catch (e: IOException) {
+      LOGGER.warn("Ignoring unreadable chunk template {}", path, e)
+      null
+    }
+  }
+
+  /**
+   * Stores the template of a generated chunk. The chunk is serialized on the calling thread before
+   * it is applied to the world, the file is written on the worker executor.
+   *
+   * @param world World the chunk belongs to.
+   * @param chunk Generated chunk.
+   */
+  internal fun store(world: ServerWorld, chunk: Chunk) {
+    if (!enabled) {
+      return
+    }
+    val path = pathOf(world, chunk.pos)
+    val tag = writeChunk(chunk)
+    Util.getServerWorkerExecutor().execute {
+      try {
+        Files.createDirectories(path.parent)
+        val temp = Files.createTempFile(path.parent, "template", ".tmp")
+        Files.newOutputStream(temp).use { NbtIo.writeCompressed(tag, it) }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE)
+        added(path, Files.size(path))
+      } catch (e: IOException) {
+        LOGGER.warn("Could not write chunk template {}", path, e)
+      }
+    }
+  }
+
+  /**
+   * Gets the file of a template.
+   *
+   * @param world World the chunk belongs to.
+   * @param chunkPos Position of the chunk.
+   * @return Path of the template file.
+   */
+  private fun pathOf(world: ServerWorld, chunkPos: ChunkPos): Path {
+    return directory.resolve(keyOf(world)).resolve("c.${chunkPos.x}.${chunkPos.z}.nbt")
+  }
+
+  /**
+   * Gets the directory name of the templates of a world, a hash of everything the generated
+   * chunks depend on.
+   *
+   * @param world World to get the key of.
+   * @return Directory name.
+   */
+  private fun keyOf(world: ServerWorld): String {
+    synchronized(worldKeys) {
+      return worldKeys.getOrPut(world) {
+        val generator = world.chunkManager.chunkGenerator
+        val settings =
+            ChunkGenerator.CODEC
+                .encodeStart(NbtOps.INSTANCE, generator)
+                .result()
+                .map { it.toString() }
+                .orElse(generator.javaClass.name)
+        val key =
+            "$FORMAT|${SharedConstants.getGameVersion().worldVersion}|${world.seed}|" +
+                "${world.registryKey.value}|$settings"
+        Hashing.sha256().hashString(key, StandardCharsets.UTF_8).toString().substring(0, 16)
+      }
+    }
+  }
+
+  /**
+   * Serializes the blocks, block entities, scheduled ticks and blocks to post-process of a chunk.
+   *
+   * @param chunk Chunk to serialize.
+   * @return Template tag.
+   */
+  private fun writeChunk(chunk: Chunk): CompoundTag {
+    val sections = ListTag()
+    for (section in chunk.sectionArray) {
+      if (ChunkSection.isEmpty(section)) {
+        continue
+      }
+      val sectionTag = CompoundTag()
+      sectionTag.putByte("Y", (section!!.yOffset shr 4).toByte())
+      section.container.write(sectionTag, "Palette", "BlockStates")
+      sections.add(sectionTag)
+    }
+    val blockEntities = ListTag()
+    for (pos in chunk.blockEntityPositions) {
+      chunk.getPackedBlockEntityTag(pos)?.let { blockEntities.add(it) }
+    }
+    val tag = CompoundTag()
+    tag.put(SECTIONS, sections)
+    tag.put(BLOCK_ENTITIES, blockEntities)
+    (chunk.blockTickScheduler as? ChunkTickScheduler<*>)?.let { tag.put(BLOCK_TICKS, it.toNbt()) }
+    (chunk.fluidTickScheduler as? ChunkTickScheduler<*>)?.let { tag.put(FLUID_TICKS, it.toNbt()) }
+    tag.put(POST_PROCESSING, ChunkSerializer.toNbt(chunk.postProcessingLists))
+    return tag
+  }
+
+  /**
+   * Deserializes a template into a chunk that can be applied to a world.
+   *
+   * @param chunkPos Position of the chunk.
+   * @param tag Template tag.
+   * @return Chunk holding the contents of the template.
+   */
+  private fun readChunk(chunkPos: ChunkPos, tag: CompoundTag): Chunk {
+    val chunk =
+        ProtoChunk(
+            chunkPos,
+            UpgradeData.NO_UPGRADE_DATA,
+            null,
+            ChunkTickScheduler<Block>(
+                { null == it || it.defaultState.isAir }, chunkPos, tag.getList(BLOCK_TICKS, 9)),
+            ChunkTickScheduler<Fluid>(
+                { null == it || it === Fluids.EMPTY }, chunkPos, tag.getList(FLUID_TICKS, 9)))
+    val sections = tag.getList(SECTIONS, 10)
+    for (i in 0 until sections.size) {
+      val sectionTag = sections.getCompound(i)
+      val y = sectionTag.getByte("Y").toInt()
+      val section = ChunkSection(y shl 4)
+      section.container.read(
+          sectionTag.getList("Palette", 10), sectionTag.getLongArray("BlockStates"))
+      section.calculateCounts()
+      chunk.sectionArray[y] = section
+    }
+    val blockEntities = tag.getList(BLOCK_ENTITIES, 10)
+    for (i in 0 until blockEntities.size) {
+      chunk.addPendingBlockEntityTag(blockEntities.getCompound(i))
+    }
+    val postProcessing = tag.getList(POST_PROCESSING, 9)
+    for (i in 0 until postProcessing.size) {
+      val list = postProcessing.getList(i)
+      for (j in 0 until list.size) {
+        chunk.markBlockForPostProcessing(list.getShort(j), i)
+      }
+    }
+    return chunk
+  }
+
+  /**
+   * Marks a template as used most recently.
+   *
+   * @param path Template file.
+   */
+  @Synchronized
+  private fun touch(path: Path) {
+    loadIndex()[path]
+    try {
+      Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()))
+    } catch (e: IOException) {
+      // Only affects the eviction order after a restart.
+    }
+  }
+
+  /**
+   * Records a written template and deletes the least recently used ones while the cache is too
+   * large.
+   *
+   * @param path Template file.
+   * @param size Size of the file in bytes.
+   */
+  @Synchronized
+  private fun added(path: Path, size: Long) {
+    val files = loadIndex()
+    totalBytes += size - (files.put(path, size) ?: 0L)
+    val iterator = files.entries.iterator()
+    while (totalBytes > maxBytes && iterator.hasNext()) {
+      val eldest = iterator.next()
+      try {
+        Files.deleteIfExists(eldest.key)
+      } catch (e: IOException) {
+        LOGGER.warn("Could not delete chunk template {}", eldest.key, e)
+        continue
+      }
+      totalBytes -= eldest.value
+      iterator.remove()
+    }
+  }
+
+  /**
+   * Scans the templates on disk the first time the index is needed.
+   *
+   * @return Size of every template file, least recently used first.
+   */
+  private fun loadIndex(): LinkedHashMap<Path, Long> {
+    index?.let {
+      return it
+    }
+    val files = LinkedHashMap<Path, Long>(16, 0.75f, true)
+    totalBytes = 0L
+    if (Files.isDirectory(directory)) {
+      val paths =
+          Files.walk(directory).use { stream ->
+            stream.filter { Files.isRegularFile(it) }.collect(Collectors.toList())
+          }
+      paths.sortBy { Files.getLastModifiedTime(it) }
+      for (path in paths) {
+        val size = Files.size(path)
+        files[path] = size
+        totalBytes += size
+      }
+    }
+    index = files
+    return files
+  }
+}
@@ -25,6 +25,7 @@
 package com.github.plateofpasta.edgestitch.world
 
 import com.github.plateofpasta.edgestitch.chunk.*
+import java.util.concurrent.CompletableFuture
 import net.minecraft.block.BlockState
 import net.minecraft.util.Nameable
 import net.minecraft.util.math.BlockPos
@@ -117,6 +118,29 @@ open class EdgestitchWorld(protected val impl: World) {
     return true
   }
 
+  /**
+   * Regenerates the given chunk in this world without blocking the calling thread, see
+   * [com.github.plateofpasta.edgestitch.chunk.regenerateChunkAsync].
+   *
+   * @param chunk Chunk to regenerate.
+   * @return Future completed with the timings of the regeneration once the chunk is applied.
+   */
+  fun regenerateChunkAsync(chunk: ChunkPos): CompletableFuture<RegenResult> {
+    return regenerateChunkAsync(impl, chunk)
+  }
+
+  /**
+   * Regenerates every chunk within a rectangle of this world without blocking the calling thread,
+   * see [com.github.plateofpasta.edgestitch.chunk.regenerateRegion].
+   *
+   * @param min Corner of the rectangle with the lowest coordinates.
+   * @param max Corner of the rectangle with the highest coordinates.
+   * @return Future completed with the timings of every chunk once every chunk is applied.
+   */
+  fun regenerateRegion(min: ChunkPos, max: ChunkPos): CompletableFuture<List<RegenResult>> {
+    return regenerateRegion(impl, min, max)
+  }
+
   /**
    * Gets the world name.
    *